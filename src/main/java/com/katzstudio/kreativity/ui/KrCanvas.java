@@ -4,7 +4,9 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.component.KrLayoutScheduler;
 import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.component.KrParallelDrawer;
 import com.katzstudio.kreativity.ui.component.KrWidget;
 import com.katzstudio.kreativity.ui.event.*;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
@@ -39,6 +41,12 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     private KrWidget currentlyHoveredWidget = null;
 
+    /**
+     * True between a dispatched press and its release. The state of the input source can't be used, since it's
+     * already ahead of the dispatched event when events are queued.
+     */
+    private boolean isMouseDown;
+
     @Getter private final KrFocusManager focusManager;
 
     private final List<KrInputListener> listeners = new ArrayList<>();
@@ -51,6 +59,10 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     private ArrayList<KrWidget> widgets = new ArrayList<>();
 
+    private final KrDirtyRegion dirtyRegion = new KrDirtyRegion();
+
+    @Getter private final KrLayoutScheduler layoutScheduler = new KrLayoutScheduler();
+
     KrCanvas(KrInputSource input, KrRenderer renderer, float width, float height) {
 
         this.input = input;
@@ -81,7 +93,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         rootPanel.addWidgetListener(new KrWidget.KrWidgetListener.KrAbstractWidgetListener() {
             @Override
             public void invalidated() {
-                focusManager.refresh();
+                focusManager.invalidate();
             }
         });
 
@@ -102,14 +114,62 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         rootPanel.setSize(width, height);
         overlayPanel.setSize(width, height);
         renderer.setViewportSize(width, height);
+        dirtyRegion.setSize(width, height);
     }
 
     /**
-     * Call every frame to allow components to update themselves.
+     * Marks the screen area covered by a widget as requiring a redraw.
+     *
+     * @param widget the widget that needs to be redrawn
+     */
+    public void markDirty(KrWidget widget) {
+        float screenX = widget.getX();
+        float screenY = widget.getY();
+        KrWidget parent = widget.getParent();
+        while (parent != null) {
+            screenX += parent.getX();
+            screenY += parent.getY();
+            parent = parent.getParent();
+        }
+        dirtyRegion.mark(screenX, screenY, widget.getWidth(), widget.getHeight());
+    }
+
+    /**
+     * Marks a screen area as requiring a redraw.
+     */
+    public void markDirty(float x, float y, float width, float height) {
+        dirtyRegion.mark(x, y, width, height);
+    }
+
+    /**
+     * Requests the whole canvas to be redrawn.
+     */
+    public void markAllDirty() {
+        dirtyRegion.markAll();
+    }
+
+    /**
+     * Enables building the draw calls of the top level widgets of the root panel in parallel, on the
+     * common fork join pool. The draw calls are still submitted to the renderer on the calling thread.
+     */
+    public void setParallelDrawing(boolean parallelDrawing) {
+        rootPanel.setParallelDrawer(parallelDrawing ? new KrParallelDrawer() : null);
+    }
+
+    public boolean isParallelDrawing() {
+        return rootPanel.getParallelDrawer() != null;
+    }
+
+    /**
+     * Call every frame to allow components to update themselves. The widgets invalidated since the
+     * last frame are laid out before they are updated.
      *
      * @param deltaSeconds the time, in seconds, since the last update
      */
     public void update(float deltaSeconds) {
+        layoutScheduler.resetCounters();
+        layout();
+
         widgets.clear();
         widgets.add(rootPanel);
         widgets.add(overlayPanel);
@@ -127,19 +187,51 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         tooltipManager.update(deltaSeconds);
     }
 
+    /**
+     * Runs the layout pass, if any widget was invalidated. The focus order is refreshed after the pass,
+     * since it depends on the widget tree.
+     */
+    private void layout() {
+        if (layoutScheduler.isLayoutPending()) {
+            layoutScheduler.layout();
+            focusManager.invalidate();
+        }
+    }
+
     /**
      * Draws the UI.
+     * <p>
+     * If the renderer retains the content of the previous frame, only the dirty areas of
+     * the canvas are redrawn. Otherwise, the whole canvas is redrawn.
      */
     public void draw() {
+        layout();
+
         renderer.beginFrame();
         renderer.setFont(getDefaultToolkit().getSkin().getDefaultFont());
         renderer.setPen(1, getDefaultToolkit().getSkin().getColor(KrSkin.ColorKey.FOREGROUND));
 
+        if (!renderer.isRetained() || dirtyRegion.isFull()) {
+            renderer.clear();
+            drawPanels();
+        } else {
+            for (int i = 0; i < dirtyRegion.getSize(); ++i) {
+                if (renderer.beginClip(dirtyRegion.get(i))) {
+                    renderer.clear();
+                    drawPanels();
+                    renderer.endClip();
+                }
+            }
+        }
+        dirtyRegion.clear();
+
+        renderer.endFrame();
+    }
+
+    private void drawPanels() {
         rootPanel.draw(renderer);
         overlayPanel.draw(renderer);
         tooltipPanel.draw(renderer);
-
-        renderer.endFrame();
     }
 
 
@@ -147,10 +239,15 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
     public void mouseMoved(KrMouseEvent event) {
         KrWidget hoveredWidget = findWidgetAt(event.getScreenPosition());
 
-        if (!input.isDragging() && hoveredWidget != currentlyHoveredWidget) {
+        if (!isMouseDown && hoveredWidget != currentlyHoveredWidget) {
             if (currentlyHoveredWidget != null) {
-                dispatchEventWithoutBubbling(currentlyHoveredWidget, new KrExitEvent());
-                dispatchEventWithoutBubbling(hoveredWidget, new KrEnterEvent());
+                KrExitEvent exitEvent = KrExitEvent.obtain();
+                dispatchEventWithoutBubbling(currentlyHoveredWidget, exitEvent);
+                exitEvent.release();
+
+                KrEnterEvent enterEvent = KrEnterEvent.obtain();
+                dispatchEventWithoutBubbling(hoveredWidget, enterEvent);
+                enterEvent.release();
             }
 
             currentlyHoveredWidget = hoveredWidget;
@@ -161,6 +258,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     @Override
     public void mousePressed(KrMouseEvent event) {
+        isMouseDown = true;
         mouseFocusHolder = findWidgetAt(event.getScreenPosition());
         if (mouseFocusHolder != keyboardFocusHolder) {
             requestFocus(mouseFocusHolder);
@@ -171,11 +269,13 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     @Override
     public void mouseReleased(KrMouseEvent event) {
+        isMouseDown = false;
         dispatchEvent(mouseFocusHolder, event);
     }
 
     @Override
     public void mouseDoubleClicked(KrMouseEvent event) {
+        isMouseDown = true;
         dispatchEvent(mouseFocusHolder, event);
     }
 
@@ -186,7 +286,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         }
 
         if (event.getKeycode() == TAB && !keyboardFocusHolder.acceptsTabInput()) {
-            if (input.isShiftDown()) {
+            if (event.isShiftDown()) {
                 focusPrevious();
             } else {
                 focusNext();
@@ -222,6 +322,10 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
             notifyEventDispatched(widget, event);
 
+            // widgets usually change their appearance when handling events. Repainting also discards the
+            // layers and draw caches holding the widget. Ancestors receiving the event through bubbling are
+            // not repainted, since that would often redraw the whole canvas
+            widget.repaint();
             widget.handle(event);
 
             while (!event.handled() && widget.getParent() != null) {
@@ -239,6 +343,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
         }
 
         notifyEventDispatched(widget, event);
+        widget.repaint();
         widget.handle(event);
 
         return event.handled();
@@ -263,22 +368,29 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
 
     /**
      * Finds the topmost widget (a leaf in the hierarchy) whose geometry contains the requested screen coordinates.
+     * <p>
+     * The hierarchy is walked down from the root, converting the point to the space of each widget, so no
+     * screen geometry is computed.
      *
      * @param root the root of the widget hierarchy
-     * @param x    the requested x position relative to the root widget
-     * @param y    the requested y position relative to the root widget
+     * @param x    the requested x position, in screen space
+     * @param y    the requested y position, in screen space
      * @return the topmost widget that contains the requested coordinates
      */
     public static KrWidget findWidgetAt(KrWidget root, float x, float y) {
-        ArrayList<KrWidget> childList = root.getChildren();
-        for (int i = childList.size() - 1; i >= 0; --i) {
-            KrWidget child = childList.get(i);
-            if (getScreenGeometry(child).contains(x, y) && child.isVisible()) {
-                return findWidgetAt(child, x, y);
-            }
+        float localX = x - root.getScreenX();
+        float localY = y - root.getScreenY();
+
+        KrWidget widget = root;
+        KrWidget child = widget.findChildAt(localX, localY);
+        while (child != null) {
+            widget = child;
+            localX -= child.getX();
+            localY -= child.getY();
+            child = widget.findChildAt(localX, localY);
         }
 
-        return root;
+        return widget;
     }
 
     public static boolean isAncestor(KrWidget child, KrWidget ancestor) {
@@ -310,15 +422,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
      * @return the screen-space geometry of the queried widget
      */
     public static Rectangle getScreenGeometry(KrWidget widget) {
-        Rectangle widgetGeometry = new Rectangle(widget.getX(), widget.getY(), widget.getWidth(), widget.getHeight());
-
-        while (widget.getParent() != null) {
-            widget = widget.getParent();
-            widgetGeometry.setX(widget.getX() + widgetGeometry.x);
-            widgetGeometry.setY(widget.getY() + widgetGeometry.y);
-        }
-
-        return widgetGeometry;
+        return widget.getScreenGeometry();
     }
 
     /**
@@ -329,8 +433,7 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
      * @return the point's position in screen space
      */
     public static Vector2 convertPointToScreen(Vector2 point, KrWidget widget) {
-        Rectangle widgetGeometry = getScreenGeometry(widget);
-        return widgetGeometry.getPosition(new Vector2()).add(point);
+        return widget.localToScreen(point.x, point.y, new Vector2());
     }
 
     public boolean clearFocus() {
@@ -377,6 +480,8 @@ public class KrCanvas implements KrInputSource.KrInputEventListener {
     }
 
     protected void notifyEventDispatched(KrWidget widget, KrEvent event) {
-        listeners.forEach(l -> l.eventDispatched(widget, event));
+        for (int i = 0; i < listeners.size(); ++i) {
+            listeners.get(i).eventDispatched(widget, event);
+        }
     }
 }
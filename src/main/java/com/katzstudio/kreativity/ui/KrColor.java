@@ -1,6 +1,7 @@
 package com.katzstudio.kreativity.ui;
 
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.NumberUtils;
 
 /**
  * Color utilities
@@ -21,4 +22,27 @@ public class KrColor {
     public static Color rgba(int rgba) {
         return new Color(rgba);
     }
+
+    /**
+     * Returns a packed color, in the ABGR format of {@link Color#toFloatBits()}, with the alpha multiplied by {@code opacity}.
+     */
+    public static float multiplyAlpha(float packedColor, float opacity) {
+        if (opacity == 1) {
+            return packedColor;
+        }
+
+        int abgr = NumberUtils.floatToIntColor(packedColor);
+        int alpha = (int) ((abgr >>> 24) * opacity);
+        return NumberUtils.intToFloatColor((abgr & 0x00ffffff) | (alpha << 24));
+    }
+
+    /**
+     * Sets the components of {@code color} from a packed color, in the ABGR format of {@link Color#toFloatBits()}.
+     */
+    public static Color unpack(float packedColor, Color color) {
+        int abgr = NumberUtils.floatToIntColor(packedColor);
+        // packing drops the lowest bit of the alpha, so full opacity is stored as 254
+        float alpha = Math.min(1, (abgr >>> 24) / 254f);
+        return color.set((abgr & 0xff) / 255f, ((abgr >>> 8) & 0xff) / 255f, ((abgr >>> 16) & 0xff) / 255f, alpha);
+    }
 }
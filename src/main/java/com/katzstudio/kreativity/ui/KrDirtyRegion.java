@@ -0,0 +1,174 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.math.Rectangle;
+import lombok.Getter;
+
+/**
+ * The {@link KrDirtyRegion} keeps track of the screen areas that need to be redrawn.
+ * <p>
+ * Overlapping rectangles are merged together. The region holds at most {@code MAX_RECTANGLES} rectangles.
+ * When the limit is reached, the new rectangle is merged with the rectangle whose area grows the least.
+ * All the rectangles are preallocated, so marking areas as dirty doesn't allocate.
+ */
+public class KrDirtyRegion {
+
+    public static final int MAX_RECTANGLES = 8;
+
+    private final Rectangle[] rectangles = new Rectangle[MAX_RECTANGLES];
+
+    @Getter private int size;
+
+    @Getter private float width;
+
+    @Getter private float height;
+
+    private boolean isFull;
+
+    public KrDirtyRegion() {
+        for (int i = 0; i < MAX_RECTANGLES; ++i) {
+            rectangles[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Sets the size of the area covered by the region. Resizing marks the whole area as dirty.
+     */
+    public void setSize(float width, float height) {
+        this.width = width;
+        this.height = height;
+        markAll();
+    }
+
+    /**
+     * Marks the whole area as dirty.
+     */
+    public void markAll() {
+        isFull = true;
+        size = 0;
+    }
+
+    /**
+     * Returns true if the whole area needs to be redrawn.
+     */
+    public boolean isFull() {
+        return isFull;
+    }
+
+    /**
+     * Returns true if nothing needs to be redrawn.
+     */
+    public boolean isEmpty() {
+        return !isFull && size == 0;
+    }
+
+    /**
+     * Returns the dirty rectangle at the specified index. The returned rectangle must not be modified.
+     */
+    public Rectangle get(int index) {
+        return rectangles[index];
+    }
+
+    /**
+     * Removes all the dirty rectangles.
+     */
+    public void clear() {
+        isFull = false;
+        size = 0;
+    }
+
+    /**
+     * Marks a rectangle as dirty. The rectangle is clipped to the bounds of the region.
+     */
+    public void mark(float x, float y, float w, float h) {
+        if (isFull) {
+            return;
+        }
+
+        float x1 = Math.max(x, 0);
+        float y1 = Math.max(y, 0);
+        float x2 = Math.min(x + w, width);
+        float y2 = Math.min(y + h, height);
+
+        if (x2 <= x1 || y2 <= y1) {
+            return;
+        }
+
+        if (x1 == 0 && y1 == 0 && x2 == width && y2 == height) {
+            markAll();
+            return;
+        }
+
+        for (int i = 0; i < size; ++i) {
+            if (overlaps(rectangles[i], x1, y1, x2, y2)) {
+                union(rectangles[i], x1, y1, x2, y2);
+                mergeOverlapping(i);
+                return;
+            }
+        }
+
+        if (size < MAX_RECTANGLES) {
+            rectangles[size].set(x1, y1, x2 - x1, y2 - y1);
+            size += 1;
+            return;
+        }
+
+        int bestIndex = 0;
+        float bestGrowth = Float.MAX_VALUE;
+        for (int i = 0; i < size; ++i) {
+            float growth = unionArea(rectangles[i], x1, y1, x2, y2) - rectangles[i].area();
+            if (growth < bestGrowth) {
+                bestGrowth = growth;
+                bestIndex = i;
+            }
+        }
+        union(rectangles[bestIndex], x1, y1, x2, y2);
+        mergeOverlapping(bestIndex);
+    }
+
+    /**
+     * A rectangle grew, so it may overlap other rectangles. Merge them until no overlaps remain.
+     */
+    private void mergeOverlapping(int index) {
+        Rectangle grown = rectangles[index];
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < size; ++i) {
+                Rectangle other = rectangles[i];
+                if (other != grown && overlaps(grown, other.x, other.y, other.x + other.width, other.y + other.height)) {
+                    union(grown, other.x, other.y, other.x + other.width, other.y + other.height);
+                    removeAt(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void removeAt(int index) {
+        Rectangle removed = rectangles[index];
+        for (int i = index; i < size - 1; ++i) {
+            rectangles[i] = rectangles[i + 1];
+        }
+        rectangles[size - 1] = removed;
+        size -= 1;
+    }
+
+    private static boolean overlaps(Rectangle rectangle, float x1, float y1, float x2, float y2) {
+        return rectangle.x < x2 && x1 < rectangle.x + rectangle.width && rectangle.y < y2 && y1 < rectangle.y + rectangle.height;
+    }
+
+    private static void union(Rectangle rectangle, float x1, float y1, float x2, float y2) {
+        float minX = Math.min(rectangle.x, x1);
+        float minY = Math.min(rectangle.y, y1);
+        float maxX = Math.max(rectangle.x + rectangle.width, x2);
+        float maxY = Math.max(rectangle.y + rectangle.height, y2);
+        rectangle.set(minX, minY, maxX - minX, maxY - minY);
+    }
+
+    private static float unionArea(Rectangle rectangle, float x1, float y1, float x2, float y2) {
+        float w = Math.max(rectangle.x + rectangle.width, x2) - Math.min(rectangle.x, x1);
+        float h = Math.max(rectangle.y + rectangle.height, y2) - Math.min(rectangle.y, y1);
+        return w * h;
+    }
+}
@@ -8,6 +8,8 @@ import java.util.Queue;
 
 /**
  * The {@link KrFocusManager} class takes care of switching the focus between widgets.
+ * <p>
+ * The focus order is computed when it is first needed after an {@code invalidate} call.
  */
 public class KrFocusManager {
 
@@ -15,12 +17,22 @@ public class KrFocusManager {
 
     private final List<KrWidget> orderedFocusableWidgets = new LinkedList<>();
 
+    private boolean isValid;
+
     public KrFocusManager(KrWidget rootWidget) {
         this.rootWidget = rootWidget;
         refresh();
     }
 
+    /**
+     * Marks the focus order as outdated, for example because widgets were added or removed.
+     */
+    public void invalidate() {
+        isValid = false;
+    }
+
     public void refresh() {
+        isValid = true;
         orderedFocusableWidgets.clear();
         Queue<KrWidget> toProcess = new LinkedList<>();
         toProcess.add(rootWidget);
@@ -35,12 +47,18 @@ public class KrFocusManager {
     }
 
     public KrWidget nextFocusable(KrWidget currentlyFocused) {
+        if (!isValid) {
+            refresh();
+        }
         int focusHolderIndex = orderedFocusableWidgets.indexOf(currentlyFocused);
         int nextFocusHolderIndex = (focusHolderIndex + 1) % orderedFocusableWidgets.size();
         return orderedFocusableWidgets.get(nextFocusHolderIndex);
     }
 
     public KrWidget previousFocusable(KrWidget currentlyFocused) {
+        if (!isValid) {
+            refresh();
+        }
         int focusHolderIndex = orderedFocusableWidgets.indexOf(currentlyFocused);
         int previousIndex = (orderedFocusableWidgets.size() + focusHolderIndex - 1) % orderedFocusableWidgets.size();
         return orderedFocusableWidgets.get(previousIndex);
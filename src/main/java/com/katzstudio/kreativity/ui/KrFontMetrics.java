@@ -14,12 +14,18 @@ public abstract class KrFontMetrics {
     }
 
     public Rectangle bounds(BitmapFont font, String text, int from, int count) {
-        return bounds(font, text, from, count, new Rectangle());
+        return bounds(font, text, from, from + count, new Rectangle());
     }
 
     public Rectangle bounds(BitmapFont font, String text, Rectangle bounds) {
         return bounds(font, text, 0, text.length(), bounds);
     }
 
-    public abstract Rectangle bounds(BitmapFont font, String text, int from, int to, Rectangle bounds);
+    /**
+     * Measures the characters of {@code text} from {@code start} (inclusive) to {@code end} (exclusive), without
+     * copying them.
+     *
+     * @return the {@code bounds} rectangle, with its size set to the size of the text
+     */
+    public abstract Rectangle bounds(BitmapFont font, CharSequence text, int start, int end, Rectangle bounds);
 }
@@ -1,6 +1,9 @@
 package com.katzstudio.kreativity.ui;
 
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import lombok.Getter;
 
@@ -8,6 +11,10 @@ import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
 
 /**
  * {@link String} wrapper that caches font metrics.
+ * <p>
+ * The glyph geometry of the string is cached as well, the first time it is requested. The glyphs
+ * are laid out again only when the string or the font change; color and position changes only
+ * update the cached vertices.
  */
 public class KrMeasuredString {
 
@@ -17,6 +24,12 @@ public class KrMeasuredString {
 
     private Rectangle bounds;
 
+    private BitmapFontCache glyphCache;
+
+    private boolean isGlyphCacheValid;
+
+    private float glyphColor;
+
     public KrMeasuredString() {
         this("", getDefaultToolkit().getSkin().getDefaultFont());
     }
@@ -34,6 +47,7 @@ public class KrMeasuredString {
     public void setString(String string) {
         if (!this.string.equals(string)) {
             this.string = string;
+            isGlyphCacheValid = false;
             updateBounds();
         }
     }
@@ -41,6 +55,7 @@ public class KrMeasuredString {
     public void setFont(BitmapFont font) {
         if (!this.font.equals(font)) {
             this.font = font;
+            isGlyphCacheValid = false;
             updateBounds();
         }
     }
@@ -54,6 +69,51 @@ public class KrMeasuredString {
         return bounds;
     }
 
+    /**
+     * Returns the glyph geometry of the string, colored and positioned for drawing.
+     *
+     * @param color the color of the glyphs
+     * @param x     the X coordinate of the text, in batch coordinates
+     * @param y     the Y coordinate of the top of the text, in batch coordinates
+     * @return the cached glyphs, ready to be drawn with a batch
+     */
+    public BitmapFontCache getGlyphCache(Color color, float x, float y) {
+        return getGlyphCache(color.toFloatBits(), x, y);
+    }
+
+    /**
+     * Returns the glyph geometry of the string, colored and positioned for drawing.
+     *
+     * @param packedColor the color of the glyphs, in the format of {@link Color#toFloatBits()}
+     * @param x           the X coordinate of the text, in batch coordinates
+     * @param y           the Y coordinate of the top of the text, in batch coordinates
+     * @return the cached glyphs, ready to be drawn with a batch
+     */
+    public BitmapFontCache getGlyphCache(float packedColor, float x, float y) {
+        if (glyphCache == null || glyphCache.getFont() != font) {
+            glyphCache = font.newFontCache();
+            isGlyphCacheValid = false;
+        }
+
+        if (!isGlyphCacheValid) {
+            glyphCache.setText(string, 0, 0);
+            isGlyphCacheValid = true;
+            glyphColor = Float.NaN;
+        }
+
+        if (packedColor != glyphColor) {
+            glyphCache.setColors(packedColor);
+            glyphColor = packedColor;
+        }
+
+        if (glyphCache.usesIntegerPositions()) {
+            x = MathUtils.round(x);
+            y = MathUtils.round(y);
+        }
+        glyphCache.setPosition(x, y);
+        return glyphCache;
+    }
+
     private void updateBounds() {
         if (string.isEmpty()) {
             bounds = new Rectangle(0, 0, 0, 0);
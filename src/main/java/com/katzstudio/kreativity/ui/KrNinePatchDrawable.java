@@ -0,0 +1,230 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.NinePatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+
+/**
+ * A {@link NinePatchDrawable} that caches the tessellated quads of the patch.
+ * <p>
+ * The vertices of the nine quads depend on the size of the drawable and the batch color, but not on its position.
+ * They are computed relative to the origin for each (width, height, color) triple and kept in a small cache,
+ * so drawing a patch that wasn't resized only offsets the cached vertices. The cache is shared by all the
+ * widgets using the drawable, and replaces its oldest entry when full.
+ * <p>
+ * The vertices are the same as the ones of {@link NinePatch#draw(Batch, float, float, float, float)}. The
+ * cache doesn't track changes to the patch, so {@code invalidate} must be called after modifying it. The
+ * texture coordinates come from the region the patch was built from, which a {@link NinePatch} doesn't expose,
+ * so the patch is replaced with {@link #setPatch(TextureRegion, int, int, int, int)}.
+ */
+public class KrNinePatchDrawable extends NinePatchDrawable {
+
+    private static final int SPRITE_SIZE = 20;
+
+    private static final int CACHE_SIZE = 8;
+
+    private Texture texture;
+
+    private int quadCount;
+
+    /**
+     * Texture coordinates of the non empty patches, stored as (u, v, u2, v2) quadruples.
+     */
+    private float[] uvs;
+
+    /**
+     * Rows and columns of the non empty patches, stored as (column, row) pairs.
+     */
+    private int[] cells;
+
+    private final float[] widths = new float[CACHE_SIZE];
+
+    private final float[] heights = new float[CACHE_SIZE];
+
+    private final float[] colors = new float[CACHE_SIZE];
+
+    private final float[][] vertices = new float[CACHE_SIZE][];
+
+    private int entryCount;
+
+    private int nextEntry;
+
+    private float[] drawVertices;
+
+    private final Color tmpColor = new Color();
+
+    private final float[] columnX = new float[4];
+
+    private final float[] rowY = new float[4];
+
+    public KrNinePatchDrawable(TextureRegion region, int left, int right, int top, int bottom) {
+        super(new NinePatch(region, left, right, top, bottom));
+        updateQuads(region, left, right, top, bottom);
+    }
+
+    /**
+     * Replaces the patch with one built from the given region and splits, and clears the cached vertices.
+     */
+    public void setPatch(TextureRegion region, int left, int right, int top, int bottom) {
+        super.setPatch(new NinePatch(region, left, right, top, bottom));
+        updateQuads(region, left, right, top, bottom);
+        invalidate();
+    }
+
+    /**
+     * Only accepts the current patch, to clear the cached vertices after modifying it. Other patches must be set
+     * with {@link #setPatch(TextureRegion, int, int, int, int)}, since their region can't be read back.
+     */
+    @Override
+    public void setPatch(NinePatch patch) {
+        // the super constructor sets the patch before the quads are computed
+        if (texture != null && patch != getPatch()) {
+            throw new IllegalArgumentException("Cannot read the region of a nine patch, use setPatch(TextureRegion, int, int, int, int)");
+        }
+        super.setPatch(patch);
+        invalidate();
+    }
+
+    private void updateQuads(TextureRegion region, int left, int right, int top, int bottom) {
+        texture = region.getTexture();
+
+        int[] columns = { left, region.getRegionWidth() - left - right, right };
+        int[] rows = { bottom, region.getRegionHeight() - top - bottom, top };
+
+        int count = 0;
+        for (int column = 0; column < 3; ++column) {
+            for (int row = 0; row < 3; ++row) {
+                if (columns[column] > 0 && rows[row] > 0) {
+                    count += 1;
+                }
+            }
+        }
+
+        if (uvs == null || quadCount != count) {
+            uvs = new float[count * 4];
+            cells = new int[count * 2];
+            drawVertices = new float[count * SPRITE_SIZE];
+            for (int i = 0; i < CACHE_SIZE; ++i) {
+                vertices[i] = new float[count * SPRITE_SIZE];
+            }
+        }
+        quadCount = count;
+
+        float texelWidth = 1.0f / texture.getWidth();
+        float texelHeight = 1.0f / texture.getHeight();
+        int quad = 0;
+        for (int row = 0; row < 3; ++row) {
+            for (int column = 0; column < 3; ++column) {
+                if (columns[column] == 0 || rows[row] == 0) {
+                    continue;
+                }
+
+                // texture rows go top to bottom, patch rows go bottom to top
+                int x = region.getRegionX() + (column > 0 ? columns[0] : 0) + (column > 1 ? columns[1] : 0);
+                int y = region.getRegionY() + (row < 2 ? rows[2] : 0) + (row < 1 ? rows[1] : 0);
+                float u = x * texelWidth;
+                float u2 = (x + columns[column]) * texelWidth;
+                float v = (y + rows[row]) * texelHeight;
+                float v2 = y * texelHeight;
+
+                // same half texel inset as NinePatch, to avoid bleeding when stretching with linear filtering
+                if (column == 1) {
+                    u += texelWidth / 2;
+                    u2 -= texelWidth / 2;
+                }
+                if (row == 1) {
+                    v -= texelHeight / 2;
+                    v2 += texelHeight / 2;
+                }
+
+                uvs[quad * 4] = u;
+                uvs[quad * 4 + 1] = v;
+                uvs[quad * 4 + 2] = u2;
+                uvs[quad * 4 + 3] = v2;
+                cells[quad * 2] = column;
+                cells[quad * 2 + 1] = row;
+                quad += 1;
+            }
+        }
+    }
+
+    @Override
+    public void draw(Batch batch, float x, float y, float width, float height) {
+        float[] cached = getVertices(batch, width, height);
+        int count = quadCount * SPRITE_SIZE;
+        System.arraycopy(cached, 0, drawVertices, 0, count);
+        for (int i = 0; i < count; i += 5) {
+            drawVertices[i] += x;
+            drawVertices[i + 1] += y;
+        }
+        batch.draw(texture, drawVertices, 0, count);
+    }
+
+    /**
+     * Clears the cached vertices. Must be called after changing the patch.
+     */
+    public void invalidate() {
+        entryCount = 0;
+        nextEntry = 0;
+    }
+
+    private float[] getVertices(Batch batch, float width, float height) {
+        float batchColor = batch.getPackedColor();
+        for (int i = 0; i < entryCount; ++i) {
+            if (widths[i] == width && heights[i] == height && colors[i] == batchColor) {
+                return vertices[i];
+            }
+        }
+
+        int entry = nextEntry;
+        nextEntry = (nextEntry + 1) % CACHE_SIZE;
+        entryCount = Math.max(entryCount, entry + 1);
+        widths[entry] = width;
+        heights[entry] = height;
+        colors[entry] = batchColor;
+        tessellate(vertices[entry], width, height, batch.getColor());
+        return vertices[entry];
+    }
+
+    private void tessellate(float[] target, float width, float height, Color batchColor) {
+        NinePatch patch = getPatch();
+        float color = tmpColor.set(patch.getColor()).mul(batchColor).toFloatBits();
+
+        columnX[1] = patch.getLeftWidth();
+        columnX[2] = width - patch.getRightWidth();
+        columnX[3] = width;
+        rowY[1] = patch.getBottomHeight();
+        rowY[2] = height - patch.getTopHeight();
+        rowY[3] = height;
+
+        for (int quad = 0; quad < quadCount; ++quad) {
+            int column = cells[quad * 2];
+            int row = cells[quad * 2 + 1];
+            float x1 = columnX[column];
+            float x2 = columnX[column + 1];
+            float y1 = rowY[row];
+            float y2 = rowY[row + 1];
+            float u = uvs[quad * 4];
+            float v = uvs[quad * 4 + 1];
+            float u2 = uvs[quad * 4 + 2];
+            float v2 = uvs[quad * 4 + 3];
+
+            int offset = quad * SPRITE_SIZE;
+            setVertex(target, offset, x1, y1, color, u, v);
+            setVertex(target, offset + 5, x1, y2, color, u, v2);
+            setVertex(target, offset + 10, x2, y2, color, u2, v2);
+            setVertex(target, offset + 15, x2, y1, color, u2, v);
+        }
+    }
+
+    private static void setVertex(float[] vertices, int offset, float x, float y, float color, float u, float v) {
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = color;
+        vertices[offset + 3] = u;
+        vertices[offset + 4] = v;
+    }
+}
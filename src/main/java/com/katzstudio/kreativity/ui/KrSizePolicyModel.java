@@ -3,16 +3,43 @@ package com.katzstudio.kreativity.ui;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
  * Model for a list of size policies.
+ * <p>
+ * The sizes are solved into arrays owned by the model and memoized for the last available space, so asking for
+ * the sizes of the same space again, as views do every frame, doesn't solve them again. The primitive
+ * {@code getSizes(float, float[])} and {@code getIntSizes(float, int[])} copy the result into reusable arrays
+ * without allocating. The memoized sizes are discarded when a policy or a size limit changes. Subclasses that
+ * provide their own policies must call {@code invalidate} when these change.
+ * <p>
+ * Each element can be limited to a minimum and maximum size. Elements reaching a limit are fixed to it, and the
+ * remaining space is distributed between the other elements.
  */
 public class KrSizePolicyModel {
 
     private final List<KrUnifiedSize> sizePolicies = new ArrayList<>();
 
+    private float[] minSizes = new float[0];
+
+    private float[] maxSizes = new float[0];
+
+    private float[] solvedSizes = new float[0];
+
+    private int[] solvedIntSizes = new int[0];
+
+    private boolean[] isClamped = new boolean[0];
+
+    private boolean isSolved;
+
+    private boolean isIntSolved;
+
+    private float solvedSpace;
+
+    private int solvedCount;
+
     public KrSizePolicyModel(int count) {
         for (int i = 0; i < count; ++i) {
             sizePolicies.add(new KrUnifiedSize(0, 1));
@@ -31,43 +58,198 @@ public class KrSizePolicyModel {
         return sizePolicies.size();
     }
 
+    public KrUnifiedSize getSizePolicy(int index) {
+        return sizePolicies.get(index);
+    }
+
+    public void setSizePolicy(int index, KrUnifiedSize sizePolicy) {
+        sizePolicies.set(index, sizePolicy);
+        invalidate();
+    }
+
     public Stream<KrUnifiedSize> stream() {
-        return sizePolicies.stream();
+        return IntStream.range(0, getCount()).mapToObj(this::getSizePolicy);
+    }
+
+    /**
+     * Sets the minimum size of an element.
+     */
+    public void setMinSize(int index, float minSize) {
+        ensureCapacity(index + 1);
+        minSizes[index] = minSize;
+        invalidate();
+    }
+
+    public float getMinSize(int index) {
+        return index < minSizes.length ? minSizes[index] : 0;
+    }
+
+    /**
+     * Sets the maximum size of an element.
+     */
+    public void setMaxSize(int index, float maxSize) {
+        ensureCapacity(index + 1);
+        maxSizes[index] = maxSize;
+        invalidate();
+    }
+
+    public float getMaxSize(int index) {
+        return index < maxSizes.length ? maxSizes[index] : Float.MAX_VALUE;
+    }
+
+    /**
+     * Discards the memoized sizes.
+     */
+    public void invalidate() {
+        isSolved = false;
+        isIntSolved = false;
     }
 
     public List<Float> getSizes(float availableSpace) {
-        float absoluteRequested = stream()
-                .map(KrUnifiedSize::getAbsolute)
-                .map(KrSizePolicyModel::nonNegative)
-                .reduce(0.0f, (a, b) -> a + b);
+        solve(availableSpace);
 
-        float relativeRequested = stream()
-                .map(KrUnifiedSize::getRelative)
-                .map(KrSizePolicyModel::nonNegative)
-                .reduce(0.0f, Float::sum);
+        int count = getCount();
+        List<Float> sizes = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            sizes.add(solvedSizes[i]);
+        }
+        return sizes;
+    }
 
-        final float totalSpaceAvailable = (availableSpace < absoluteRequested) ? (relativeRequested > 0 ? absoluteRequested * 2 : absoluteRequested) : availableSpace;
-        float totalRelativeAvailable = totalSpaceAvailable - absoluteRequested;
-        final float relativeUnit = relativeRequested != 0 ? totalRelativeAvailable / relativeRequested : 0;
+    /**
+     * Stores the sizes of the elements in {@code sizes}, or in a new array if {@code sizes} is null or too short.
+     *
+     * @return the array holding the sizes
+     */
+    public float[] getSizes(float availableSpace, float[] sizes) {
+        solve(availableSpace);
 
-        return stream()
-                .map(size -> (nonNegative(size.getAbsolute()) + nonNegative(size.getRelative()) * relativeUnit) * availableSpace / totalSpaceAvailable)
-                .collect(Collectors.toList());
+        int count = getCount();
+        if (sizes == null || sizes.length < count) {
+            sizes = new float[count];
+        }
+        System.arraycopy(solvedSizes, 0, sizes, 0, count);
+        return sizes;
     }
 
     public List<Integer> getIntSizes(float availableSpace) {
-        List<Float> accurateSizes = getSizes(availableSpace);
+        solveInt(availableSpace);
 
+        int count = getCount();
+        List<Integer> sizes = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            sizes.add(solvedIntSizes[i]);
+        }
+        return sizes;
+    }
+
+    /**
+     * Stores the sizes of the elements, rounded down to integers, in {@code sizes}, or in a new array if
+     * {@code sizes} is null or too short. The last element receives what is lost by rounding.
+     *
+     * @return the array holding the sizes
+     */
+    public int[] getIntSizes(float availableSpace, int[] sizes) {
+        solveInt(availableSpace);
+
+        int count = getCount();
+        if (sizes == null || sizes.length < count) {
+            sizes = new int[count];
+        }
+        System.arraycopy(solvedIntSizes, 0, sizes, 0, count);
+        return sizes;
+    }
+
+    private void solveInt(float availableSpace) {
+        solve(availableSpace);
+        if (isIntSolved) {
+            return;
+        }
+
+        int count = getCount();
         int totalUsedSize = 0;
-        for (int i = 0; i < accurateSizes.size(); ++i) {
-            double value = accurateSizes.get(i);
-            int floor = (int) Math.floor(value);
+        for (int i = 0; i < count; ++i) {
+            int floor = (int) Math.floor(solvedSizes[i]);
             totalUsedSize += floor;
-            accurateSizes.set(i, (float) floor);
+            solvedIntSizes[i] = floor;
+        }
+        if (count > 0) {
+            solvedIntSizes[count - 1] = (int) (solvedIntSizes[count - 1] + availableSpace - totalUsedSize);
+        }
+        isIntSolved = true;
+    }
+
+    private void solve(float availableSpace) {
+        int count = getCount();
+        if (isSolved && solvedSpace == availableSpace && solvedCount == count) {
+            return;
         }
-        int lastElementIndex = accurateSizes.size() - 1;
-        accurateSizes.set(lastElementIndex, accurateSizes.get(lastElementIndex) + availableSpace - totalUsedSize);
-        return accurateSizes.stream().map(Float::intValue).collect(Collectors.toList());
+
+        ensureCapacity(count);
+        for (int i = 0; i < count; ++i) {
+            isClamped[i] = false;
+        }
+
+        // every pass fixes at least one more element to its limit, so this ends after at most count passes
+        float clampedSpace = 0;
+        boolean isClamping = true;
+        while (isClamping) {
+            float absoluteRequested = 0;
+            float relativeRequested = 0;
+            for (int i = 0; i < count; ++i) {
+                if (!isClamped[i]) {
+                    KrUnifiedSize policy = getSizePolicy(i);
+                    absoluteRequested += nonNegative(policy.getAbsolute());
+                    relativeRequested += nonNegative(policy.getRelative());
+                }
+            }
+
+            float space = availableSpace - clampedSpace;
+            float totalSpaceAvailable = (space < absoluteRequested) ? (relativeRequested > 0 ? absoluteRequested * 2 : absoluteRequested) : space;
+            float totalRelativeAvailable = totalSpaceAvailable - absoluteRequested;
+            float relativeUnit = relativeRequested != 0 ? totalRelativeAvailable / relativeRequested : 0;
+
+            isClamping = false;
+            for (int i = 0; i < count; ++i) {
+                if (isClamped[i]) {
+                    continue;
+                }
+
+                KrUnifiedSize policy = getSizePolicy(i);
+                float size = (nonNegative(policy.getAbsolute()) + nonNegative(policy.getRelative()) * relativeUnit) * space / totalSpaceAvailable;
+                if (totalSpaceAvailable == 0) {
+                    size = 0;
+                }
+                solvedSizes[i] = size;
+                if (size < minSizes[i] || size > maxSizes[i]) {
+                    solvedSizes[i] = Math.max(minSizes[i], Math.min(maxSizes[i], size));
+                    clampedSpace += solvedSizes[i];
+                    isClamped[i] = true;
+                    isClamping = true;
+                }
+            }
+        }
+
+        solvedSpace = availableSpace;
+        solvedCount = count;
+        isSolved = true;
+        isIntSolved = false;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (minSizes.length >= capacity) {
+            return;
+        }
+
+        int oldCapacity = minSizes.length;
+        minSizes = Arrays.copyOf(minSizes, capacity);
+        maxSizes = Arrays.copyOf(maxSizes, capacity);
+        Arrays.fill(maxSizes, oldCapacity, capacity, Float.MAX_VALUE);
+        solvedSizes = new float[capacity];
+        solvedIntSizes = new int[capacity];
+        isClamped = new boolean[capacity];
+        isSolved = false;
+        isIntSolved = false;
     }
 
     private static float nonNegative(float value) {
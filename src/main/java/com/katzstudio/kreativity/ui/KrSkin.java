@@ -4,12 +4,10 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
-import com.badlogic.gdx.graphics.g2d.NinePatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
-import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
 import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.katzstudio.kreativity.ui.component.*;
@@ -67,6 +65,8 @@ public class KrSkin {
 
     @Getter private Texture skinTexture;
 
+    @Getter private TextureRegion whitePixel;
+
     KrSkin(KrToolkit toolkit) {
         loadDefault(toolkit);
     }
@@ -82,6 +82,9 @@ public class KrSkin {
         String textureName = jsonSkin.get("texture").asString();
         skinTexture = new Texture(Gdx.files.classpath("ui/" + textureName));
 
+        JsonValue whitePixelPosition = jsonSkin.get("white_pixel");
+        whitePixel = new TextureRegion(skinTexture, whitePixelPosition.get(0).asInt(), whitePixelPosition.get(1).asInt(), 1, 1);
+
         String defaultFontPath = jsonSkin.get("fonts").get("default").asString();
         defaultFont = new BitmapFont(Gdx.files.classpath("ui/" + defaultFontPath));
 
@@ -98,8 +101,7 @@ public class KrSkin {
             Rectangle regionSplit = jsonArrayToRectangle(patch.get("split"));
 
             TextureRegion textureRegion = new TextureRegion(skinTexture, (int) regionRect.x, (int) regionRect.y, (int) regionRect.width, (int) regionRect.height);
-            NinePatch ninePatch = new NinePatch(textureRegion, (int) regionSplit.x, (int) regionSplit.y, (int) regionSplit.width, (int) regionSplit.height);
-            NinePatchDrawable ninePatchDrawable = new NinePatchDrawable(ninePatch);
+            KrNinePatchDrawable ninePatchDrawable = new KrNinePatchDrawable(textureRegion, (int) regionSplit.x, (int) regionSplit.y, (int) regionSplit.width, (int) regionSplit.height);
             ninePatchDrawable.setName(patchName);
 
             drawablePatches.put(patchName, ninePatchDrawable);
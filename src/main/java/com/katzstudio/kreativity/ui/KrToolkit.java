@@ -106,6 +106,7 @@ public class KrToolkit {
     }
 
     public void update(float deltaSeconds) {
+        getInputSource().dispatchEvents();
         if (canvas != null) {
             canvas.update(deltaSeconds);
         }
@@ -28,6 +28,11 @@ public interface KrBackend {
 
     Drawable createColorDrawable(Color color);
 
+    /**
+     * Returns the number of textures created and owned by the backend, including offscreen buffers.
+     */
+    int getTextureCount();
+
     int getScreenWidth();
 
     int getScreenHeight();
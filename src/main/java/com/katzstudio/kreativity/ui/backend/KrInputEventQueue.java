@@ -0,0 +1,212 @@
+package com.katzstudio.kreativity.ui.backend;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongArray;
+import com.katzstudio.kreativity.ui.backend.KrInputSource.KrInputEventListener;
+import com.katzstudio.kreativity.ui.event.KrEvent;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue between an input source and its listeners.
+ * <p>
+ * When the queue is deferred, posted events are kept until {@code dispatchEvents} is called, which the toolkit
+ * does once per frame, so a high rate mouse doesn't cause a full dispatch for each of its samples. Consecutive
+ * mouse moves are coalesced into a single move carrying the last position and the accumulated delta. The merged
+ * positions are kept in the history of the move, see {@link KrMouseEvent#getHistorySize()}, so widgets that need
+ * every sample, such as drawing tools, can still read them. Coalescing can be turned off to dispatch every move.
+ * Presses, releases, key and scroll events are never merged and are dispatched in the order they were posted.
+ * <p>
+ * When the queue is not deferred, posted events are dispatched right away.
+ * <p>
+ * The queue must only be used from the UI thread. Other threads post input through a {@link KrInputRingBuffer}
+ * registered on the queue. Queued events and ring buffer records are numbered from a shared sequence, and are
+ * dispatched in that order.
+ */
+public class KrInputEventQueue {
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private final List<KrInputEventListener> listeners = new ArrayList<>();
+
+    private final List<KrInputRingBuffer> ringBuffers = new ArrayList<>();
+
+    private Array<KrEvent> events = new Array<>(true, 16);
+
+    private Array<KrEvent> dispatchedEvents = new Array<>(true, 16);
+
+    private LongArray sequences = new LongArray(true, 16);
+
+    private LongArray dispatchedSequences = new LongArray(true, 16);
+
+    @Getter @Setter private boolean isDeferred;
+
+    @Getter @Setter private boolean isCoalescingMouseMoves = true;
+
+    /**
+     * The number of mouse moves merged into a previous move since the counter was reset.
+     */
+    @Getter private int coalescedEventCount;
+
+    public KrInputEventQueue(boolean isDeferred) {
+        this.isDeferred = isDeferred;
+    }
+
+    public void addEventListener(KrInputEventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeEventListener(KrInputEventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Registers a buffer written by another thread. Its records are dispatched by {@code dispatchEvents}.
+     */
+    public void addRingBuffer(KrInputRingBuffer ringBuffer) {
+        ringBuffers.add(ringBuffer);
+    }
+
+    public void removeRingBuffer(KrInputRingBuffer ringBuffer) {
+        ringBuffers.remove(ringBuffer);
+    }
+
+    /**
+     * Posts an event, taking over the reference of the caller on pooled events.
+     *
+     * @return true if the event was dispatched right away and handled by a listener
+     */
+    public boolean post(KrEvent event) {
+        if (!isDeferred) {
+            dispatch(event);
+            boolean handled = event.handled();
+            event.release();
+            return handled;
+        }
+
+        if (isCoalescingMouseMoves && isMouseMove(event) && events.size > 0 && isMouseMove(events.peek())) {
+            ((KrMouseEvent) events.peek()).coalesce((KrMouseEvent) event);
+            event.release();
+            coalescedEventCount += 1;
+            return false;
+        }
+
+        events.add(event);
+        sequences.add(nextSequence());
+        return false;
+    }
+
+    /**
+     * Dispatches the queued events and the records of the registered ring buffers, in the order they were posted.
+     * Events posted by the listeners are dispatched by the next call.
+     */
+    public void dispatchEvents() {
+        long endSequence = sequence.get();
+
+        Array<KrEvent> queuedEvents = events;
+        events = dispatchedEvents;
+        dispatchedEvents = queuedEvents;
+
+        LongArray queuedSequences = sequences;
+        sequences = dispatchedSequences;
+        dispatchedSequences = queuedSequences;
+
+        for (int i = 0; i < queuedEvents.size; ++i) {
+            dispatchRingBufferEvents(queuedSequences.get(i));
+
+            KrEvent event = queuedEvents.get(i);
+            dispatch(event);
+            event.release();
+        }
+        queuedEvents.clear();
+        queuedSequences.clear();
+
+        dispatchRingBufferEvents(endSequence);
+    }
+
+    /**
+     * Dispatches the ring buffer records posted before the given sequence number, merging the buffers.
+     */
+    private void dispatchRingBufferEvents(long endSequence) {
+        while (true) {
+            KrInputRingBuffer nextBuffer = null;
+            long nextSequence = endSequence;
+            for (int i = 0; i < ringBuffers.size(); ++i) {
+                long bufferSequence = ringBuffers.get(i).peekSequence();
+                if (bufferSequence < nextSequence) {
+                    nextBuffer = ringBuffers.get(i);
+                    nextSequence = bufferSequence;
+                }
+            }
+
+            if (nextBuffer == null) {
+                return;
+            }
+
+            KrEvent event = nextBuffer.poll();
+            dispatch(event);
+            event.release();
+        }
+    }
+
+    /**
+     * Returns the number of events waiting to be dispatched.
+     */
+    public int getQueuedEventCount() {
+        return events.size;
+    }
+
+    public void resetCounters() {
+        coalescedEventCount = 0;
+    }
+
+    private void dispatch(KrEvent event) {
+        for (int i = 0; i < listeners.size(); ++i) {
+            KrInputEventListener listener = listeners.get(i);
+            if (event instanceof KrMouseEvent) {
+                KrMouseEvent mouseEvent = (KrMouseEvent) event;
+                switch (mouseEvent.getType()) {
+                    case MOVED:
+                        listener.mouseMoved(mouseEvent);
+                        break;
+                    case PRESSED:
+                        listener.mousePressed(mouseEvent);
+                        break;
+                    case RELEASED:
+                        listener.mouseReleased(mouseEvent);
+                        break;
+                    case DOUBLE_CLICK:
+                        listener.mouseDoubleClicked(mouseEvent);
+                        break;
+                }
+            } else if (event instanceof KrKeyEvent) {
+                KrKeyEvent keyEvent = (KrKeyEvent) event;
+                if (keyEvent.getType() == KrKeyEvent.Type.PRESSED) {
+                    listener.keyPressed(keyEvent);
+                } else {
+                    listener.keyReleased(keyEvent);
+                }
+            } else if (event instanceof KrScrollEvent) {
+                listener.scrolledEvent((KrScrollEvent) event);
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of a new event. Can be called from any thread.
+     */
+    static long nextSequence() {
+        return sequence.getAndIncrement();
+    }
+
+    private static boolean isMouseMove(KrEvent event) {
+        return event instanceof KrMouseEvent && ((KrMouseEvent) event).getType() == KrMouseEvent.Type.MOVED;
+    }
+}
@@ -0,0 +1,275 @@
+package com.katzstudio.kreativity.ui.backend;
+
+import com.katzstudio.kreativity.ui.event.KrEvent;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Lock-free ring buffer of input records, written by one producer thread and read by the UI thread.
+ * <p>
+ * Input is stored as primitive records in preallocated arrays, so posting and draining don't allocate or
+ * lock. Each thread posting input needs its own buffer, registered on the {@link KrInputEventQueue} that drains
+ * it on the UI thread. Records are numbered from the same sequence as the events posted to the queues, so the
+ * queue dispatches them in the order they were posted. Records posted while the buffer is full are dropped and
+ * counted. Records drained later than the late threshold after being posted are counted as late.
+ * <p>
+ * libgdx calls input processors and timer tasks on the render thread, which post to the queue directly. The
+ * buffer is meant for input produced by other threads, such as synthetic or replayed input.
+ */
+public class KrInputRingBuffer {
+
+    /**
+     * Character of the key records that have no textual value.
+     */
+    public static final int NO_CHARACTER = -1;
+
+    private static final int MOUSE = 0;
+
+    private static final int KEY = 1;
+
+    private static final int SCROLL = 2;
+
+    private static final int ALT = 1;
+
+    private static final int CTRL = 2;
+
+    private static final int SHIFT = 4;
+
+    private static final KrMouseEvent.Type[] MOUSE_TYPES = KrMouseEvent.Type.values();
+
+    private static final KrMouseEvent.Button[] MOUSE_BUTTONS = KrMouseEvent.Button.values();
+
+    private static final KrKeyEvent.Type[] KEY_TYPES = KrKeyEvent.Type.values();
+
+    private static final String[] CHARACTER_VALUES = new String[128];
+
+    static {
+        for (int i = 0; i < CHARACTER_VALUES.length; ++i) {
+            CHARACTER_VALUES[i] = String.valueOf((char) i);
+        }
+    }
+
+    private final int mask;
+
+    private final int[] kinds;
+
+    private final int[] types;
+
+    private final int[] codes;
+
+    private final int[] characters;
+
+    private final int[] modifiers;
+
+    private final float[] values;
+
+    private final long[] timestamps;
+
+    private final long[] sequences;
+
+    private volatile long writeIndex;
+
+    private volatile long readIndex;
+
+    /**
+     * Only written by the producer. The consumer resets the counter by moving its baseline instead.
+     */
+    private volatile int droppedEventCount;
+
+    private int droppedEventBaseline;
+
+    /**
+     * The number of records drained later than the late threshold since the counters were reset.
+     */
+    @Getter private int lateEventCount;
+
+    /**
+     * Delay in nanoseconds after which a drained record is counted as late.
+     */
+    @Getter @Setter private long lateThreshold = 50_000_000L;
+
+    /**
+     * @param capacity the number of records the buffer can hold, rounded up to a power of two
+     */
+    public KrInputRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        kinds = new int[size];
+        types = new int[size];
+        codes = new int[size];
+        characters = new int[size];
+        modifiers = new int[size];
+        values = new float[size * 4];
+        timestamps = new long[size];
+        sequences = new long[size];
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Returns the number of records waiting to be drained.
+     */
+    public int size() {
+        return (int) (writeIndex - readIndex);
+    }
+
+    /**
+     * The number of records dropped because the buffer was full, since the counters were reset.
+     */
+    public int getDroppedEventCount() {
+        return droppedEventCount - droppedEventBaseline;
+    }
+
+    /**
+     * Posts a mouse record. Must only be called by the producer thread.
+     *
+     * @return false if the buffer is full and the record was dropped
+     */
+    public boolean postMouseEvent(KrMouseEvent.Type type, KrMouseEvent.Button button, float x, float y, float deltaX, float deltaY,
+                                  boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        long index = writeIndex;
+        if (!hasRoom(index)) {
+            return false;
+        }
+
+        int slot = (int) index & mask;
+        kinds[slot] = MOUSE;
+        types[slot] = type.ordinal();
+        codes[slot] = button.ordinal();
+        modifiers[slot] = modifiers(isAltDown, isCtrlDown, isShiftDown);
+        values[slot * 4] = x;
+        values[slot * 4 + 1] = y;
+        values[slot * 4 + 2] = deltaX;
+        values[slot * 4 + 3] = deltaY;
+        publish(index, slot);
+        return true;
+    }
+
+    /**
+     * Posts a key record. Must only be called by the producer thread.
+     *
+     * @param character the character typed by the key, or {@link #NO_CHARACTER}
+     * @return false if the buffer is full and the record was dropped
+     */
+    public boolean postKeyEvent(KrKeyEvent.Type type, int keycode, int character, boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        long index = writeIndex;
+        if (!hasRoom(index)) {
+            return false;
+        }
+
+        int slot = (int) index & mask;
+        kinds[slot] = KEY;
+        types[slot] = type.ordinal();
+        codes[slot] = keycode;
+        characters[slot] = character;
+        modifiers[slot] = modifiers(isAltDown, isCtrlDown, isShiftDown);
+        publish(index, slot);
+        return true;
+    }
+
+    /**
+     * Posts a scroll record. Must only be called by the producer thread.
+     *
+     * @return false if the buffer is full and the record was dropped
+     */
+    public boolean postScrollEvent(float amount) {
+        long index = writeIndex;
+        if (!hasRoom(index)) {
+            return false;
+        }
+
+        int slot = (int) index & mask;
+        kinds[slot] = SCROLL;
+        values[slot * 4] = amount;
+        publish(index, slot);
+        return true;
+    }
+
+    /**
+     * Returns the sequence number of the next record to drain, or {@code Long.MAX_VALUE} if the buffer is empty.
+     * Must only be called by the consumer thread.
+     */
+    long peekSequence() {
+        long index = readIndex;
+        return index < writeIndex ? sequences[(int) index & mask] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Decodes the next record into a pooled event, or returns null if the buffer is empty. Must only be called
+     * by the consumer thread.
+     */
+    KrEvent poll() {
+        long index = readIndex;
+        if (index >= writeIndex) {
+            return null;
+        }
+
+        int slot = (int) index & mask;
+        if (System.nanoTime() - timestamps[slot] > lateThreshold) {
+            lateEventCount += 1;
+        }
+
+        KrEvent event = decode(slot);
+        readIndex = index + 1;
+        return event;
+    }
+
+    /**
+     * Resets the dropped and late event counters. Must only be called by the consumer thread.
+     */
+    public void resetCounters() {
+        droppedEventBaseline = droppedEventCount;
+        lateEventCount = 0;
+    }
+
+    private KrEvent decode(int slot) {
+        int modifier = modifiers[slot];
+        boolean isAltDown = (modifier & ALT) != 0;
+        boolean isCtrlDown = (modifier & CTRL) != 0;
+        boolean isShiftDown = (modifier & SHIFT) != 0;
+
+        switch (kinds[slot]) {
+            case MOUSE:
+                return KrMouseEvent.obtain(MOUSE_TYPES[types[slot]], MOUSE_BUTTONS[codes[slot]],
+                        values[slot * 4], values[slot * 4 + 1], values[slot * 4 + 2], values[slot * 4 + 3],
+                        isAltDown, isCtrlDown, isShiftDown);
+            case KEY:
+                return KrKeyEvent.obtain(KEY_TYPES[types[slot]], codes[slot], characterValue(characters[slot]),
+                        isAltDown, isCtrlDown, isShiftDown);
+            default:
+                return new KrScrollEvent(values[slot * 4]);
+        }
+    }
+
+    private boolean hasRoom(long index) {
+        if (index - readIndex > mask) {
+            // only the producer writes the counter, so the increment can't be lost
+            //noinspection NonAtomicOperationOnVolatileField
+            droppedEventCount += 1;
+            return false;
+        }
+        return true;
+    }
+
+    private void publish(long index, int slot) {
+        timestamps[slot] = System.nanoTime();
+        sequences[slot] = KrInputEventQueue.nextSequence();
+        writeIndex = index + 1;
+    }
+
+    private static int modifiers(boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        return (isAltDown ? ALT : 0) | (isCtrlDown ? CTRL : 0) | (isShiftDown ? SHIFT : 0);
+    }
+
+    private static String characterValue(int character) {
+        if (character == NO_CHARACTER) {
+            return "";
+        }
+        return character < CHARACTER_VALUES.length ? CHARACTER_VALUES[character] : String.valueOf((char) character);
+    }
+}
@@ -26,6 +26,16 @@ public interface KrInputSource {
 
     void removeEventListener(KrInputEventListener listener);
 
+    /**
+     * Returns the queue through which the events of this source are dispatched.
+     */
+    KrInputEventQueue getEventQueue();
+
+    /**
+     * Dispatches the queued events to the listeners. Called by the toolkit once per frame.
+     */
+    void dispatchEvents();
+
     interface KrInputEventListener {
         void mouseMoved(KrMouseEvent event);
 
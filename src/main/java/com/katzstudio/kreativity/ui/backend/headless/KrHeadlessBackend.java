@@ -0,0 +1,78 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.utils.IntMap;
+import com.katzstudio.kreativity.ui.KrCursor;
+import com.katzstudio.kreativity.ui.backend.KrBackend;
+import lombok.Getter;
+
+/**
+ * A {@link KrBackend} that doesn't need a GL context or a window.
+ * <p>
+ * The renderer records the draw calls instead of executing them, the font metrics are computed from
+ * the glyph advances of the fonts, and the input source is driven by the caller. This allows complete
+ * canvas update and draw cycles to run in unit tests and benchmarks.
+ */
+public class KrHeadlessBackend implements KrBackend {
+
+    @Getter private final KrHeadlessRenderer renderer = new KrHeadlessRenderer();
+
+    @Getter private final KrHeadlessFontMetrics fontMetrics = new KrHeadlessFontMetrics();
+
+    @Getter private final KrHeadlessInputSource inputSource = new KrHeadlessInputSource();
+
+    /**
+     * Color drawables, keyed by their packed RGBA8888 color.
+     */
+    private final IntMap<Drawable> drawableCache = new IntMap<>();
+
+    @Getter private KrCursor cursor = KrCursor.ARROW;
+
+    private String clipboard = "";
+
+    @Getter private int screenWidth;
+
+    @Getter private int screenHeight;
+
+    public KrHeadlessBackend(int screenWidth, int screenHeight) {
+        setScreenSize(screenWidth, screenHeight);
+    }
+
+    public void setScreenSize(int screenWidth, int screenHeight) {
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        renderer.setViewportSize(screenWidth, screenHeight);
+    }
+
+    @Override
+    public void setCursor(KrCursor cursor) {
+        this.cursor = cursor != null ? cursor : KrCursor.ARROW;
+    }
+
+    @Override
+    public void writeToClipboard(String value) {
+        clipboard = value;
+    }
+
+    @Override
+    public String readFromClipboard() {
+        return clipboard;
+    }
+
+    @Override
+    public Drawable createColorDrawable(Color color) {
+        int key = Color.rgba8888(color);
+        Drawable colorDrawable = drawableCache.get(key);
+        if (colorDrawable == null) {
+            colorDrawable = new KrHeadlessColorDrawable(color);
+            drawableCache.put(key, colorDrawable);
+        }
+        return colorDrawable;
+    }
+
+    @Override
+    public int getTextureCount() {
+        return 0;
+    }
+}
@@ -0,0 +1,20 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
+import lombok.Getter;
+
+/**
+ * Solid color drawable created by the {@link KrHeadlessBackend}. It is never drawn, so it only
+ * remembers its color.
+ */
+public class KrHeadlessColorDrawable extends BaseDrawable {
+
+    @Getter private final Color color;
+
+    KrHeadlessColorDrawable(Color color) {
+        this.color = new Color(color);
+        setMinWidth(1);
+        setMinHeight(1);
+    }
+}
@@ -0,0 +1,63 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.katzstudio.kreativity.ui.KrFontMetrics;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * {@link KrFontMetrics} implementation for the headless backend.
+ * <p>
+ * Text is measured by adding the advances of its glyphs, as found in the glyph table of the font data.
+ * The font data can be loaded from a font file without creating textures, and registered for a font
+ * with {@code setFontData}. Fonts without data are measured as fixed width fonts.
+ */
+public class KrHeadlessFontMetrics extends KrFontMetrics {
+
+    private final Map<BitmapFont, BitmapFont.BitmapFontData> fontData = new IdentityHashMap<>();
+
+    @Getter @Setter private float defaultAdvance = 7;
+
+    @Getter @Setter private float defaultHeight = 10;
+
+    /**
+     * Sets the font data used for measuring text rendered with a font.
+     */
+    public void setFontData(BitmapFont font, BitmapFont.BitmapFontData data) {
+        fontData.put(font, data);
+    }
+
+    @Override
+    public Rectangle bounds(BitmapFont font, CharSequence text, int start, int end, Rectangle bounds) {
+        BitmapFont.BitmapFontData data = getFontData(font);
+        end = Math.min(end, text.length());
+
+        float width = 0;
+        if (data == null) {
+            width = Math.max(end - start, 0) * defaultAdvance;
+        } else {
+            for (int i = start; i < end; ++i) {
+                BitmapFont.Glyph glyph = data.getGlyph(text.charAt(i));
+                if (glyph != null) {
+                    width += glyph.xadvance * data.scaleX;
+                }
+            }
+        }
+
+        bounds.setWidth(width);
+        bounds.setHeight(data != null ? data.capHeight : defaultHeight);
+        return bounds;
+    }
+
+    private BitmapFont.BitmapFontData getFontData(BitmapFont font) {
+        if (font == null) {
+            return null;
+        }
+        BitmapFont.BitmapFontData data = fontData.get(font);
+        return data != null ? data : font.getData();
+    }
+}
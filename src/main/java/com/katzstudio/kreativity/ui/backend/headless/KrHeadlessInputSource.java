@@ -0,0 +1,159 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.math.Vector2;
+import com.katzstudio.kreativity.ui.backend.KrInputEventQueue;
+import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * {@link KrInputSource} implementation for the headless backend.
+ * <p>
+ * Input is scripted by calling the methods of this class, which notify the listeners right away. The event queue
+ * can be made deferred to queue the events until the next toolkit update, the way the lwjgl3 input source does.
+ * Mouse and key events are pooled and reused once the listeners return, see
+ * {@link com.katzstudio.kreativity.ui.event.KrEvent}. The methods can be chained:
+ * <pre>
+ *     inputSource.moveMouse(10, 10).pressMouse(KrMouseEvent.Button.LEFT).releaseMouse(KrMouseEvent.Button.LEFT);
+ * </pre>
+ */
+public class KrHeadlessInputSource implements KrInputSource {
+
+    @Getter private final KrInputEventQueue eventQueue = new KrInputEventQueue(false);
+
+    private final Vector2 mousePosition = new Vector2();
+
+    @Setter private boolean isAltDown;
+
+    @Setter private boolean isCtrlDown;
+
+    @Setter private boolean isShiftDown;
+
+    private boolean isDragging;
+
+    /**
+     * Moves the mouse to the specified screen position.
+     */
+    public KrHeadlessInputSource moveMouse(float x, float y) {
+        float deltaX = x - mousePosition.x;
+        float deltaY = y - mousePosition.y;
+        mousePosition.set(x, y);
+        KrMouseEvent event = createMouseEvent(KrMouseEvent.Type.MOVED, KrMouseEvent.Button.NONE, deltaX, deltaY);
+        eventQueue.post(event);
+        return this;
+    }
+
+    public KrHeadlessInputSource pressMouse(KrMouseEvent.Button button) {
+        isDragging = true;
+        KrMouseEvent event = createMouseEvent(KrMouseEvent.Type.PRESSED, button, 0, 0);
+        eventQueue.post(event);
+        return this;
+    }
+
+    public KrHeadlessInputSource releaseMouse(KrMouseEvent.Button button) {
+        isDragging = false;
+        KrMouseEvent event = createMouseEvent(KrMouseEvent.Type.RELEASED, button, 0, 0);
+        eventQueue.post(event);
+        return this;
+    }
+
+    /**
+     * Presses and releases a mouse button at the current mouse position.
+     */
+    public KrHeadlessInputSource click(KrMouseEvent.Button button) {
+        return pressMouse(button).releaseMouse(button);
+    }
+
+    public KrHeadlessInputSource doubleClick(KrMouseEvent.Button button) {
+        KrMouseEvent event = createMouseEvent(KrMouseEvent.Type.DOUBLE_CLICK, button, 0, 0);
+        eventQueue.post(event);
+        return this;
+    }
+
+    public KrHeadlessInputSource pressKey(int keycode) {
+        return pressKey(keycode, "");
+    }
+
+    /**
+     * Sends a key press event carrying the textual value of the key, as done when typing text.
+     */
+    public KrHeadlessInputSource pressKey(int keycode, String value) {
+        KrKeyEvent event = createKeyEvent(KrKeyEvent.Type.PRESSED, keycode, value);
+        eventQueue.post(event);
+        return this;
+    }
+
+    public KrHeadlessInputSource releaseKey(int keycode) {
+        KrKeyEvent event = createKeyEvent(KrKeyEvent.Type.RELEASED, keycode, "");
+        eventQueue.post(event);
+        return this;
+    }
+
+    /**
+     * Types a text, sending a key press event for each character.
+     */
+    public KrHeadlessInputSource typeText(String text) {
+        for (int i = 0; i < text.length(); ++i) {
+            char character = text.charAt(i);
+            pressKey(character, String.valueOf(character));
+        }
+        return this;
+    }
+
+    public KrHeadlessInputSource scroll(float amount) {
+        KrScrollEvent event = new KrScrollEvent(amount);
+        eventQueue.post(event);
+        return this;
+    }
+
+    private KrMouseEvent createMouseEvent(KrMouseEvent.Type type, KrMouseEvent.Button button, float deltaX, float deltaY) {
+        return KrMouseEvent.obtain(type, button, mousePosition.x, mousePosition.y, deltaX, deltaY, isAltDown, isCtrlDown, isShiftDown);
+    }
+
+    private KrKeyEvent createKeyEvent(KrKeyEvent.Type type, int keycode, String value) {
+        return KrKeyEvent.obtain(type, keycode, value, isAltDown, isCtrlDown, isShiftDown);
+    }
+
+    @Override
+    public boolean isAltDown() {
+        return isAltDown;
+    }
+
+    @Override
+    public boolean isCtrlDown() {
+        return isCtrlDown;
+    }
+
+    @Override
+    public boolean isShiftDown() {
+        return isShiftDown;
+    }
+
+    @Override
+    public boolean isDragging() {
+        return isDragging;
+    }
+
+    @Override
+    public Vector2 getMousePosition() {
+        return mousePosition;
+    }
+
+    @Override
+    public void addEventListener(KrInputEventListener listener) {
+        eventQueue.addEventListener(listener);
+    }
+
+    @Override
+    public void removeEventListener(KrInputEventListener listener) {
+        eventQueue.removeEventListener(listener);
+    }
+
+    @Override
+    public void dispatchEvents() {
+        eventQueue.dispatchEvents();
+    }
+}
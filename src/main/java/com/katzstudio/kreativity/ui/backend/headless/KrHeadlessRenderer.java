@@ -0,0 +1,473 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.badlogic.gdx.scenes.scene2d.utils.NinePatchDrawable;
+import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.katzstudio.kreativity.ui.KrColor;
+import com.katzstudio.kreativity.ui.render.KrBrush;
+import com.katzstudio.kreativity.ui.render.KrColorBrush;
+import com.katzstudio.kreativity.ui.render.KrDrawableBrush;
+import com.katzstudio.kreativity.ui.render.KrFrameStats;
+import com.katzstudio.kreativity.ui.render.KrFrameStats.FlushCause;
+import com.katzstudio.kreativity.ui.render.KrPen;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import com.katzstudio.kreativity.ui.util.KrPools;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * {@link KrRenderer} implementation for the headless backend.
+ * <p>
+ * Nothing is drawn. Instead, the renderer keeps a log of the draw and clip commands of the current
+ * frame, with their bounds in screen coordinates, and counts the work a batching renderer would do:
+ * <ul>
+ * <li>draws: the shapes, drawables and texts drawn</li>
+ * <li>texture binds: changes of the texture used by consecutive draws</li>
+ * <li>flushes: batches submitted because of a texture bind, a clip change or the end of the frame</li>
+ * <li>clips: clips that were applied</li>
+ * </ul>
+ * The log and the counters are reset by {@code beginFrame}. The counters are also published as {@link KrFrameStats}
+ * by {@code endFrame}, where each shape or drawable counts as one quad and each visible character as one glyph.
+ */
+public class KrHeadlessRenderer extends KrRenderer {
+
+    /**
+     * The commands recorded in the log.
+     */
+    public enum Command {
+        DRAW_TEXT, DRAW_RECT, DRAW_LINE, FILL_RECT, FILL_ROUNDED_RECT, BEGIN_CLIP, END_CLIP
+    }
+
+    private static final Command[] COMMANDS = Command.values();
+
+    private static final int MAX_CLIP_DEPTH = 64;
+
+    private static final int MAX_STATE_DEPTH = 32;
+
+    private static final int STATE_SIZE = 5;
+
+    private static final float TRANSPARENT = Color.CLEAR.toFloatBits();
+
+    /**
+     * The texture of solid shapes and color drawables.
+     */
+    private static final Object WHITE_TEXTURE = new Object();
+
+    private final IntArray commands = new IntArray();
+
+    private final FloatArray commandBounds = new FloatArray();
+
+    @Getter private int drawCount;
+
+    @Getter private int flushCount;
+
+    @Getter private int clipCount;
+
+    @Getter private int textureBindCount;
+
+    @Getter @Setter private BitmapFont font;
+
+    @Getter private final Vector2 viewportSize = new Vector2();
+
+    private final Vector2 translation = new Vector2();
+
+    @Getter private float opacity = 1;
+
+    /**
+     * The pen, created from the pen color and width when it's requested, so setting a pen doesn't allocate.
+     */
+    private KrPen pen;
+
+    /**
+     * The pen color, packed in the format of {@link Color#toFloatBits()}.
+     */
+    private float penColor = Color.BLACK.toFloatBits();
+
+    private float penWidth = 1;
+
+    private KrBrush brush;
+
+    private Drawable drawableBrush;
+
+    private Object currentTexture;
+
+    private boolean hasPendingDraws;
+
+    private final float[] clipStack = new float[MAX_CLIP_DEPTH * 4];
+
+    private int clipDepth;
+
+    private final float[] states = new float[MAX_STATE_DEPTH * STATE_SIZE];
+
+    private final int[] stateClipDepths = new int[MAX_STATE_DEPTH];
+
+    private final KrPen[] statePens = new KrPen[MAX_STATE_DEPTH];
+
+    private final KrBrush[] stateBrushes = new KrBrush[MAX_STATE_DEPTH];
+
+    private final Drawable[] stateDrawableBrushes = new Drawable[MAX_STATE_DEPTH];
+
+    private final BitmapFont[] stateFonts = new BitmapFont[MAX_STATE_DEPTH];
+
+    private int stateDepth;
+
+    private final KrFrameStats frameStats = new KrFrameStats();
+
+    private final KrFrameStats currentFrameStats = new KrFrameStats();
+
+    private int outstandingPoolObjects;
+
+    @Override
+    public void beginFrame() {
+        commands.clear();
+        commandBounds.clear();
+        drawCount = 0;
+        flushCount = 0;
+        clipCount = 0;
+        textureBindCount = 0;
+        currentTexture = null;
+        hasPendingDraws = false;
+        currentFrameStats.reset();
+        outstandingPoolObjects = KrPools.getOutstandingCount();
+    }
+
+    @Override
+    public void endFrame() {
+        flush(FlushCause.OTHER);
+        translation.set(0, 0);
+
+        currentFrameStats.addDrawCalls(flushCount);
+        currentFrameStats.setLeakedPoolObjects(KrPools.getOutstandingCount() - outstandingPoolObjects);
+        frameStats.set(currentFrameStats);
+    }
+
+    @Override
+    public KrFrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Returns the number of commands in the log.
+     */
+    public int getCommandCount() {
+        return commands.size;
+    }
+
+    public Command getCommand(int index) {
+        return COMMANDS[commands.get(index)];
+    }
+
+    /**
+     * Returns the screen bounds of a command. Lines are described by their end points, while text only has a position.
+     */
+    public Rectangle getCommandBounds(int index, Rectangle bounds) {
+        int offset = index * 4;
+        return bounds.set(commandBounds.get(offset), commandBounds.get(offset + 1), commandBounds.get(offset + 2), commandBounds.get(offset + 3));
+    }
+
+    /**
+     * Returns the number of commands of the given type in the log.
+     */
+    public int getCommandCount(Command command) {
+        int count = 0;
+        for (int i = 0; i < commands.size; ++i) {
+            if (commands.get(i) == command.ordinal()) {
+                count += 1;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        draw(Command.DRAW_TEXT, font, x, y, 0, 0);
+        countGlyphs(text);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y) {
+        draw(Command.DRAW_TEXT, font, x, y, 0, 0);
+        countGlyphs(text, start, end);
+    }
+
+    @Override
+    public void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        if (!shadowOffset.equals(Vector2.Zero)) {
+            draw(Command.DRAW_TEXT, font, position.x + shadowOffset.x, position.y + shadowOffset.y, 0, 0);
+            countGlyphs(text);
+        }
+        draw(Command.DRAW_TEXT, font, position.x, position.y, 0, 0);
+        countGlyphs(text);
+    }
+
+    private void countGlyphs(String text) {
+        countGlyphs(text, 0, text.length());
+    }
+
+    private void countGlyphs(CharSequence text, int start, int end) {
+        int glyphCount = 0;
+        for (int i = start; i < end; ++i) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                glyphCount += 1;
+            }
+        }
+        currentFrameStats.addGlyphs(glyphCount);
+        currentFrameStats.addQuads(glyphCount);
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h) {
+        draw(Command.DRAW_RECT, WHITE_TEXTURE, x, y, w, h);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        draw(Command.DRAW_LINE, WHITE_TEXTURE, x1, y1, x2 + translation.x, y2 + translation.y);
+    }
+
+    @Override
+    public void fillRect(float x, float y, float w, float h) {
+        draw(Command.FILL_RECT, drawableBrush != null ? textureOf(drawableBrush) : WHITE_TEXTURE, x, y, w, h);
+    }
+
+    @Override
+    public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+        draw(Command.FILL_ROUNDED_RECT, WHITE_TEXTURE, x, y, w, h);
+    }
+
+    private void draw(Command command, Object texture, float x, float y, float w, float h) {
+        if (texture == null) {
+            texture = WHITE_TEXTURE;
+        }
+        if (texture != currentTexture) {
+            flush(FlushCause.TEXTURE_CHANGE);
+            currentTexture = texture;
+            textureBindCount += 1;
+        }
+
+        drawCount += 1;
+        hasPendingDraws = true;
+        if (command != Command.DRAW_TEXT) {
+            currentFrameStats.addQuads(1);
+        }
+        log(command, x + translation.x, y + translation.y, w, h);
+    }
+
+    private void log(Command command, float x, float y, float w, float h) {
+        commands.add(command.ordinal());
+        commandBounds.add(x);
+        commandBounds.add(y);
+        commandBounds.add(w);
+        commandBounds.add(h);
+    }
+
+    private void flush(FlushCause cause) {
+        if (hasPendingDraws) {
+            flushCount += 1;
+            currentFrameStats.addFlush(cause);
+            hasPendingDraws = false;
+        }
+    }
+
+    private static Object textureOf(Drawable drawable) {
+        if (drawable instanceof TextureRegionDrawable) {
+            return ((TextureRegionDrawable) drawable).getRegion().getTexture();
+        }
+        if (drawable instanceof NinePatchDrawable) {
+            return ((NinePatchDrawable) drawable).getPatch().getTexture();
+        }
+        if (drawable instanceof KrHeadlessColorDrawable) {
+            return WHITE_TEXTURE;
+        }
+        return drawable;
+    }
+
+    @Override
+    public void translate(float x, float y) {
+        translation.add(x, y);
+    }
+
+    @Override
+    public boolean beginClip(float x, float y, float width, float height) {
+        float x1 = x + translation.x;
+        float y1 = y + translation.y;
+        float x2 = x1 + width;
+        float y2 = y1 + height;
+
+        if (clipDepth > 0) {
+            int top = (clipDepth - 1) * 4;
+            x1 = Math.max(x1, clipStack[top]);
+            y1 = Math.max(y1, clipStack[top + 1]);
+            x2 = Math.min(x2, clipStack[top + 2]);
+            y2 = Math.min(y2, clipStack[top + 3]);
+        }
+
+        if (x2 - x1 < 1 || y2 - y1 < 1) {
+            return false;
+        }
+
+        if (clipDepth == MAX_CLIP_DEPTH) {
+            throw new IllegalStateException("Clip stack overflow: more than " + MAX_CLIP_DEPTH + " nested clips");
+        }
+
+        flush(FlushCause.CLIP);
+        int index = clipDepth * 4;
+        clipStack[index] = x1;
+        clipStack[index + 1] = y1;
+        clipStack[index + 2] = x2;
+        clipStack[index + 3] = y2;
+        clipDepth += 1;
+        clipCount += 1;
+        currentFrameStats.addScissorPush();
+        log(Command.BEGIN_CLIP, x1, y1, x2 - x1, y2 - y1);
+        return true;
+    }
+
+    @Override
+    public void endClip() {
+        flush(FlushCause.CLIP);
+        clipDepth -= 1;
+        if (clipDepth > 0) {
+            currentFrameStats.addScissorPush();
+        }
+        log(Command.END_CLIP, 0, 0, 0, 0);
+    }
+
+    @Override
+    public boolean getClipBounds(Rectangle bounds) {
+        if (clipDepth == 0) {
+            return false;
+        }
+
+        int top = (clipDepth - 1) * 4;
+        bounds.set(clipStack[top] - translation.x, clipStack[top + 1] - translation.y, clipStack[top + 2] - clipStack[top], clipStack[top + 3] - clipStack[top + 1]);
+        return true;
+    }
+
+    @Override
+    public void setViewportSize(float width, float height) {
+        viewportSize.set(width, height);
+    }
+
+    @Override
+    public float setOpacity(float opacity) {
+        float oldOpacity = this.opacity;
+        this.opacity = opacity;
+        return oldOpacity;
+    }
+
+    @Override
+    public void popState() {
+        if (stateDepth == 0) {
+            throw new IllegalStateException("popState called without a matching pushState");
+        }
+
+        stateDepth -= 1;
+        int state = stateDepth * STATE_SIZE;
+        opacity = states[state];
+        translation.set(states[state + 1], states[state + 2]);
+        penColor = states[state + 3];
+        penWidth = states[state + 4];
+        pen = statePens[stateDepth];
+        brush = stateBrushes[stateDepth];
+        drawableBrush = stateDrawableBrushes[stateDepth];
+        font = stateFonts[stateDepth];
+        while (clipDepth > stateClipDepths[stateDepth]) {
+            endClip();
+        }
+    }
+
+    @Override
+    public void pushState() {
+        if (stateDepth == MAX_STATE_DEPTH) {
+            throw new IllegalStateException("State stack overflow: more than " + MAX_STATE_DEPTH + " nested states");
+        }
+
+        int state = stateDepth * STATE_SIZE;
+        states[state] = opacity;
+        states[state + 1] = translation.x;
+        states[state + 2] = translation.y;
+        states[state + 3] = penColor;
+        states[state + 4] = penWidth;
+        statePens[stateDepth] = pen;
+        stateBrushes[stateDepth] = brush;
+        stateDrawableBrushes[stateDepth] = drawableBrush;
+        stateFonts[stateDepth] = font;
+        stateClipDepths[stateDepth] = clipDepth;
+        stateDepth += 1;
+    }
+
+    @Override
+    public KrBrush getBrush() {
+        return brush;
+    }
+
+    @Override
+    public KrPen getPen() {
+        if (pen == null) {
+            pen = new KrPen(penWidth, KrColor.unpack(penColor, new Color()));
+        }
+        return pen;
+    }
+
+    @Override
+    public void setBrush(KrBrush brush) {
+        this.brush = brush;
+        if (brush instanceof KrDrawableBrush) {
+            drawableBrush = ((KrDrawableBrush) brush).getDrawable();
+        }
+        if (brush instanceof KrColorBrush) {
+            drawableBrush = null;
+        }
+    }
+
+    @Override
+    public void setBrush(Drawable drawable) {
+        brush = null;
+        drawableBrush = drawable;
+    }
+
+    @Override
+    public void setBrush(Color color) {
+        brush = null;
+        drawableBrush = null;
+    }
+
+    @Override
+    public void setBrush(float packedColor) {
+        brush = null;
+        drawableBrush = null;
+    }
+
+    @Override
+    public void setPen(KrPen pen) {
+        this.pen = pen;
+        penColor = pen.getColor().toFloatBits();
+        penWidth = pen.getWidth();
+    }
+
+    @Override
+    public void setPen(int size, Color color) {
+        // headless skins may have no colors, which draw as transparent
+        setPen(size, color != null ? color.toFloatBits() : TRANSPARENT);
+    }
+
+    @Override
+    public void setPen(float packedColor) {
+        setPen(1, packedColor);
+    }
+
+    private void setPen(float width, float packedColor) {
+        if (penColor != packedColor || penWidth != width) {
+            penColor = packedColor;
+            penWidth = width;
+            pen = null;
+        }
+    }
+}
@@ -3,27 +3,24 @@ package com.katzstudio.kreativity.ui.backend.lwjgl3;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Cursor;
-import com.badlogic.gdx.graphics.Pixmap;
-import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
-import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.Clipboard;
+import com.badlogic.gdx.utils.IntMap;
 import com.katzstudio.kreativity.ui.KrCursor;
 import com.katzstudio.kreativity.ui.KrFontMetrics;
 import com.katzstudio.kreativity.ui.backend.KrBackend;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * This backed works with the libgdx Lwjgl3 backend.
  */
 public class KrLwjgl3Backend implements KrBackend {
 
-    private final Map<Color, Drawable> drawableCache = new HashMap<>();
+    /**
+     * Color drawables, keyed by their packed RGBA8888 color.
+     */
+    private final IntMap<Drawable> drawableCache = new IntMap<>();
 
     private final KrLwjgl3Renderer renderer;
 
@@ -93,14 +90,18 @@ public class KrLwjgl3Backend implements KrBackend {
 
     @Override
     public Drawable createColorDrawable(Color color) {
-        if (!drawableCache.containsKey(color)) {
-            Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-            pixmap.setColor(color);
-            pixmap.fill();
-            Drawable colorDrawable = new TextureRegionDrawable(new TextureRegion(new Texture(pixmap)));
-            drawableCache.put(color, colorDrawable);
+        int key = Color.rgba8888(color);
+        Drawable colorDrawable = drawableCache.get(key);
+        if (colorDrawable == null) {
+            colorDrawable = new KrLwjgl3ColorDrawable(color);
+            drawableCache.put(key, colorDrawable);
         }
-        return drawableCache.get(color);
+        return colorDrawable;
+    }
+
+    @Override
+    public int getTextureCount() {
+        return renderer.getTextureCount();
     }
 
     private static Cursor.SystemCursor systemCursor(KrCursor cursor) {
@@ -0,0 +1,51 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import lombok.Getter;
+
+/**
+ * The blend functions used by the {@link KrLwjgl3Renderer}, applied with {@code glBlendFuncSeparate}.
+ * <p>
+ * Textures rendered by the renderer hold premultiplied colors: widgets drawn into them blend their color as
+ * usual, but add their alpha without multiplying it by itself, so a 50% fill drawn into a transparent texture
+ * is stored with an alpha of 50%. The textures are then composited with {@link #PREMULTIPLIED}, which gives
+ * the same result as drawing the widgets directly.
+ */
+@Getter
+enum KrLwjgl3BlendMode {
+
+    /**
+     * Drawing straight alpha colors directly to the screen, the default blending of the libgdx sprite batch.
+     */
+    DIRECT(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA),
+
+    /**
+     * Drawing straight alpha colors into a texture, which then holds premultiplied colors.
+     */
+    OFFSCREEN(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA),
+
+    /**
+     * Drawing a texture holding premultiplied colors. The batch color must be premultiplied as well.
+     */
+    PREMULTIPLIED(GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA, GL20.GL_ONE, GL20.GL_ONE_MINUS_SRC_ALPHA);
+
+    private final int sourceColorFactor;
+
+    private final int destinationColorFactor;
+
+    private final int sourceAlphaFactor;
+
+    private final int destinationAlphaFactor;
+
+    KrLwjgl3BlendMode(int sourceColorFactor, int destinationColorFactor, int sourceAlphaFactor, int destinationAlphaFactor) {
+        this.sourceColorFactor = sourceColorFactor;
+        this.destinationColorFactor = destinationColorFactor;
+        this.sourceAlphaFactor = sourceAlphaFactor;
+        this.destinationAlphaFactor = destinationAlphaFactor;
+    }
+
+    void apply() {
+        Gdx.gl.glBlendFuncSeparate(sourceColorFactor, destinationColorFactor, sourceAlphaFactor, destinationAlphaFactor);
+    }
+}
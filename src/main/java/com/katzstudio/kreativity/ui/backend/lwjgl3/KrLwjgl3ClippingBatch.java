@@ -0,0 +1,317 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Affine2;
+import lombok.Getter;
+
+/**
+ * A {@link SpriteBatch} that clips quads against a rectangle before adding them to the batch.
+ * <p>
+ * Clipping works on the vertices of axis aligned quads whose texture coordinates are not rotated, which
+ * covers texture regions, nine patches and glyphs. Such quads are shrunk to the clip rectangle by a
+ * {@link KrLwjgl3QuadClipper}, so changing the clip doesn't require flushing the batch. Quads that can't be
+ * clipped this way, like rotated regions, need a GL scissor instead: the batch asks its {@link ScissorClip}
+ * to apply the scissor before adding them.
+ * <p>
+ * When texture sorting is enabled, the quads are collected by a {@link KrLwjgl3QuadSorter} until the batch
+ * is flushed, and then drawn grouped by texture. Quads drawn with the methods that don't go through the
+ * sorter end the sorted span, so they keep their place in the drawing order.
+ * <p>
+ * The batch also counts the quads it submits and the flushes caused by texture changes, until {@code resetCounters} is called.
+ */
+class KrLwjgl3ClippingBatch extends SpriteBatch {
+
+    private static final int SPRITE_SIZE = KrLwjgl3QuadClipper.SPRITE_SIZE;
+
+    private static final int MAX_CLIPPED_QUADS = 64;
+
+    private final float[] quad = new float[SPRITE_SIZE];
+
+    private final float[] clipped = new float[SPRITE_SIZE * MAX_CLIPPED_QUADS];
+
+    private boolean isClipping;
+
+    private final KrLwjgl3QuadClipper clipper = new KrLwjgl3QuadClipper();
+
+    private final ScissorClip scissorClip;
+
+    @Getter private boolean textureSorting;
+
+    private final KrLwjgl3QuadSorter sorter = new KrLwjgl3QuadSorter();
+
+    private boolean isDrawingSortedQuads;
+
+    @Getter private int quadCount;
+
+    @Getter private int textureFlushCount;
+
+    /**
+     * Applies a GL scissor matching the clip rectangle, for the quads that can't be clipped on the CPU. It's
+     * called while the batch is drawing, so it must flush the batch without ending it.
+     */
+    interface ScissorClip {
+        void applyScissorClip();
+    }
+
+    KrLwjgl3ClippingBatch(int size, ScissorClip scissorClip) {
+        super(size);
+        this.scissorClip = scissorClip;
+    }
+
+    /**
+     * Sets the clip rectangle, in batch coordinates.
+     */
+    void setClip(float x1, float y1, float x2, float y2) {
+        clipper.setClip(x1, y1, x2, y2);
+        isClipping = true;
+    }
+
+    void clearClip() {
+        isClipping = false;
+    }
+
+    void setTextureSorting(boolean textureSorting) {
+        drawSortedQuads();
+        this.textureSorting = textureSorting;
+    }
+
+    void resetCounters() {
+        quadCount = 0;
+        textureFlushCount = 0;
+    }
+
+    @Override
+    protected void switchTexture(Texture texture) {
+        int renderCalls = this.renderCalls;
+        super.switchTexture(texture);
+        textureFlushCount += this.renderCalls - renderCalls;
+    }
+
+    @Override
+    public void flush() {
+        drawSortedQuads();
+        super.flush();
+    }
+
+    @Override
+    public void end() {
+        drawSortedQuads();
+        super.end();
+    }
+
+    /**
+     * Draws the quads collected by the sorter, one texture run after the other.
+     */
+    private void drawSortedQuads() {
+        if (isDrawingSortedQuads || sorter.getRunCount() == 0) {
+            return;
+        }
+
+        // drawing can flush the batch, which must not draw the runs again
+        isDrawingSortedQuads = true;
+        for (int i = 0; i < sorter.getRunCount(); ++i) {
+            super.draw(sorter.getTexture(i), sorter.getVertices(i), 0, sorter.getVertexCount(i));
+        }
+        sorter.clear();
+        isDrawingSortedQuads = false;
+    }
+
+    /**
+     * Adds quads to the batch, or to the sorter if texture sorting is enabled.
+     */
+    private void addQuads(Texture texture, float[] vertices, int offset, int count) {
+        quadCount += count / SPRITE_SIZE;
+        if (!textureSorting) {
+            super.draw(texture, vertices, offset, count);
+            return;
+        }
+
+        for (int i = offset; i < offset + count; i += SPRITE_SIZE) {
+            if (!sorter.add(texture, vertices, i)) {
+                drawSortedQuads();
+                sorter.add(texture, vertices, i);
+            }
+        }
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation) {
+        prepareUnclippedQuad();
+        super.draw(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation);
+        quadCount += 1;
+    }
+
+    @Override
+    public void draw(Texture texture, float[] spriteVertices, int offset, int count) {
+        if (!isClipping) {
+            addQuads(texture, spriteVertices, offset, count);
+            return;
+        }
+
+        int clippedCount = 0;
+        for (int i = offset; i < offset + count; i += SPRITE_SIZE) {
+            KrLwjgl3QuadClipper.Result result = clipper.clip(spriteVertices, i, clipped, clippedCount);
+            if (result == KrLwjgl3QuadClipper.Result.NEEDS_SCISSOR) {
+                // the quads clipped so far are drawn before the scissor is applied
+                addQuads(texture, clipped, 0, clippedCount);
+                scissorClip.applyScissorClip();
+                addQuads(texture, spriteVertices, i, SPRITE_SIZE);
+                clippedCount = 0;
+            } else if (result == KrLwjgl3QuadClipper.Result.CLIPPED) {
+                clippedCount += SPRITE_SIZE;
+            }
+            if (clippedCount == clipped.length) {
+                addQuads(texture, clipped, 0, clippedCount);
+                clippedCount = 0;
+            }
+        }
+
+        if (clippedCount > 0) {
+            addQuads(texture, clipped, 0, clippedCount);
+        }
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float width, float height) {
+        if (!isClipping && !textureSorting) {
+            super.draw(region, x, y, width, height);
+            quadCount += 1;
+            return;
+        }
+
+        setQuad(x, y, x + width, y + height, region.getU(), region.getV2(), region.getU2(), region.getV());
+        addQuad(region.getTexture());
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        if (!isClipping && !textureSorting) {
+            super.draw(texture, x, y, width, height, srcX, srcY, srcWidth, srcHeight, flipX, flipY);
+            quadCount += 1;
+            return;
+        }
+
+        float invTexWidth = 1.0f / texture.getWidth();
+        float invTexHeight = 1.0f / texture.getHeight();
+        float u = srcX * invTexWidth;
+        float v = (srcY + srcHeight) * invTexHeight;
+        float u2 = (srcX + srcWidth) * invTexWidth;
+        float v2 = srcY * invTexHeight;
+
+        if (flipX) {
+            float tmp = u;
+            u = u2;
+            u2 = tmp;
+        }
+
+        if (flipY) {
+            float tmp = v;
+            v = v2;
+            v2 = tmp;
+        }
+
+        setQuad(x, y, x + width, y + height, u, v, u2, v2);
+        addQuad(texture);
+    }
+
+    /**
+     * Clips the quad in the quad buffer, if needed, and adds it to the batch.
+     */
+    private void addQuad(Texture texture) {
+        if (!isClipping) {
+            addQuads(texture, quad, 0, SPRITE_SIZE);
+            return;
+        }
+
+        KrLwjgl3QuadClipper.Result result = clipper.clip(quad, 0, clipped, 0);
+        if (result == KrLwjgl3QuadClipper.Result.NEEDS_SCISSOR) {
+            scissorClip.applyScissorClip();
+        }
+        if (result != KrLwjgl3QuadClipper.Result.OUTSIDE) {
+            addQuads(texture, clipped, 0, SPRITE_SIZE);
+        }
+    }
+
+    /**
+     * Ends the sorted span before a quad drawn by the sprite batch itself, and applies the scissor if the
+     * quad needs clipping.
+     */
+    private void prepareUnclippedQuad() {
+        drawSortedQuads();
+        if (isClipping) {
+            scissorClip.applyScissorClip();
+        }
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, int srcX, int srcY, int srcWidth, int srcHeight, boolean flipX, boolean flipY) {
+        prepareUnclippedQuad();
+        super.draw(texture, x, y, originX, originY, width, height, scaleX, scaleY, rotation, srcX, srcY, srcWidth, srcHeight, flipX, flipY);
+        quadCount += 1;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, int srcX, int srcY, int srcWidth, int srcHeight) {
+        if (isClipping) {
+            draw(texture, x, y, srcWidth, srcHeight, srcX, srcY, srcWidth, srcHeight, false, false);
+            return;
+        }
+
+        drawSortedQuads();
+        super.draw(texture, x, y, srcX, srcY, srcWidth, srcHeight);
+        quadCount += 1;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height, float u, float v, float u2, float v2) {
+        if (isClipping) {
+            setQuad(x, y, x + width, y + height, u, v, u2, v2);
+            addQuad(texture);
+            return;
+        }
+
+        drawSortedQuads();
+        super.draw(texture, x, y, width, height, u, v, u2, v2);
+        quadCount += 1;
+    }
+
+    @Override
+    public void draw(Texture texture, float x, float y, float width, float height) {
+        if (isClipping) {
+            setQuad(x, y, x + width, y + height, 0, 1, 1, 0);
+            addQuad(texture);
+            return;
+        }
+
+        drawSortedQuads();
+        super.draw(texture, x, y, width, height);
+        quadCount += 1;
+    }
+
+    @Override
+    public void draw(TextureRegion region, float x, float y, float originX, float originY, float width, float height, float scaleX, float scaleY, float rotation, boolean clockwise) {
+        prepareUnclippedQuad();
+        super.draw(region, x, y, originX, originY, width, height, scaleX, scaleY, rotation, clockwise);
+        quadCount += 1;
+    }
+
+    @Override
+    public void draw(TextureRegion region, float width, float height, Affine2 transform) {
+        prepareUnclippedQuad();
+        super.draw(region, width, height, transform);
+        quadCount += 1;
+    }
+
+    /**
+     * Fills the quad buffer with the vertices of an axis aligned quad, in the vertex order used by the sprite batch.
+     */
+    private void setQuad(float x1, float y1, float x2, float y2, float leftU, float bottomV, float rightU, float topV) {
+        float color = getPackedColor();
+        KrLwjgl3QuadClipper.setVertex(quad, 0, x1, y1, color, leftU, bottomV);
+        KrLwjgl3QuadClipper.setVertex(quad, 5, x1, y2, color, leftU, topV);
+        KrLwjgl3QuadClipper.setVertex(quad, 10, x2, y2, color, rightU, topV);
+        KrLwjgl3QuadClipper.setVertex(quad, 15, x2, y1, color, rightU, bottomV);
+    }
+}
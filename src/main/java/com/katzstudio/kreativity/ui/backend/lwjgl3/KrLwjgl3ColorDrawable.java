@@ -0,0 +1,43 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.utils.BaseDrawable;
+
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+
+/**
+ * A solid color drawable that tints the white pixel of the skin texture. All color drawables
+ * share the skin texture, so switching between them doesn't require a texture bind.
+ */
+class KrLwjgl3ColorDrawable extends BaseDrawable {
+
+    private final Color color;
+
+    private TextureRegion whitePixel;
+
+    KrLwjgl3ColorDrawable(Color color) {
+        this.color = new Color(color);
+        setMinWidth(1);
+        setMinHeight(1);
+    }
+
+    @Override
+    public void draw(Batch batch, float x, float y, float width, float height) {
+        if (whitePixel == null) {
+            // the skin creates color drawables while loading, so the white pixel is resolved on first use
+            whitePixel = getDefaultToolkit().getSkin().getWhitePixel();
+        }
+
+        Color batchColor = batch.getColor();
+        float r = batchColor.r;
+        float g = batchColor.g;
+        float b = batchColor.b;
+        float a = batchColor.a;
+
+        batch.setColor(r * color.r, g * color.g, b * color.b, a * color.a);
+        batch.draw(whitePixel, x, y, width, height);
+        batch.setColor(r, g, b, a);
+    }
+}
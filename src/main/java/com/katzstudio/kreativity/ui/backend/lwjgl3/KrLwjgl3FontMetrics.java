@@ -3,18 +3,21 @@ package com.katzstudio.kreativity.ui.backend.lwjgl3;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.graphics.g2d.GlyphLayout;
 import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Align;
 import com.katzstudio.kreativity.ui.KrFontMetrics;
 
 /**
  * {@link KrFontMetrics} implementation for the libgdx lwjgl3 backend
+ * <p>
+ * Measuring is synchronized, since the layout is shared and widgets can be drawn in parallel.
  */
 public class KrLwjgl3FontMetrics extends KrFontMetrics {
 
     private GlyphLayout layout = new GlyphLayout();
 
     @Override
-    public Rectangle bounds(BitmapFont font, String text, int from, int count, Rectangle bounds) {
-        layout.setText(font, text);
+    public synchronized Rectangle bounds(BitmapFont font, CharSequence text, int start, int end, Rectangle bounds) {
+        layout.setText(font, text, start, end, font.getColor(), 0, Align.left, false, null);
         bounds.setWidth(layout.width);
         bounds.setHeight(layout.height);
         return bounds;
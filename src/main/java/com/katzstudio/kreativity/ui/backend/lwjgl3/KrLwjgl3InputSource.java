@@ -5,12 +5,13 @@ import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputAdapter;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Timer;
+import com.katzstudio.kreativity.ui.backend.KrInputEventQueue;
 import com.katzstudio.kreativity.ui.backend.KrInputSource;
 import com.katzstudio.kreativity.ui.event.KrKeyEvent;
 import com.katzstudio.kreativity.ui.event.KrMouseEvent;
 import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import lombok.Getter;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -18,6 +19,12 @@ import static com.badlogic.gdx.Input.Keys.*;
 
 /**
  * {@link KrInputSource} implementation for libgdx lwjgl3 backend.
+ * <p>
+ * Events are dispatched as soon as libgdx reports them, and the callbacks return whether a widget handled
+ * the event, so the input processors behind the UI in an {@code InputMultiplexer} don't receive it. Turning
+ * on the deferred mode of the event queue queues the events instead, and the toolkit dispatches them once per
+ * frame, see {@link KrInputEventQueue}. Queued events are not handled yet when libgdx reports them, so they
+ * are reported to libgdx as not handled.
  */
 public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
 
@@ -37,7 +44,7 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
     private static final List<Integer> functionKeys = Arrays.asList(
             F1, F2, F3, F4, F5, F6, F7, F8, F9, F10, F11, F12);
 
-    private final List<KrInputEventListener> listeners = new ArrayList<>();
+    @Getter private final KrInputEventQueue eventQueue = new KrInputEventQueue(false);
 
     private boolean isAltDown;
 
@@ -83,19 +90,16 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
             scheduleKeyRepeatTask(keycode);
         }
 
-        KrKeyEvent keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, pressedKeyCode);
+        KrKeyEvent keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, pressedKeyCode, "");
 
-        notifyKeyPressed(keyEvent);
-
-        return keyEvent.handled();
+        return eventQueue.post(keyEvent);
     }
 
     @Override
     public boolean keyTyped(char character) {
         if (hasStringRepresentation(pressedKeyCode)) {
-            KrKeyEvent keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, character).toBuilder().keycode(pressedKeyCode).build();
-            notifyKeyPressed(keyEvent);
-            return keyEvent.handled();
+            KrKeyEvent keyEvent = createKeyEvent(KrKeyEvent.Type.PRESSED, pressedKeyCode, String.valueOf(character));
+            return eventQueue.post(keyEvent);
         }
         return false;
     }
@@ -110,14 +114,9 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
             getKeyRepeatTask().cancel();
         }
 
-        KrKeyEvent keyEvent = createKeyEvent(KrKeyEvent.Type.RELEASED, keycode);
-        if (isShiftDown) {
-            keyEvent = keyEvent.toBuilder().value(keyEvent.getValue().toUpperCase()).build();
-        }
-
-        notifyKeyReleased(keyEvent);
+        KrKeyEvent keyEvent = createKeyEvent(KrKeyEvent.Type.RELEASED, keycode, "");
 
-        return keyEvent.handled();
+        return eventQueue.post(keyEvent);
     }
 
     @Override
@@ -129,7 +128,7 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
         isDragging = true;
         KrMouseEvent.Button button = getButtonFor(buttonIndex);
 
-        KrMouseEvent mouseEvent = createMouseEvent(KrMouseEvent.Type.PRESSED, screenX, screenY, buttonIndex);
+        KrMouseEvent.Type type = KrMouseEvent.Type.PRESSED;
 
         long nanoTime = System.nanoTime();
         if (lastMousePressedTime == 0) {
@@ -138,19 +137,13 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
         } else {
             float deltaTime = nanoTime - lastMousePressedTime;
             if (button == lastMousePressedButton && deltaTime < 200000000) {
-                mouseEvent = createMouseEvent(KrMouseEvent.Type.DOUBLE_CLICK, screenX, screenY, buttonIndex);
+                type = KrMouseEvent.Type.DOUBLE_CLICK;
             }
             lastMousePressedButton = button;
             lastMousePressedTime = nanoTime;
         }
 
-        if (mouseEvent.getType() == KrMouseEvent.Type.PRESSED) {
-            notifyMousePressed(mouseEvent);
-        } else {
-            notifyMouseDoubleClicked(mouseEvent);
-        }
-
-        return mouseEvent.handled();
+        return eventQueue.post(createMouseEvent(type, screenX, screenY, buttonIndex));
     }
 
     @Override
@@ -162,9 +155,7 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
         isDragging = false;
         KrMouseEvent mouseEvent = createMouseEvent(KrMouseEvent.Type.RELEASED, screenX, screenY, button);
 
-        notifyMouseReleased(mouseEvent);
-
-        return mouseEvent.handled();
+        return eventQueue.post(mouseEvent);
     }
 
     @Override
@@ -176,9 +167,7 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
         KrMouseEvent mouseEvent = createMouseEvent(KrMouseEvent.Type.MOVED, screenX, screenY, -1);
         mousePosition.set(screenX, screenY);
 
-        notifyMouseMoved(mouseEvent);
-
-        return mouseEvent.handled();
+        return eventQueue.post(mouseEvent);
     }
 
     @Override
@@ -190,57 +179,24 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
         KrMouseEvent mouseEvent = createMouseEvent(KrMouseEvent.Type.MOVED, screenX, screenY, -1);
         mousePosition.set(screenX, screenY);
 
-        notifyMouseMoved(mouseEvent);
-
-        return mouseEvent.handled();
+        return eventQueue.post(mouseEvent);
     }
 
     @Override
     public boolean scrolled(int amount) {
-        KrScrollEvent scrollEvent = new KrScrollEvent(amount);
-
-        notifyScrolledEvent(scrollEvent);
-
-        return scrollEvent.handled();
+        return eventQueue.post(new KrScrollEvent(amount));
     }
 
-    private KrKeyEvent createKeyEvent(KrKeyEvent.Type type, int keycode) {
-        return KrKeyEvent.builder()
-                .type(type)
-                .keycode(keycode)
-                .value("")
-                .isAltDown(isAltDown)
-                .isCtrlDown(isCtrlDown)
-                .isShiftDown(isShiftDown)
-                .build();
-    }
-
-    private KrKeyEvent createKeyEvent(KrKeyEvent.Type type, char character) {
-        return KrKeyEvent.builder()
-                .type(type)
-                .keycode(character)
-                .value(String.valueOf(character))
-                .isAltDown(isAltDown)
-                .isCtrlDown(isCtrlDown)
-                .isShiftDown(isShiftDown)
-                .build();
+    private KrKeyEvent createKeyEvent(KrKeyEvent.Type type, int keycode, String value) {
+        return KrKeyEvent.obtain(type, keycode, value, isAltDown, isCtrlDown, isShiftDown);
     }
 
     private KrMouseEvent createMouseEvent(KrMouseEvent.Type type, int screenX, int screenY, int button) {
-        KrMouseEvent.Button eventButton = getButtonFor(button);
-        Vector2 mousePosition = new Vector2(screenX, screenY);
-        Vector2 mouseDelta = new Vector2(Gdx.input.getDeltaX(), Gdx.input.getDeltaY());
-        return KrMouseEvent.builder()
-                .type(type)
-                .button(eventButton)
-                .screenPosition(mousePosition)
-                .deltaMove(mouseDelta)
-                .isAltDown(isAltDown)
-                .isCtrlDown(isCtrlDown)
-                .isShiftDown(isShiftDown)
-                .build();
+        return KrMouseEvent.obtain(type, getButtonFor(button), screenX, screenY, Gdx.input.getDeltaX(), Gdx.input.getDeltaY(),
+                isAltDown, isCtrlDown, isShiftDown);
     }
 
+
     public void scheduleKeyRepeatTask(int keycode) {
         if (!keyRepeat) {
             return;
@@ -288,40 +244,17 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
 
     @Override
     public void addEventListener(KrInputEventListener listener) {
-        listeners.add(listener);
+        eventQueue.addEventListener(listener);
     }
 
     @Override
     public void removeEventListener(KrInputEventListener listener) {
-        listeners.remove(listener);
+        eventQueue.removeEventListener(listener);
     }
 
-    private void notifyMouseMoved(KrMouseEvent event) {
-        listeners.forEach(l -> l.mouseMoved(event));
-    }
-
-    private void notifyMousePressed(KrMouseEvent event) {
-        listeners.forEach(l -> l.mousePressed(event));
-    }
-
-    private void notifyMouseReleased(KrMouseEvent event) {
-        listeners.forEach(l -> l.mouseReleased(event));
-    }
-
-    private void notifyMouseDoubleClicked(KrMouseEvent event) {
-        listeners.forEach(l -> l.mouseDoubleClicked(event));
-    }
-
-    private void notifyKeyPressed(KrKeyEvent event) {
-        listeners.forEach(l -> l.keyPressed(event));
-    }
-
-    private void notifyKeyReleased(KrKeyEvent event) {
-        listeners.forEach(l -> l.keyReleased(event));
-    }
-
-    private void notifyScrolledEvent(KrScrollEvent event) {
-        listeners.forEach(l -> l.scrolledEvent(event));
+    @Override
+    public void dispatchEvents() {
+        eventQueue.dispatchEvents();
     }
 
     private static KrMouseEvent.Button getButtonFor(int button) {
@@ -358,13 +291,14 @@ public class KrLwjgl3InputSource extends InputAdapter implements KrInputSource {
     }
 
     /**
-     * Used to schedule repeated key presses for arrows
+     * Used to schedule repeated key presses for arrows. libgdx runs timer tasks on the render thread, so the
+     * presses are queued like the other input events, in the order they happen.
      */
     private class KeyRepeatTask extends Timer.Task {
         public int keycode;
 
         public void run() {
-            keyDown(keycode);
+            eventQueue.post(createKeyEvent(KrKeyEvent.Type.PRESSED, keycode, ""));
         }
     }
 }
@@ -0,0 +1,109 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Owns the frame buffers used as offscreen layers by the {@link KrLwjgl3Renderer}.
+ * <p>
+ * The total texture memory used by the layers is limited by a budget. When a new layer
+ * doesn't fit the budget, the least recently used layers are evicted.
+ */
+class KrLwjgl3LayerCache {
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static final long DEFAULT_MEMORY_BUDGET = 64 * 1024 * 1024;
+
+    private final LinkedHashMap<Object, FrameBuffer> layers = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Getter @Setter private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+
+    @Getter private long memoryUsage;
+
+    /**
+     * Returns the number of layers currently allocated.
+     */
+    int getLayerCount() {
+        return layers.size();
+    }
+
+    /**
+     * Returns true if a layer of the given size can ever fit the memory budget.
+     */
+    boolean fits(int width, int height) {
+        return memorySize(width, height) <= memoryBudget;
+    }
+
+    /**
+     * Returns the layer identified by the key, or {@code null} if there's no such layer.
+     * Marks the layer as the most recently used one.
+     */
+    FrameBuffer get(Object key) {
+        return layers.get(key);
+    }
+
+    /**
+     * Returns the layer identified by the key, creating it if it doesn't exist or if its size changed.
+     *
+     * @param inUse      frame buffers that are currently bound, and cannot be evicted
+     * @param inUseCount the number of frame buffers in the {@code inUse} array
+     */
+    FrameBuffer obtain(Object key, int width, int height, FrameBuffer[] inUse, int inUseCount) {
+        FrameBuffer layer = layers.get(key);
+        if (layer != null && layer.getWidth() == width && layer.getHeight() == height) {
+            return layer;
+        }
+
+        if (layer != null) {
+            release(key);
+        }
+
+        memoryUsage += memorySize(width, height);
+        evict(inUse, inUseCount);
+
+        layer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+        layers.put(key, layer);
+        return layer;
+    }
+
+    void release(Object key) {
+        FrameBuffer layer = layers.remove(key);
+        if (layer != null) {
+            memoryUsage -= memorySize(layer.getWidth(), layer.getHeight());
+            layer.dispose();
+        }
+    }
+
+    private void evict(FrameBuffer[] inUse, int inUseCount) {
+        Iterator<Map.Entry<Object, FrameBuffer>> iterator = layers.entrySet().iterator();
+        while (memoryUsage > memoryBudget && iterator.hasNext()) {
+            FrameBuffer layer = iterator.next().getValue();
+            if (isInUse(layer, inUse, inUseCount)) {
+                continue;
+            }
+            iterator.remove();
+            memoryUsage -= memorySize(layer.getWidth(), layer.getHeight());
+            layer.dispose();
+        }
+    }
+
+    private static boolean isInUse(FrameBuffer layer, FrameBuffer[] inUse, int inUseCount) {
+        for (int i = 0; i < inUseCount; ++i) {
+            if (inUse[i] == layer) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long memorySize(int width, int height) {
+        return (long) width * height * BYTES_PER_PIXEL;
+    }
+}
@@ -0,0 +1,132 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+/**
+ * Clips the quads of the {@link KrLwjgl3ClippingBatch} against a rectangle on the CPU.
+ * <p>
+ * Axis aligned quads whose texture coordinates are not rotated are shrunk to the clip rectangle, and their
+ * texture coordinates adjusted accordingly. Other quads, like rotated regions, can only be dropped when their
+ * bounds lie outside the clip rectangle, or kept unchanged when their bounds lie inside it. A quad crossing
+ * the border of the clip rectangle must be drawn with a GL scissor instead.
+ */
+class KrLwjgl3QuadClipper {
+
+    static final int SPRITE_SIZE = 20;
+
+    enum Result {
+        /**
+         * The quad lies outside the clip rectangle and must not be drawn.
+         */
+        OUTSIDE,
+
+        /**
+         * The clipped quad was stored in the target array.
+         */
+        CLIPPED,
+
+        /**
+         * The quad was stored unchanged in the target array, and must be drawn with a GL scissor.
+         */
+        NEEDS_SCISSOR
+    }
+
+    private float clipX1;
+
+    private float clipY1;
+
+    private float clipX2;
+
+    private float clipY2;
+
+    /**
+     * Sets the clip rectangle, in batch coordinates.
+     */
+    void setClip(float x1, float y1, float x2, float y2) {
+        clipX1 = x1;
+        clipY1 = y1;
+        clipX2 = x2;
+        clipY2 = y2;
+    }
+
+    /**
+     * Clips the quad starting at {@code source[offset]} and stores the result in {@code target[targetOffset]}.
+     */
+    Result clip(float[] source, int offset, float[] target, int targetOffset) {
+        float x1 = source[offset];
+        float y1 = source[offset + 1];
+        float x2 = source[offset + 10];
+        float y2 = source[offset + 11];
+
+        System.arraycopy(source, offset, target, targetOffset, SPRITE_SIZE);
+
+        boolean isAxisAligned = source[offset + 5] == x1 && source[offset + 6] == y2
+                && source[offset + 15] == x2 && source[offset + 16] == y1 && x1 < x2 && y1 < y2;
+        boolean isUnrotated = source[offset + 8] == source[offset + 3] && source[offset + 18] == source[offset + 13]
+                && source[offset + 19] == source[offset + 4] && source[offset + 9] == source[offset + 14];
+        if (!isAxisAligned || !isUnrotated) {
+            return clipBounds(source, offset);
+        }
+
+        float clippedX1 = Math.max(x1, clipX1);
+        float clippedY1 = Math.max(y1, clipY1);
+        float clippedX2 = Math.min(x2, clipX2);
+        float clippedY2 = Math.min(y2, clipY2);
+
+        if (clippedX1 >= clippedX2 || clippedY1 >= clippedY2) {
+            return Result.OUTSIDE;
+        }
+
+        if (clippedX1 == x1 && clippedY1 == y1 && clippedX2 == x2 && clippedY2 == y2) {
+            return Result.CLIPPED;
+        }
+
+        float u1 = source[offset + 3];
+        float v1 = source[offset + 4];
+        float du = (source[offset + 13] - u1) / (x2 - x1);
+        float dv = (source[offset + 9] - v1) / (y2 - y1);
+
+        float leftU = u1 + (clippedX1 - x1) * du;
+        float rightU = u1 + (clippedX2 - x1) * du;
+        float bottomV = v1 + (clippedY1 - y1) * dv;
+        float topV = v1 + (clippedY2 - y1) * dv;
+
+        float color = source[offset + 2];
+        setVertex(target, targetOffset, clippedX1, clippedY1, color, leftU, bottomV);
+        setVertex(target, targetOffset + 5, clippedX1, clippedY2, color, leftU, topV);
+        setVertex(target, targetOffset + 10, clippedX2, clippedY2, color, rightU, topV);
+        setVertex(target, targetOffset + 15, clippedX2, clippedY1, color, rightU, bottomV);
+        return Result.CLIPPED;
+    }
+
+    /**
+     * Compares the bounds of a quad that can't be clipped analytically with the clip rectangle.
+     */
+    private Result clipBounds(float[] source, int offset) {
+        float minX = source[offset];
+        float minY = source[offset + 1];
+        float maxX = minX;
+        float maxY = minY;
+        for (int i = offset + 5; i < offset + SPRITE_SIZE; i += 5) {
+            minX = Math.min(minX, source[i]);
+            minY = Math.min(minY, source[i + 1]);
+            maxX = Math.max(maxX, source[i]);
+            maxY = Math.max(maxY, source[i + 1]);
+        }
+
+        if (minX >= clipX2 || maxX <= clipX1 || minY >= clipY2 || maxY <= clipY1 || minX == maxX || minY == maxY) {
+            return Result.OUTSIDE;
+        }
+
+        if (clipX1 <= minX && maxX <= clipX2 && clipY1 <= minY && maxY <= clipY2) {
+            return Result.CLIPPED;
+        }
+        return Result.NEEDS_SCISSOR;
+    }
+
+    static void setVertex(float[] vertices, int offset, float x, float y, float color, float u, float v) {
+        vertices[offset] = x;
+        vertices[offset + 1] = y;
+        vertices[offset + 2] = color;
+        vertices[offset + 3] = u;
+        vertices[offset + 4] = v;
+    }
+}
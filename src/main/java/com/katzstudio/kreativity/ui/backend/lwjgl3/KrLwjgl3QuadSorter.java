@@ -0,0 +1,113 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Texture;
+
+/**
+ * Groups the quads of a span by texture, without changing what ends up on screen.
+ * <p>
+ * The quads are kept in a list of runs, each run having a single texture and the bounding box of its quads.
+ * A new quad joins the last run with the same texture, provided that none of the runs after that one overlap
+ * the quad. Quads are only moved in front of runs they don't overlap, so the visual result is the same as
+ * drawing them in their original order. Otherwise, the quad starts a new run at the end of the list.
+ */
+class KrLwjgl3QuadSorter {
+
+    private static final int SPRITE_SIZE = 20;
+
+    private static final int MAX_RUNS = 64;
+
+    private final Texture[] textures = new Texture[MAX_RUNS];
+
+    /**
+     * The bounding boxes of the runs, stored as (x1, y1, x2, y2) quadruples.
+     */
+    private final float[] bounds = new float[MAX_RUNS * 4];
+
+    private final float[][] vertices = new float[MAX_RUNS][];
+
+    private final int[] vertexCounts = new int[MAX_RUNS];
+
+    private int runCount;
+
+    KrLwjgl3QuadSorter() {
+        for (int i = 0; i < MAX_RUNS; ++i) {
+            vertices[i] = new float[SPRITE_SIZE * 16];
+        }
+    }
+
+    /**
+     * Adds the quad starting at {@code source[offset]}.
+     *
+     * @return false if the quad didn't fit, in which case the runs must be drawn and cleared first
+     */
+    boolean add(Texture texture, float[] source, int offset) {
+        float x1 = Math.min(Math.min(source[offset], source[offset + 5]), Math.min(source[offset + 10], source[offset + 15]));
+        float y1 = Math.min(Math.min(source[offset + 1], source[offset + 6]), Math.min(source[offset + 11], source[offset + 16]));
+        float x2 = Math.max(Math.max(source[offset], source[offset + 5]), Math.max(source[offset + 10], source[offset + 15]));
+        float y2 = Math.max(Math.max(source[offset + 1], source[offset + 6]), Math.max(source[offset + 11], source[offset + 16]));
+
+        int run = runCount - 1;
+        while (run >= 0 && textures[run] != texture) {
+            int index = run * 4;
+            if (x1 < bounds[index + 2] && bounds[index] < x2 && y1 < bounds[index + 3] && bounds[index + 1] < y2) {
+                run = -1;
+                break;
+            }
+            run -= 1;
+        }
+
+        if (run < 0) {
+            if (runCount == MAX_RUNS) {
+                return false;
+            }
+            run = runCount++;
+            textures[run] = texture;
+            vertexCounts[run] = 0;
+            int index = run * 4;
+            bounds[index] = x1;
+            bounds[index + 1] = y1;
+            bounds[index + 2] = x2;
+            bounds[index + 3] = y2;
+        } else {
+            int index = run * 4;
+            bounds[index] = Math.min(bounds[index], x1);
+            bounds[index + 1] = Math.min(bounds[index + 1], y1);
+            bounds[index + 2] = Math.max(bounds[index + 2], x2);
+            bounds[index + 3] = Math.max(bounds[index + 3], y2);
+        }
+
+        float[] runVertices = vertices[run];
+        int count = vertexCounts[run];
+        if (count + SPRITE_SIZE > runVertices.length) {
+            float[] newVertices = new float[runVertices.length * 2];
+            System.arraycopy(runVertices, 0, newVertices, 0, count);
+            vertices[run] = runVertices = newVertices;
+        }
+        System.arraycopy(source, offset, runVertices, count, SPRITE_SIZE);
+        vertexCounts[run] = count + SPRITE_SIZE;
+        return true;
+    }
+
+    int getRunCount() {
+        return runCount;
+    }
+
+    Texture getTexture(int run) {
+        return textures[run];
+    }
+
+    float[] getVertices(int run) {
+        return vertices[run];
+    }
+
+    int getVertexCount(int run) {
+        return vertexCounts[run];
+    }
+
+    void clear() {
+        for (int i = 0; i < runCount; ++i) {
+            textures[i] = null;
+        }
+        runCount = 0;
+    }
+}
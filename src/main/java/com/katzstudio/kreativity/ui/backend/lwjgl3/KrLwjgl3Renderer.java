@@ -1,31 +1,92 @@
 package com.katzstudio.kreativity.ui.backend.lwjgl3;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
+import com.badlogic.gdx.graphics.glutils.HdpiUtils;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
-import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
-import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.BufferUtils;
 import com.katzstudio.kreativity.ui.KrColor;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
 import com.katzstudio.kreativity.ui.render.KrBrush;
 import com.katzstudio.kreativity.ui.render.KrColorBrush;
 import com.katzstudio.kreativity.ui.render.KrDrawableBrush;
+import com.katzstudio.kreativity.ui.render.KrFrameStats;
+import com.katzstudio.kreativity.ui.render.KrFrameStats.FlushCause;
 import com.katzstudio.kreativity.ui.render.KrPen;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
+import com.katzstudio.kreativity.ui.util.KrPools;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+import java.nio.FloatBuffer;
+
+import static com.katzstudio.kreativity.ui.KrColor.multiplyAlpha;
 import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
 
 /**
  * {@link KrRenderer} implementation for the libgdx lwjgl3 backend
+ * <p>
+ * By default, shapes are drawn using a {@link ShapeRenderer}, while text and drawables are drawn
+ * using a {@link SpriteBatch}. Switching between the two ends the current batch. When the
+ * single batch mode is enabled, shapes are drawn as quads sampled from the white pixel of the
+ * skin texture, so everything goes through the sprite batch.
+ * <p>
+ * When the retained mode is enabled, the frame is drawn into a persistent frame buffer which is
+ * copied to the screen at the end of each frame. The content of the frame buffer is preserved
+ * between frames, so the canvas only needs to redraw the areas that changed. Like layers, the frame
+ * buffer holds premultiplied colors, so translucent widgets look the same over the game scene in both modes.
+ * <p>
+ * When software clipping is enabled, clip rectangles are kept on the CPU and quads are clipped before
+ * entering the batch, so clipping doesn't end the batch. The GL scissor is only set for primitives
+ * that can't be clipped this way: shape outlines, and quads crossing the clip that aren't axis aligned,
+ * like rotated lines and sprites.
+ * <p>
+ * When texture sorting is enabled, the sprite batch reorders the quads between two flushes so that quads
+ * sharing a texture are drawn together, as long as no quad moves past another quad it overlaps. Icons
+ * interleaved with skin drawables, like the ones of a tool bar, then no longer switch textures for each widget.
+ * <p>
+ * Layers are frame buffers owned by a {@link KrLwjgl3LayerCache}. While a layer is being drawn, the
+ * translation, viewport and clip stack are relative to the layer, and are restored when the layer ends.
+ * Layers hold premultiplied colors, see {@link KrLwjgl3BlendMode}, so a translucent widget drawn through
+ * a layer looks the same as when drawn directly.
+ * <p>
+ * {@code pushState} saves the pen, brush, font, opacity, translation and clip depth into preallocated arrays.
+ * {@code popState} restores them, ending the clips begun since the push, and only touches the GL scissor if the
+ * restored clip differs from the current one.
+ * <p>
+ * The renderer counts the draw calls, batch flushes, quads and scissor changes of each frame, and
+ * publishes them as {@link KrFrameStats} at the end of the frame.
  */
 public class KrLwjgl3Renderer extends KrRenderer {
 
+    private static final int BATCH_SIZE = 1000;
+
+    private static final int MAX_CLIP_DEPTH = 64;
+
+    private static final int MAX_LAYER_DEPTH = 8;
+
+    private static final int LAYER_STATE_SIZE = 5;
+
+    private static final int GLYPH_SIZE = 20;
+
+    private static final int MAX_STATE_DEPTH = 32;
+
+    private static final int STATE_SIZE = 6;
+
     private final RenderMode spriteBatchRenderMode;
 
     private final RenderMode lineShapeRenderMode;
@@ -34,21 +95,39 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     private final RenderMode nullRenderMode;
 
-    private final SpriteBatch spriteBatch;
+    private final KrLwjgl3ClippingBatch spriteBatch;
 
     private final ShapeRenderer shapeRenderer;
 
     private RenderMode currentRenderMode;
 
+    /**
+     * The blend function applied when the sprite batch or the shape renderer begins.
+     */
+    private KrLwjgl3BlendMode blendMode = KrLwjgl3BlendMode.DIRECT;
+
     @Setter @Getter private BitmapFont font;
 
     private Vector2 translation;
 
     @Getter private Vector2 viewportSize = new Vector2(0, 0);
 
-    private Color penColor;
+    /**
+     * The pen and brush colors, packed in the format of {@link Color#toFloatBits()}. The opacity is
+     * multiplied into them arithmetically when drawing, so drawing doesn't touch {@link Color} objects.
+     */
+    private float penColor;
+
+    private float brushColor;
+
+    private float penWidth = 1;
+
+    /**
+     * The pen returned by {@code getPen}, created when requested after the pen changes.
+     */
+    private KrPen pen;
 
-    private Color colorBrush;
+    private final Color shapeColor = new Color();
 
     private Drawable drawableBrush;
 
@@ -56,9 +135,90 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Getter private float opacity = 1;
 
+    @Getter @Setter private boolean singleBatch;
+
+    @Getter private int drawCalls;
+
+    private TextureRegion whitePixel;
+
+    @Setter private boolean retained;
+
+    private FrameBuffer frameBuffer;
+
+    private boolean frameBufferValid;
+
+    private final FloatBuffer clearColor = BufferUtils.newFloatBuffer(16);
+
+    /**
+     * Clip rectangles in target coordinates, stored as (x1, y1, x2, y2) quadruples.
+     */
+    private final float[] clipStack = new float[MAX_CLIP_DEPTH * 4];
+
+    private int clipDepth;
+
+    /**
+     * Index of the first clip rectangle that belongs to the current render target.
+     */
+    private int clipBase;
+
+    /**
+     * Whether quads are clipped on the CPU. Must only be changed between frames.
+     */
+    @Getter @Setter private boolean softwareClipping;
+
+    /**
+     * Whether the sprite batch groups quads by texture between flushes. Must only be changed between frames.
+     */
+    @Getter @Setter private boolean textureSorting;
+
+    private boolean scissorEnabled;
+
+    private final float[] scissor = new float[4];
+
+    private final KrLwjgl3LayerCache layers = new KrLwjgl3LayerCache();
+
+    /**
+     * The frame buffers currently bound, the innermost one last.
+     */
+    private final FrameBuffer[] targets = new FrameBuffer[MAX_LAYER_DEPTH + 1];
+
+    private int targetCount;
+
+    /**
+     * The translation, viewport size and clip base saved when a layer begins.
+     */
+    private final float[] layerStates = new float[MAX_LAYER_DEPTH * LAYER_STATE_SIZE];
+
+    private int layerDepth;
+
+    /**
+     * The opacity, translation, pen color, pen width and brush color saved by {@code pushState}.
+     */
+    private final float[] states = new float[MAX_STATE_DEPTH * STATE_SIZE];
+
+    private final int[] stateClipDepths = new int[MAX_STATE_DEPTH];
+
+    private final BrushType[] stateBrushTypes = new BrushType[MAX_STATE_DEPTH];
+
+    private final KrPen[] statePens = new KrPen[MAX_STATE_DEPTH];
+
+    private final Drawable[] stateDrawableBrushes = new Drawable[MAX_STATE_DEPTH];
+
+    private final BitmapFont[] stateFonts = new BitmapFont[MAX_STATE_DEPTH];
+
+    private int stateDepth;
+
+    private final KrFrameStats frameStats = new KrFrameStats();
+
+    private final KrFrameStats currentFrameStats = new KrFrameStats();
+
+    private int outstandingPoolObjects;
+
     public KrLwjgl3Renderer() {
-        spriteBatch = new SpriteBatch(100);
-        shapeRenderer = new ShapeRenderer(100);
+        spriteBatch = new KrLwjgl3ClippingBatch(BATCH_SIZE, this::applyBatchScissorClip);
+        // the blend function is set by the renderer, so the batch must leave it untouched
+        spriteBatch.setBlendFunction(-1, -1);
+        shapeRenderer = new ShapeRenderer(BATCH_SIZE);
         shapeRenderer.setAutoShapeType(true);
         translation = new Vector2(0, 0);
 
@@ -69,47 +229,253 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
         currentRenderMode = nullRenderMode;
 
-        penColor = Color.BLACK;
-        colorBrush = KrColor.TRANSPARENT;
+        penColor = Color.BLACK.toFloatBits();
+        brushColor = KrColor.TRANSPARENT.toFloatBits();
         brushType = BrushType.COLOR;
     }
 
     @Override
     public void beginFrame() {
         currentRenderMode = nullRenderMode;
+        drawCalls = 0;
+        currentFrameStats.reset();
+        spriteBatch.resetCounters();
+        spriteBatch.setTextureSorting(textureSorting);
+        outstandingPoolObjects = KrPools.getOutstandingCount();
+
+        if (retained) {
+            ensureFrameBuffer();
+            frameBuffer.begin();
+            targets[targetCount++] = frameBuffer;
+        }
+        blendMode = getTargetBlendMode();
     }
 
     @Override
     public void endFrame() {
-        flush();
+        flush(FlushCause.OTHER);
         translate(-translation.x, -translation.y);
+        if (scissorEnabled) {
+            applyScissor();
+        }
+
+        if (retained) {
+            frameBuffer.end();
+            targets[--targetCount] = null;
+            frameBufferValid = true;
+            copyFrameBufferToScreen();
+        }
+
+        currentFrameStats.addDrawCalls(drawCalls);
+        currentFrameStats.addFlushes(FlushCause.TEXTURE_CHANGE, spriteBatch.getTextureFlushCount());
+        currentFrameStats.addQuads(spriteBatch.getQuadCount());
+        currentFrameStats.setLeakedPoolObjects(KrPools.getOutstandingCount() - outstandingPoolObjects);
+        frameStats.set(currentFrameStats);
     }
 
     @Override
-    public void drawText(String text, float x, float y) {
-        Color color = getAlphaMultiplied(penColor);
+    public KrFrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    @Override
+    public boolean isRetained() {
+        return retained && frameBufferValid;
+    }
+
+    @Override
+    public void clear() {
+        if (!retained) {
+            return;
+        }
 
+        flush(FlushCause.OTHER);
+        if (softwareClipping) {
+            prepareScissorClip();
+        }
+        clearTransparent();
+    }
+
+    private void clearTransparent() {
+        Gdx.gl.glGetFloatv(GL20.GL_COLOR_CLEAR_VALUE, clearColor);
+        Gdx.gl.glClearColor(0, 0, 0, 0);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        Gdx.gl.glClearColor(clearColor.get(0), clearColor.get(1), clearColor.get(2), clearColor.get(3));
+    }
+
+    /**
+     * Returns the maximum amount of texture memory, in bytes, used by layers.
+     */
+    public long getLayerMemoryBudget() {
+        return layers.getMemoryBudget();
+    }
+
+    /**
+     * Sets the maximum amount of texture memory, in bytes, used by layers. When a new layer
+     * doesn't fit the budget, the least recently used layers are evicted.
+     */
+    public void setLayerMemoryBudget(long layerMemoryBudget) {
+        layers.setMemoryBudget(layerMemoryBudget);
+    }
+
+    /**
+     * Returns the amount of texture memory, in bytes, currently used by layers.
+     */
+    public long getLayerMemoryUsage() {
+        return layers.getMemoryUsage();
+    }
+
+    /**
+     * Returns the number of textures owned by the renderer: the retained frame buffer and the layers.
+     */
+    public int getTextureCount() {
+        return (frameBuffer != null ? 1 : 0) + layers.getLayerCount();
+    }
+
+    @Override
+    public boolean beginLayer(Object key, float width, float height) {
+        int layerWidth = MathUtils.ceil(width);
+        int layerHeight = MathUtils.ceil(height);
+        if (layerWidth <= 0 || layerHeight <= 0 || layerDepth == MAX_LAYER_DEPTH || !layers.fits(layerWidth, layerHeight)) {
+            return false;
+        }
+
+        flush(FlushCause.OTHER);
+        FrameBuffer layer = layers.obtain(key, layerWidth, layerHeight, targets, targetCount);
+
+        int state = layerDepth * LAYER_STATE_SIZE;
+        layerStates[state] = translation.x;
+        layerStates[state + 1] = translation.y;
+        layerStates[state + 2] = viewportSize.x;
+        layerStates[state + 3] = viewportSize.y;
+        layerStates[state + 4] = clipBase;
+        layerDepth += 1;
+
+        targets[targetCount++] = layer;
+        layer.begin();
+
+        translation.set(0, 0);
+        setViewportSize(layerWidth, layerHeight);
+        clipBase = clipDepth;
+        applyScissor();
+        updateBatchClip();
+        clearTransparent();
+        setBlendMode(getTargetBlendMode());
+        return true;
+    }
+
+    @Override
+    public void endLayer() {
+        flush(FlushCause.OTHER);
+        targets[--targetCount].end();
+        targets[targetCount] = null;
+        if (targetCount > 0) {
+            targets[targetCount - 1].begin();
+        }
+
+        layerDepth -= 1;
+        int state = layerDepth * LAYER_STATE_SIZE;
+        translation.set(layerStates[state], layerStates[state + 1]);
+        setViewportSize(layerStates[state + 2], layerStates[state + 3]);
+        clipBase = (int) layerStates[state + 4];
+        applyScissor();
+        updateBatchClip();
+        setBlendMode(getTargetBlendMode());
+    }
+
+    @Override
+    public boolean drawLayer(Object key, float x, float y) {
+        FrameBuffer layer = layers.get(key);
+        if (layer == null) {
+            return false;
+        }
+
+        Texture texture = layer.getColorBufferTexture();
+        int width = texture.getWidth();
+        int height = texture.getHeight();
+        // the layer holds premultiplied colors, so the opacity applies to all the channels
+        setBlendMode(KrLwjgl3BlendMode.PREMULTIPLIED);
         ensureSpriteBatchOpen();
+        spriteBatch.setColor(opacity, opacity, opacity, opacity);
+        spriteBatch.draw(texture, screenX(x), screenY(y, height), width, height, 0, 0, width, height, false, true);
+        setBlendMode(getTargetBlendMode());
+        return true;
+    }
+
+    /**
+     * Returns the blend mode for drawing into the current target. Layers and the retained frame buffer
+     * store premultiplied colors.
+     */
+    private KrLwjgl3BlendMode getTargetBlendMode() {
+        return targetCount > 0 ? KrLwjgl3BlendMode.OFFSCREEN : KrLwjgl3BlendMode.DIRECT;
+    }
+
+    /**
+     * Changes the blend function, flushing the quads and shapes drawn with the previous one.
+     */
+    private void setBlendMode(KrLwjgl3BlendMode blendMode) {
+        if (this.blendMode != blendMode) {
+            flush(FlushCause.OTHER);
+            this.blendMode = blendMode;
+        }
+    }
+
+    @Override
+    public void releaseLayer(Object key) {
+        layers.release(key);
+    }
 
-        Color originalFontColor = font.getColor();
+    private void ensureFrameBuffer() {
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        if (frameBuffer != null && frameBuffer.getWidth() == width && frameBuffer.getHeight() == height) {
+            return;
+        }
 
-        font.setColor(color);
-        font.draw(spriteBatch, text, x, viewportSize.y - y);
+        if (frameBuffer != null) {
+            frameBuffer.dispose();
+        }
+        frameBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, width, height, false);
+        frameBufferValid = false;
+    }
 
-        font.setColor(originalFontColor);
+    private void copyFrameBufferToScreen() {
+        Texture texture = frameBuffer.getColorBufferTexture();
+        spriteBatch.setColor(Color.WHITE);
+        spriteBatch.begin();
+        KrLwjgl3BlendMode.PREMULTIPLIED.apply();
+        spriteBatch.draw(texture, 0, 0, viewportSize.x, viewportSize.y, 0, 0, texture.getWidth(), texture.getHeight(), false, true);
+        spriteBatch.end();
+        drawCalls += spriteBatch.renderCalls;
+    }
 
-        Pools.get(Color.class).free(color);
+    @Override
+    public void drawText(String text, float x, float y) {
+        ensureSpriteBatchOpen();
+        drawFontText(text, 0, text.length(), screenX(x), screenY(y, 0), multiplyAlpha(penColor, opacity));
     }
 
-    private Color getAlphaMultiplied(Color color) {
-        Color multipliedColor = Pools.get(Color.class).obtain();
-        multipliedColor.set(color);
-        multipliedColor.a *= getOpacity();
-        return multipliedColor;
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y) {
+        ensureSpriteBatchOpen();
+        drawFontText(text, start, end, screenX(x), screenY(y, 0), multiplyAlpha(penColor, opacity));
     }
 
-    private void freeColor(Color color) {
-        Pools.get(Color.class).free(color);
+    /**
+     * Draws a text with the current font, temporarily changing the font color.
+     */
+    private void drawFontText(CharSequence text, int start, int end, float x, float y, float color) {
+        Color fontColor = font.getColor();
+        float r = fontColor.r;
+        float g = fontColor.g;
+        float b = fontColor.b;
+        float a = fontColor.a;
+
+        KrColor.unpack(color, fontColor);
+        font.draw(spriteBatch, text, x, y, start, end, 0, Align.left, false);
+        countGlyphs(font.getCache());
+
+        fontColor.set(r, g, b, a);
     }
 
     @Override
@@ -119,53 +485,156 @@ public class KrLwjgl3Renderer extends KrRenderer {
             return;
         }
 
-        Color originalFontColor = font.getColor();
-
         ensureSpriteBatchOpen();
 
         // render shadow
-        Color color = getAlphaMultiplied(shadowColor);
-        font.setColor(color);
-        font.draw(spriteBatch, text, position.x + shadowOffset.x, viewportSize.y - position.y - shadowOffset.y);
-        freeColor(color);
+        float color = multiplyAlpha(shadowColor.toFloatBits(), opacity);
+        drawFontText(text, 0, text.length(), screenX(position.x + shadowOffset.x), screenY(position.y + shadowOffset.y, 0), color);
 
         // render text
-        color = getAlphaMultiplied(penColor);
-        font.setColor(color);
-        font.draw(spriteBatch, text, position.x, viewportSize.y - position.y);
-        freeColor(color);
+        drawFontText(text, 0, text.length(), screenX(position.x), screenY(position.y, 0), multiplyAlpha(penColor, opacity));
+    }
+
+    @Override
+    public void drawText(KrMeasuredString text, float x, float y) {
+        if (text.getFont() != font) {
+            drawText(text.getString(), x, y);
+            return;
+        }
+
+        ensureSpriteBatchOpen();
+        drawGlyphs(text.getGlyphCache(multiplyAlpha(penColor, opacity), screenX(x), screenY(y, 0)));
+    }
+
+    @Override
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        if (text.getFont() != font) {
+            drawTextWithShadow(text.getString(), position, shadowOffset, shadowColor);
+            return;
+        }
+
+        if (shadowOffset.equals(Vector2.Zero)) {
+            drawText(text, position);
+            return;
+        }
+
+        ensureSpriteBatchOpen();
+
+        float color = multiplyAlpha(shadowColor.toFloatBits(), opacity);
+        drawGlyphs(text.getGlyphCache(color, screenX(position.x + shadowOffset.x), screenY(position.y + shadowOffset.y, 0)));
 
-        font.setColor(originalFontColor);
+        color = multiplyAlpha(penColor, opacity);
+        drawGlyphs(text.getGlyphCache(color, screenX(position.x), screenY(position.y, 0)));
+    }
+
+    private void drawGlyphs(BitmapFontCache glyphCache) {
+        glyphCache.draw(spriteBatch);
+        countGlyphs(glyphCache);
+    }
+
+    private void countGlyphs(BitmapFontCache glyphCache) {
+        int pageCount = glyphCache.getFont().getRegions().size;
+        for (int page = 0; page < pageCount; ++page) {
+            currentFrameStats.addGlyphs(glyphCache.getVertexCount(page) / GLYPH_SIZE);
+        }
     }
 
     @Override
     public void drawRect(float x, float y, float w, float h) {
-        Color color = getAlphaMultiplied(penColor);
+        float color = multiplyAlpha(penColor, opacity);
+
+        if (singleBatch) {
+            fillQuad(x, y, w, 1, color);
+            fillQuad(x, y + h - 1, w, 1, color);
+            if (h > 2) {
+                fillQuad(x, y + 1, 1, h - 2, color);
+                fillQuad(x + w - 1, y + 1, 1, h - 2, color);
+            }
+            return;
+        }
 
         ensureShapeRendererOpen(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(color);
+        setShapeColor(color);
 
         drawLineInternal(x, y, x + w - 1, y);
         drawLineInternal(x, y, x, y + h - 1);
         drawLineInternal(x + w - 1, y, x + w - 1, y + h - 1);
         drawLineInternal(x, y + h - 1, x + w - 1, y + h - 1);
-
-        freeColor(color);
     }
 
     @Override
     public void drawLine(float x1, float y1, float x2, float y2) {
-        Color color = getAlphaMultiplied(penColor);
+        float color = multiplyAlpha(penColor, opacity);
+
+        if (singleBatch) {
+            drawLineQuad(x1, y1, x2, y2, color);
+            return;
+        }
 
         ensureShapeRendererOpen(ShapeRenderer.ShapeType.Line);
-        shapeRenderer.setColor(color);
+        setShapeColor(color);
         drawLineInternal(x1, y1, x2, y2);
+    }
 
-        freeColor(color);
+    private void setShapeColor(float color) {
+        shapeRenderer.setColor(KrColor.unpack(color, shapeColor));
     }
 
     private void drawLineInternal(float x1, float y1, float x2, float y2) {
-        shapeRenderer.line(x1, viewportSize.y - y1, x2 + 1, viewportSize.y - y2 - 1);
+        shapeRenderer.line(screenX(x1), screenY(y1, 0), screenX(x2) + 1, screenY(y2, 0) - 1);
+    }
+
+    /**
+     * Draws a one pixel wide line as a quad. Horizontal and vertical lines map to axis aligned quads,
+     * while other lines use a quad rotated around the start point.
+     */
+    private void drawLineQuad(float x1, float y1, float x2, float y2, float color) {
+        if (y1 == y2) {
+            fillQuad(Math.min(x1, x2), y1, Math.abs(x2 - x1) + 1, 1, color);
+            return;
+        }
+
+        if (x1 == x2) {
+            fillQuad(x1, Math.min(y1, y2), 1, Math.abs(y2 - y1) + 1, color);
+            return;
+        }
+
+        float dx = x2 - x1;
+        float dy = y2 - y1;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        float rotation = MathUtils.atan2(-dy, dx) * MathUtils.radiansToDegrees;
+
+        // rotated quads can't be clipped by the batch
+        if (softwareClipping) {
+            prepareScissorClip();
+        }
+        setRenderMode(spriteBatchRenderMode);
+        spriteBatch.setColor(color);
+        spriteBatch.draw(getWhitePixel(), screenX(x1), screenY(y1, 1), 0, 0.5f, length, 1, 1, 1, rotation);
+    }
+
+    /**
+     * Draws a solid colored quad through the sprite batch, using the white pixel of the skin texture.
+     */
+    private void fillQuad(float x, float y, float w, float h, float color) {
+        ensureSpriteBatchOpen();
+        spriteBatch.setColor(color);
+        spriteBatch.draw(getWhitePixel(), screenX(x), screenY(y, h), w, h);
+    }
+
+    private TextureRegion getWhitePixel() {
+        if (whitePixel == null) {
+            whitePixel = getDefaultToolkit().getSkin().getWhitePixel();
+        }
+        return whitePixel;
+    }
+
+    private float screenX(float x) {
+        return x + translation.x;
+    }
+
+    private float screenY(float y, float height) {
+        return viewportSize.y - y - translation.y - height;
     }
 
     @Override
@@ -173,36 +642,52 @@ public class KrLwjgl3Renderer extends KrRenderer {
         if (brushType == BrushType.DRAWABLE) {
             ensureSpriteBatchOpen();
             spriteBatch.setColor(1, 1, 1, getOpacity());
-            drawableBrush.draw(spriteBatch, x, viewportSize.y - y - h, w, h);
+            drawableBrush.draw(spriteBatch, screenX(x), screenY(y, h), w, h);
         }
 
         if (brushType == BrushType.COLOR) {
-            Color color = getAlphaMultiplied(colorBrush);
-            ensureShapeRendererOpen(ShapeRenderer.ShapeType.Filled);
-            shapeRenderer.setColor(color);
-            shapeRenderer.rect(x, viewportSize.y - y - h, w, h);
-            freeColor(color);
+            float color = multiplyAlpha(brushColor, opacity);
+            if (singleBatch) {
+                fillQuad(x, y, w, h, color);
+            } else {
+                ensureShapeRendererOpen(ShapeRenderer.ShapeType.Filled);
+                setShapeColor(color);
+                fillShapeRect(screenX(x), screenY(y, h), w, h);
+            }
+        }
+    }
+
+    private void fillShapeRect(float x, float y, float w, float h) {
+        currentFrameStats.addQuads(1);
+        if (!softwareClipping || clipDepth == clipBase) {
+            shapeRenderer.rect(x, y, w, h);
+            return;
+        }
+
+        int top = (clipDepth - 1) * 4;
+        float x1 = Math.max(x, clipStack[top]);
+        float y1 = Math.max(y, clipStack[top + 1]);
+        float x2 = Math.min(x + w, clipStack[top + 2]);
+        float y2 = Math.min(y + h, clipStack[top + 3]);
+        if (x1 < x2 && y1 < y2) {
+            shapeRenderer.rect(x1, y1, x2 - x1, y2 - y1);
         }
     }
 
     @Override
     public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
         Drawable drawable = getRoundedRectDrawable(cornerRadius);
-        Color originalColor = null;
 
         ensureSpriteBatchOpen();
+        float originalColor = spriteBatch.getPackedColor();
         if (brushType == BrushType.COLOR) {
-            originalColor = spriteBatch.getColor();
-            Color color = getAlphaMultiplied(colorBrush);
-            spriteBatch.setColor(color);
-            freeColor(color);
+            spriteBatch.setColor(multiplyAlpha(brushColor, opacity));
+        } else {
+            spriteBatch.setColor(1, 1, 1, getOpacity());
         }
 
-        drawable.draw(spriteBatch, x, viewportSize.y - y - h, w, h);
-
-        if (originalColor != null) {
-            spriteBatch.setColor(originalColor);
-        }
+        drawable.draw(spriteBatch, screenX(x), screenY(y, h), w, h);
+        spriteBatch.setColor(originalColor);
     }
 
     private Drawable getRoundedRectDrawable(int radius) {
@@ -225,28 +710,176 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public void translate(float x, float y) {
-        flush();
+        // the translation is applied to the vertex positions, so the batch doesn't need to be flushed
         translation.add(x, y);
-        spriteBatch.getTransformMatrix().translate(x, -y, 0);
-        shapeRenderer.translate(x, -y, 0);
     }
 
     @Override
     public boolean beginClip(float x, float y, float width, float height) {
-        flush();
-        Rectangle clipRectangle = Pools.obtain(Rectangle.class);
-        clipRectangle.set(x + translation.x, viewportSize.y - y - height - translation.y, width, height);
-        if (ScissorStack.pushScissors(clipRectangle)) {
-            return true;
+        float x1 = Math.round(screenX(x));
+        float y1 = Math.round(screenY(y, height));
+        float x2 = x1 + Math.round(width);
+        float y2 = y1 + Math.round(height);
+
+        if (clipDepth > clipBase) {
+            int top = (clipDepth - 1) * 4;
+            x1 = Math.max(x1, clipStack[top]);
+            y1 = Math.max(y1, clipStack[top + 1]);
+            x2 = Math.min(x2, clipStack[top + 2]);
+            y2 = Math.min(y2, clipStack[top + 3]);
         }
-        Pools.free(clipRectangle);
-        return false;
+
+        if (x2 - x1 < 1 || y2 - y1 < 1) {
+            return false;
+        }
+
+        if (clipDepth == MAX_CLIP_DEPTH) {
+            throw new IllegalStateException("Clip stack overflow: more than " + MAX_CLIP_DEPTH + " nested clips");
+        }
+
+        if (!softwareClipping) {
+            flush(FlushCause.CLIP);
+        }
+
+        int index = clipDepth * 4;
+        clipStack[index] = x1;
+        clipStack[index + 1] = y1;
+        clipStack[index + 2] = x2;
+        clipStack[index + 3] = y2;
+        clipDepth += 1;
+        applyClip();
+        return true;
     }
 
     @Override
     public void endClip() {
-        flush();
-        Pools.free(ScissorStack.popScissors());
+        if (clipDepth == clipBase) {
+            throw new IllegalStateException("endClip called without a matching beginClip");
+        }
+
+        if (!softwareClipping) {
+            flush(FlushCause.CLIP);
+        }
+
+        clipDepth -= 1;
+        applyClip();
+    }
+
+    @Override
+    public boolean getClipBounds(Rectangle bounds) {
+        if (clipDepth == clipBase) {
+            return false;
+        }
+
+        int top = (clipDepth - 1) * 4;
+        float height = clipStack[top + 3] - clipStack[top + 1];
+        bounds.set(clipStack[top] - translation.x, viewportSize.y - clipStack[top + 3] - translation.y, clipStack[top + 2] - clipStack[top], height);
+        return true;
+    }
+
+    /**
+     * Applies the top of the clip stack, either to the clipping batch or to the GL scissor.
+     */
+    private void applyClip() {
+        if (softwareClipping) {
+            updateBatchClip();
+        } else {
+            applyScissor();
+        }
+    }
+
+    private void updateBatchClip() {
+        if (softwareClipping && clipDepth > clipBase) {
+            int top = (clipDepth - 1) * 4;
+            spriteBatch.setClip(clipStack[top], clipStack[top + 1], clipStack[top + 2], clipStack[top + 3]);
+        } else {
+            spriteBatch.clearClip();
+        }
+    }
+
+    /**
+     * Makes the GL scissor compatible with quads clipped on the CPU: the scissor must either be
+     * disabled, or contain the current clip rectangle.
+     */
+    private void prepareSoftwareClip() {
+        if (!scissorEnabled) {
+            return;
+        }
+
+        if (clipDepth > clipBase) {
+            int top = (clipDepth - 1) * 4;
+            if (scissor[0] <= clipStack[top] && scissor[1] <= clipStack[top + 1]
+                    && clipStack[top + 2] <= scissor[2] && clipStack[top + 3] <= scissor[3]) {
+                return;
+            }
+        }
+
+        flush(FlushCause.CLIP);
+        Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+        scissorEnabled = false;
+    }
+
+    /**
+     * Makes the GL scissor match the current clip rectangle, for primitives that can't be clipped on the CPU.
+     */
+    private void prepareScissorClip() {
+        if (!isScissorCurrent()) {
+            flush(FlushCause.CLIP);
+            applyScissor();
+        }
+    }
+
+    /**
+     * Makes the GL scissor match the current clip rectangle for a quad the sprite batch can't clip. The
+     * batch is in the middle of a draw call, so it's flushed without ending it.
+     */
+    private void applyBatchScissorClip() {
+        if (!isScissorCurrent()) {
+            currentFrameStats.addFlush(FlushCause.CLIP);
+            spriteBatch.flush();
+            applyScissor();
+        }
+    }
+
+    /**
+     * Returns true if the GL scissor already matches the current clip rectangle.
+     */
+    private boolean isScissorCurrent() {
+        if (clipDepth == clipBase) {
+            return !scissorEnabled;
+        }
+
+        int top = (clipDepth - 1) * 4;
+        return scissorEnabled && scissor[0] == clipStack[top] && scissor[1] == clipStack[top + 1]
+                && scissor[2] == clipStack[top + 2] && scissor[3] == clipStack[top + 3];
+    }
+
+    /**
+     * Applies the top of the clip stack to the GL scissor. Outside layers, the clip is in logical
+     * coordinates, while layers are created at their logical size.
+     */
+    private void applyScissor() {
+        if (clipDepth == clipBase) {
+            Gdx.gl.glDisable(GL20.GL_SCISSOR_TEST);
+            scissorEnabled = false;
+            return;
+        }
+
+        int top = (clipDepth - 1) * 4;
+        System.arraycopy(clipStack, top, scissor, 0, 4);
+        int x = (int) clipStack[top];
+        int y = (int) clipStack[top + 1];
+        int width = (int) (clipStack[top + 2] - clipStack[top]);
+        int height = (int) (clipStack[top + 3] - clipStack[top + 1]);
+
+        Gdx.gl.glEnable(GL20.GL_SCISSOR_TEST);
+        scissorEnabled = true;
+        currentFrameStats.addScissorPush();
+        if (layerDepth > 0) {
+            Gdx.gl.glScissor(x, y, width, height);
+        } else {
+            HdpiUtils.glScissor(x, y, width, height);
+        }
     }
 
     @Override
@@ -265,19 +898,22 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public KrPen getPen() {
-        return new KrPen(1, penColor);
+        if (pen == null) {
+            pen = new KrPen(penWidth, KrColor.unpack(penColor, new Color()));
+        }
+        return pen;
     }
 
     @Override
     public void setBrush(KrBrush brush) {
         if (brush instanceof KrDrawableBrush) {
             brushType = BrushType.DRAWABLE;
-            drawableBrush = ((KrDrawableBrush) drawableBrush).getDrawable();
+            drawableBrush = ((KrDrawableBrush) brush).getDrawable();
         }
 
         if (brush instanceof KrColorBrush) {
             brushType = BrushType.COLOR;
-            colorBrush = ((KrColorBrush) brush).getColor();
+            brushColor = ((KrColorBrush) brush).getColor().toFloatBits();
         }
     }
 
@@ -289,8 +925,13 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public void setBrush(Color color) {
+        setBrush(color.toFloatBits());
+    }
+
+    @Override
+    public void setBrush(float packedColor) {
         brushType = BrushType.COLOR;
-        colorBrush = color;
+        brushColor = packedColor;
     }
 
     @Override
@@ -300,42 +941,128 @@ public class KrLwjgl3Renderer extends KrRenderer {
 
     @Override
     public void setPen(KrPen pen) {
-        penColor = pen.getColor();
+        this.pen = pen;
+        penColor = pen.getColor().toFloatBits();
+        penWidth = pen.getWidth();
     }
 
     @Override
     public void setPen(int size, Color color) {
-        penColor = color;
+        setPen(size, color.toFloatBits());
+    }
+
+    @Override
+    public void setPen(float packedColor) {
+        setPen(1, packedColor);
+    }
+
+    private void setPen(float width, float packedColor) {
+        if (penColor != packedColor || penWidth != width) {
+            penColor = packedColor;
+            penWidth = width;
+            pen = null;
+        }
     }
 
     @Override
     public void popState() {
-        // TODO(alex): implement
+        if (stateDepth == 0) {
+            throw new IllegalStateException("popState called without a matching pushState");
+        }
+
+        stateDepth -= 1;
+        int state = stateDepth * STATE_SIZE;
+        opacity = states[state];
+        translation.set(states[state + 1], states[state + 2]);
+        penColor = states[state + 3];
+        penWidth = states[state + 4];
+        brushColor = states[state + 5];
+        pen = statePens[stateDepth];
+        brushType = stateBrushTypes[stateDepth];
+        drawableBrush = stateDrawableBrushes[stateDepth];
+        font = stateFonts[stateDepth];
+        restoreClipDepth(stateClipDepths[stateDepth]);
+
+        // don't keep references to objects that are no longer used
+        statePens[stateDepth] = null;
+        stateDrawableBrushes[stateDepth] = null;
+        stateFonts[stateDepth] = null;
     }
 
     @Override
     public void pushState() {
-        // TODO(alex): implement
+        if (stateDepth == MAX_STATE_DEPTH) {
+            throw new IllegalStateException("State stack overflow: more than " + MAX_STATE_DEPTH + " nested states");
+        }
+
+        int state = stateDepth * STATE_SIZE;
+        states[state] = opacity;
+        states[state + 1] = translation.x;
+        states[state + 2] = translation.y;
+        states[state + 3] = penColor;
+        states[state + 4] = penWidth;
+        states[state + 5] = brushColor;
+        statePens[stateDepth] = pen;
+        stateBrushTypes[stateDepth] = brushType;
+        stateDrawableBrushes[stateDepth] = drawableBrush;
+        stateFonts[stateDepth] = font;
+        stateClipDepths[stateDepth] = clipDepth;
+        stateDepth += 1;
+    }
+
+    /**
+     * Ends the clips begun after the clip stack had the given depth. The clip is applied
+     * once, and the GL scissor is left untouched if it already matches the restored clip.
+     */
+    private void restoreClipDepth(int depth) {
+        if (clipDepth <= depth) {
+            return;
+        }
+
+        clipDepth = depth;
+        if (softwareClipping) {
+            updateBatchClip();
+        } else if (!isScissorCurrent()) {
+            flush(FlushCause.CLIP);
+            applyScissor();
+        }
     }
 
     private void ensureSpriteBatchOpen() {
-        if (currentRenderMode != spriteBatchRenderMode) {
-            currentRenderMode.end();
-            currentRenderMode = spriteBatchRenderMode;
-            currentRenderMode.begin();
+        if (softwareClipping) {
+            prepareSoftwareClip();
         }
+        setRenderMode(spriteBatchRenderMode);
     }
 
     private void ensureShapeRendererOpen(ShapeRenderer.ShapeType shapeType) {
-        RenderMode requestedRenderMode = shapeType == ShapeRenderer.ShapeType.Line ? lineShapeRenderMode : filledShapeRenderMode;
-        if (currentRenderMode != requestedRenderMode) {
+        boolean isLine = shapeType == ShapeRenderer.ShapeType.Line;
+        if (softwareClipping) {
+            // filled rectangles are clipped on the CPU, lines rely on the scissor
+            if (isLine) {
+                prepareScissorClip();
+            } else {
+                prepareSoftwareClip();
+            }
+        }
+        setRenderMode(isLine ? lineShapeRenderMode : filledShapeRenderMode);
+    }
+
+    private void setRenderMode(RenderMode renderMode) {
+        if (currentRenderMode != renderMode) {
+            if (currentRenderMode != nullRenderMode) {
+                currentFrameStats.addFlush(FlushCause.MODE_SWITCH);
+            }
             currentRenderMode.end();
-            currentRenderMode = requestedRenderMode;
+            currentRenderMode = renderMode;
             currentRenderMode.begin();
         }
     }
 
-    private void flush() {
+    private void flush(FlushCause cause) {
+        if (currentRenderMode != nullRenderMode) {
+            currentFrameStats.addFlush(cause);
+        }
         currentRenderMode.end();
         currentRenderMode = nullRenderMode;
     }
@@ -354,11 +1081,13 @@ public class KrLwjgl3Renderer extends KrRenderer {
         @Override
         public void begin() {
             spriteBatch.begin();
+            blendMode.apply();
         }
 
         @Override
         public void end() {
             spriteBatch.end();
+            drawCalls += spriteBatch.renderCalls;
         }
     }
 
@@ -366,14 +1095,26 @@ public class KrLwjgl3Renderer extends KrRenderer {
     private class ShapeRenderMode implements RenderMode {
         public final ShapeRenderer.ShapeType shapeType;
 
+        private boolean isBlending;
+
         @Override
         public void begin() {
+            // shapes drawn into layers are blended, so the layer stores premultiplied colors
+            isBlending = blendMode != KrLwjgl3BlendMode.DIRECT;
+            if (isBlending) {
+                Gdx.gl.glEnable(GL20.GL_BLEND);
+                blendMode.apply();
+            }
             shapeRenderer.begin(shapeType);
         }
 
         @Override
         public void end() {
             shapeRenderer.end();
+            if (isBlending) {
+                Gdx.gl.glDisable(GL20.GL_BLEND);
+            }
+            drawCalls += 1;
         }
     }
 
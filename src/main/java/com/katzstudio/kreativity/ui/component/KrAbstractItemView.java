@@ -37,6 +37,8 @@ public abstract class KrAbstractItemView extends KrWidget {
 
     @Getter protected KrSelectionMode selectionMode = KrSelectionMode.EXTENDED;
 
+    private final Vector2 tmpPosition = new Vector2();
+
     public KrAbstractItemView(KrItemModel model) {
         this(model, new KrDefaultCellRenderer());
     }
@@ -77,7 +79,8 @@ public abstract class KrAbstractItemView extends KrWidget {
             return;
         }
 
-        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(event.getScreenPosition()));
+        Vector2 screenPosition = event.getScreenPosition();
+        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(screenPosition.x, screenPosition.y, tmpPosition));
         if (selectionMode == KrSelectionMode.SINGLE) {
             if (event.isCtrlDown() && selectionModel.getCurrentSelection().contains(itemIndex)) {
                 selectionModel.setSelection(KrSelection.EMPTY);
@@ -103,7 +106,8 @@ public abstract class KrAbstractItemView extends KrWidget {
     protected void mouseDoubleClickEvent(KrMouseEvent event) {
         super.mouseDoubleClickEvent(event);
 
-        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(event.getScreenPosition()));
+        Vector2 screenPosition = event.getScreenPosition();
+        KrItemModel.KrModelIndex itemIndex = findItemIndexAt(screenToLocal(screenPosition.x, screenPosition.y, tmpPosition));
         notifyItemDoubleClicked(itemIndex);
         event.accept();
     }
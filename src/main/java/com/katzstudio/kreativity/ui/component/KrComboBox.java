@@ -89,7 +89,7 @@ public class KrComboBox<T> extends KrWidget {
         Vector2 pTextPosition = KrAlignmentTool.alignRectangles(text.getBounds(), tmpRect, KrAlignment.MIDDLE_LEFT);
 
         renderer.setPen(1, getForeground());
-        renderer.drawText(text.getString(), pTextPosition);
+        renderer.drawText(text, pTextPosition);
 
         Pools.free(pTextPosition);
     }
@@ -106,7 +106,7 @@ public class KrComboBox<T> extends KrWidget {
     }
 
     private void showPopupMenu() {
-        Rectangle screenGeometry = getScreenGeometry();
+        Rectangle screenGeometry = getScreenGeometry(tmpRect);
         popupMenu.setPreferredWidth(screenGeometry.width);
         popupMenu.showAt((int) screenGeometry.x, ((int) (screenGeometry.y + screenGeometry.height)) - 1);
     }
@@ -46,7 +46,7 @@ public class KrLabel extends KrWidget {
         Vector2 textPosition = KrAlignmentTool.alignRectangles(tmpRect, alignmentReference, getTextAlignment());
         renderer.setPen(1, getStyle().foregroundColor);
         renderer.setFont(getStyle().font);
-        renderer.drawText(text.getString(), textPosition);
+        renderer.drawText(text, textPosition);
 
         if (componentClip) {
             renderer.endClip();
@@ -0,0 +1,100 @@
+package com.katzstudio.kreativity.ui.component;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+
+/**
+ * Lays out the widgets of a canvas whose layout was invalidated, in a single pass per frame.
+ * <p>
+ * Invalidating a widget marks it and its ancestors as invalid, stopping at the first ancestor that is
+ * already invalid, since that one is already waiting for the next pass. When the invalidation reaches the
+ * root of a widget tree hosted by a canvas, the root is scheduled. The layout pass then validates the
+ * scheduled roots and their invalid descendants top down, so every widget is laid out once, after its
+ * parent gave it its final geometry. Valid subtrees are skipped.
+ * <p>
+ * Roots invalidated while a pass runs are laid out by the next pass.
+ */
+public class KrLayoutScheduler {
+
+    private ArrayList<KrWidget> roots = new ArrayList<>();
+
+    private ArrayList<KrWidget> processedRoots = new ArrayList<>();
+
+    private final ArrayList<KrWidget> stack = new ArrayList<>();
+
+    /**
+     * The number of widgets laid out since the counters were reset.
+     */
+    @Getter private int layoutCount;
+
+    /**
+     * The number of passes that laid out at least one root since the counters were reset.
+     */
+    @Getter private int passCount;
+
+    /**
+     * The number of scheduled roots laid out since the counters were reset.
+     */
+    @Getter private int rootCount;
+
+    /**
+     * Schedules the root of an invalidated widget tree. Roots are scheduled once until the next pass.
+     */
+    void schedule(KrWidget root) {
+        if (!roots.contains(root)) {
+            roots.add(root);
+        }
+    }
+
+    /**
+     * Returns true if a root is waiting to be laid out.
+     */
+    public boolean isLayoutPending() {
+        return !roots.isEmpty();
+    }
+
+    /**
+     * Lays out the scheduled roots and their invalid descendants.
+     */
+    public void layout() {
+        if (roots.isEmpty()) {
+            return;
+        }
+
+        ArrayList<KrWidget> scheduledRoots = roots;
+        roots = processedRoots;
+        processedRoots = scheduledRoots;
+        passCount += 1;
+        rootCount += scheduledRoots.size();
+
+        for (int i = 0; i < scheduledRoots.size(); ++i) {
+            stack.add(scheduledRoots.get(i));
+            while (!stack.isEmpty()) {
+                KrWidget widget = stack.remove(stack.size() - 1);
+                if (widget.isValid()) {
+                    continue;
+                }
+
+                widget.validate();
+                layoutCount += 1;
+
+                // children are pushed in reverse order, so they are laid out in z-order
+                for (int j = widget.getChildCount() - 1; j >= 0; --j) {
+                    KrWidget child = widget.getChild(j);
+                    if (!child.isValid()) {
+                        stack.add(child);
+                    }
+                }
+            }
+        }
+
+        scheduledRoots.clear();
+    }
+
+    public void resetCounters() {
+        layoutCount = 0;
+        passCount = 0;
+        rootCount = 0;
+    }
+}
@@ -0,0 +1,139 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.katzstudio.kreativity.ui.render.KrDrawListRenderer;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Draws the children of a widget by recording their draw calls in parallel, then submitting them in order.
+ * <p>
+ * Each visible child records into its own {@link KrDrawListRenderer} on a {@link ForkJoinPool}, while the
+ * calling thread records the first child. Once all the lists are recorded, the calling thread, which owns the
+ * renderer, replays them in z-order. The draw lists and the tasks are reused from frame to frame, so their
+ * buffers stop growing once they reach the size of the largest frame.
+ * <p>
+ * Widgets drawn this way must not share mutable state with widgets in other subtrees while drawing. The
+ * screen positions and draw opacities of the children are cached before recording starts, so the recording
+ * threads only update the caches of their own subtree.
+ *
+ * @see KrWidget#setParallelDrawer(KrParallelDrawer)
+ */
+public class KrParallelDrawer {
+
+    private final ForkJoinPool pool;
+
+    /**
+     * The minimum number of visible children needed to record in parallel. Below it, children are drawn directly.
+     */
+    @Getter @Setter private int minParallelWidgets = 2;
+
+    private DrawListTask[] tasks = new DrawListTask[0];
+
+    public KrParallelDrawer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public KrParallelDrawer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Draws the widgets that intersect the clip bounds, or all the widgets if {@code isClipped} is false.
+     */
+    void draw(KrRenderer renderer, List<KrWidget> widgets, boolean isClipped, Rectangle clipBounds) {
+        int count = 0;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            if (widget.isVisible() && (!isClipped || widget.intersects(clipBounds))) {
+                // computed here, so the recording threads don't write the caches of the shared ancestors
+                widget.updateHierarchyCache();
+                ensureTaskCapacity(count + 1);
+                tasks[count].widget = widget;
+                count += 1;
+            }
+        }
+
+        if (count < minParallelWidgets) {
+            for (int i = 0; i < count; ++i) {
+                tasks[i].widget.draw(renderer);
+                tasks[i].widget = null;
+            }
+            return;
+        }
+
+        for (int i = 0; i < count; ++i) {
+            tasks[i].drawList.begin(renderer);
+        }
+
+        for (int i = 1; i < count; ++i) {
+            pool.execute(tasks[i]);
+        }
+        try {
+            tasks[0].invoke();
+        } finally {
+            joinTasks(renderer, count);
+        }
+    }
+
+    /**
+     * Waits for all the recording tasks and submits their lists in order, leaving every task reusable even if
+     * some of them failed. The lists of failed tasks are not submitted, and the first failure is rethrown.
+     */
+    private void joinTasks(KrRenderer renderer, int count) {
+        Throwable failure = null;
+        for (int i = 0; i < count; ++i) {
+            DrawListTask task = tasks[i];
+            try {
+                task.join();
+                task.drawList.submit(renderer);
+            } catch (RuntimeException | Error e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            } finally {
+                task.reinitialize();
+                task.widget = null;
+            }
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    private void ensureTaskCapacity(int capacity) {
+        if (tasks.length >= capacity) {
+            return;
+        }
+
+        DrawListTask[] newTasks = new DrawListTask[Math.max(capacity, tasks.length * 2)];
+        System.arraycopy(tasks, 0, newTasks, 0, tasks.length);
+        for (int i = tasks.length; i < newTasks.length; ++i) {
+            newTasks[i] = new DrawListTask();
+        }
+        tasks = newTasks;
+    }
+
+    private static class DrawListTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final KrDrawListRenderer drawList = new KrDrawListRenderer();
+
+        private KrWidget widget;
+
+        @Override
+        protected void compute() {
+            widget.draw(drawList);
+        }
+    }
+}
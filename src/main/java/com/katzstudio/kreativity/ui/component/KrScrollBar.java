@@ -27,6 +27,8 @@ public class KrScrollBar extends KrWidget {
 
     @Getter private final KrOrientation orientation;
 
+    private final Vector2 tmpPosition = new Vector2();
+
     @Getter @Setter private float scrollStep = 10;
 
     @Getter protected float currentValue = 0;
@@ -126,7 +128,8 @@ public class KrScrollBar extends KrWidget {
     protected void mousePressedEvent(KrMouseEvent event) {
         super.mousePressedEvent(event);
 
-        Vector2 localMouseLocation = screenToLocal(event.getScreenPosition());
+        Vector2 screenPosition = event.getScreenPosition();
+        Vector2 localMouseLocation = screenToLocal(screenPosition.x, screenPosition.y, tmpPosition);
 
         if (!getThumbGeometry(tmpRect).contains(localMouseLocation)) {
             float positionOnTrack = orientation == VERTICAL ? localMouseLocation.y : localMouseLocation.x;
@@ -144,7 +147,7 @@ public class KrScrollBar extends KrWidget {
     protected void mouseMoveEvent(KrMouseEvent event) {
         super.mouseMoveEvent(event);
         if (isDragging) {
-            float delta = orientation == VERTICAL ? event.getDeltaMove().y : event.getDeltaMove().x;
+            float delta = orientation == VERTICAL ? event.getDeltaY() : event.getDeltaX();
             dragPosition = dragPosition + delta;
             setThumbPosition(dragPosition);
             event.accept();
@@ -0,0 +1,152 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Uniform grid over the children of a widget, used to find the child under a point without testing every child.
+ * <p>
+ * Each child is stored in the cells its geometry overlaps. The index is updated by the widget when a child is
+ * added, removed, moved or resized, so lookups only test the children stored in the cell under the point.
+ * Children overlapping too many cells are kept in a separate list that is always tested, so a large background
+ * child doesn't fill the whole grid.
+ * <p>
+ * Geometries are in the parent space. Lookups use the same inclusive bounds as {@link com.badlogic.gdx.math.Rectangle#contains(float, float)}.
+ */
+class KrSpatialIndex {
+
+    static final float CELL_SIZE = 64;
+
+    private static final int MAX_CELLS_PER_WIDGET = 64;
+
+    private final LongMap<Array<KrWidget>> cells = new LongMap<>();
+
+    private final IdentityMap<KrWidget, Entry> entries = new IdentityMap<>();
+
+    private final Array<KrWidget> oversizedWidgets = new Array<>(false, 4);
+
+    void add(KrWidget widget) {
+        Entry entry = new Entry();
+        entries.put(widget, entry);
+        insert(widget, entry);
+    }
+
+    void remove(KrWidget widget) {
+        Entry entry = entries.remove(widget);
+        if (entry != null) {
+            erase(widget, entry);
+        }
+    }
+
+    /**
+     * Moves the widget to the cells overlapped by its current geometry.
+     */
+    void update(KrWidget widget) {
+        Entry entry = entries.get(widget);
+        if (entry == null) {
+            return;
+        }
+
+        int minColumn = cell(widget.getX());
+        int minRow = cell(widget.getY());
+        int maxColumn = cell(widget.getX() + widget.getWidth());
+        int maxRow = cell(widget.getY() + widget.getHeight());
+        if (minColumn == entry.minColumn && minRow == entry.minRow && maxColumn == entry.maxColumn && maxRow == entry.maxRow) {
+            return;
+        }
+
+        erase(widget, entry);
+        insert(widget, entry);
+    }
+
+    /**
+     * Returns the topmost visible child containing the point, or null if there is none.
+     */
+    KrWidget find(float x, float y) {
+        KrWidget result = findTopmost(cells.get(key(cell(x), cell(y))), x, y, null);
+        return findTopmost(oversizedWidgets, x, y, result);
+    }
+
+    private static KrWidget findTopmost(Array<KrWidget> widgets, float x, float y, KrWidget topmost) {
+        if (widgets == null) {
+            return topmost;
+        }
+
+        for (int i = 0; i < widgets.size; ++i) {
+            KrWidget widget = widgets.get(i);
+            if ((topmost == null || widget.getChildIndex() > topmost.getChildIndex()) && widget.isVisible() && contains(widget, x, y)) {
+                topmost = widget;
+            }
+        }
+        return topmost;
+    }
+
+    static boolean contains(KrWidget widget, float x, float y) {
+        return x >= widget.getX() && x <= widget.getX() + widget.getWidth()
+                && y >= widget.getY() && y <= widget.getY() + widget.getHeight();
+    }
+
+    private void insert(KrWidget widget, Entry entry) {
+        entry.minColumn = cell(widget.getX());
+        entry.minRow = cell(widget.getY());
+        entry.maxColumn = cell(widget.getX() + widget.getWidth());
+        entry.maxRow = cell(widget.getY() + widget.getHeight());
+
+        long cellCount = (long) (entry.maxColumn - entry.minColumn + 1) * (entry.maxRow - entry.minRow + 1);
+        entry.isOversized = cellCount > MAX_CELLS_PER_WIDGET;
+        if (entry.isOversized) {
+            oversizedWidgets.add(widget);
+            return;
+        }
+
+        for (int row = entry.minRow; row <= entry.maxRow; ++row) {
+            for (int column = entry.minColumn; column <= entry.maxColumn; ++column) {
+                long key = key(column, row);
+                Array<KrWidget> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new Array<>(false, 4);
+                    cells.put(key, cell);
+                }
+                cell.add(widget);
+            }
+        }
+    }
+
+    private void erase(KrWidget widget, Entry entry) {
+        if (entry.isOversized) {
+            oversizedWidgets.removeValue(widget, true);
+            return;
+        }
+
+        for (int row = entry.minRow; row <= entry.maxRow; ++row) {
+            for (int column = entry.minColumn; column <= entry.maxColumn; ++column) {
+                Array<KrWidget> cell = cells.get(key(column, row));
+                if (cell != null) {
+                    cell.removeValue(widget, true);
+                }
+            }
+        }
+    }
+
+    private static int cell(float coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    private static long key(int column, int row) {
+        return ((long) column << 32) | (row & 0xffffffffL);
+    }
+
+    private static class Entry {
+
+        int minColumn;
+
+        int minRow;
+
+        int maxColumn;
+
+        int maxRow;
+
+        boolean isOversized;
+    }
+}
@@ -17,7 +17,6 @@ import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
 
 import static com.katzstudio.kreativity.ui.KrAlignment.MIDDLE_CENTER;
 import static com.katzstudio.kreativity.ui.KrAlignmentTool.alignRectangles;
@@ -36,6 +35,8 @@ public class KrSplitPanel extends KrWidget {
 
     private final CellSizePolicyModel cellSizePolicyModel = new CellSizePolicyModel();
 
+    private float[] cellSizes;
+
     public KrSplitPanel() {
         setLayout(new LayoutManager());
         setDefaultStyle(getDefaultToolkit().getSkin().getStyle(KrSplitPanel.class));
@@ -48,6 +49,7 @@ public class KrSplitPanel extends KrWidget {
     public void add(int index, KrWidget widget, KrUnifiedSize preferredSize) {
         Cell cell = new Cell(widget, preferredSize);
         cells.add(index, cell);
+        cellSizePolicyModel.invalidate();
         add(widget);
         generateSeparators();
     }
@@ -83,7 +85,7 @@ public class KrSplitPanel extends KrWidget {
                     maxDelta = (int) Math.max(0, bottomCell.getHeight() - bottomCell.getPreferredHeight());
                     dragging = true;
 
-                    startY = event.getScreenPosition().y;
+                    startY = event.getY();
                 }
 
                 @Override
@@ -94,7 +96,7 @@ public class KrSplitPanel extends KrWidget {
                 @Override
                 public void mouseMoved(KrMouseEvent event) {
                     if (dragging) {
-                        deltaY = event.getScreenPosition().y - startY;
+                        deltaY = event.getY() - startY;
                         int actualDelta = (int) Math.max(minDelta, Math.min(maxDelta, deltaY));
                         topCell.setOffset(topCellOffset + actualDelta);
                         bottomCell.setOffset(bottomCellOffset - actualDelta);
@@ -127,6 +129,7 @@ public class KrSplitPanel extends KrWidget {
         }
 
         cells.remove(cell);
+        cellSizePolicyModel.invalidate();
         remove(cell.getComponent());
         generateSeparators();
     }
@@ -145,13 +148,13 @@ public class KrSplitPanel extends KrWidget {
         @Override
         public void setGeometry(Rectangle geometry) {
             float availableSize = geometry.getHeight() - separatorList.size() * SEPARATOR_SIZE;
-            List<Float> sizes = cellSizePolicyModel.getSizes(availableSize);
+            cellSizes = cellSizePolicyModel.getSizes(availableSize, cellSizes);
 
             float cellWidth = geometry.getWidth();
             float topOffset = 0;
             int cellIndex = 0;
             for (Cell cell : cells) {
-                final int cellHeight = (int) (sizes.get(cellIndex) + cell.getOffset());
+                final int cellHeight = (int) (cellSizes[cellIndex] + cell.getOffset());
 
                 cell.getComponent().setGeometry(0, topOffset, cellWidth, cellHeight);
 
@@ -223,8 +226,13 @@ public class KrSplitPanel extends KrWidget {
 
     private final class CellSizePolicyModel extends KrSizePolicyModel {
         @Override
-        public Stream<KrUnifiedSize> stream() {
-            return cells.stream().map(Cell::getPreferredSize);
+        public int getCount() {
+            return cells.size();
+        }
+
+        @Override
+        public KrUnifiedSize getSizePolicy(int index) {
+            return cells.get(index).getPreferredSize();
         }
     }
 
@@ -17,7 +17,6 @@ import com.katzstudio.kreativity.ui.style.KrItemViewStyle;
 import lombok.Getter;
 import lombok.Setter;
 
-import java.util.List;
 
 /**
  * A {@link KrTableView} widget displays data stored in a {@link KrItemModel}
@@ -37,6 +36,8 @@ public class KrTableView extends KrAbstractItemView {
 
     private KrSizePolicyModel columnSizePolicy;
 
+    private int[] columnSizes;
+
     public KrTableView(KrItemModel model) {
         this(model, null);
     }
@@ -63,7 +64,7 @@ public class KrTableView extends KrAbstractItemView {
 
         Color borderColor = KrToolkit.getDefaultToolkit().getSkin().getColor(KrSkin.ColorKey.BORDER);
 
-        List<Integer> columnSizes = columnSizePolicy.getIntSizes(getWidth());
+        columnSizes = columnSizePolicy.getIntSizes(getWidth(), columnSizes);
 
         renderer.setBrush(borderColor);
         renderer.fillRoundedRect(0, 0, (int) getWidth(), (int) getHeight(), 3);
@@ -75,9 +76,9 @@ public class KrTableView extends KrAbstractItemView {
         if (drawHeader) {
             for (int i = 0; i < columnCount; ++i) {
                 KrWidget cellWidget = headerRenderer.getComponent(i, columnModel);
-                cellWidget.setGeometry(x, y, columnSizes.get(i), rowHeight);
+                cellWidget.setGeometry(x, y, columnSizes[i], rowHeight);
                 cellWidget.draw(renderer);
-                x += columnSizes.get(i);
+                x += columnSizes[i];
             }
             renderer.setPen(borderColor);
             renderer.drawLine(0, ROW_HEIGHT, getWidth(), ROW_HEIGHT);
@@ -92,11 +93,11 @@ public class KrTableView extends KrAbstractItemView {
             y = (int) -verticalScrollBar.getCurrentValue() + (drawHeader ? rowHeight : 0);
             for (int j = 0; j < model.getRowCount(); ++j) {
                 KrWidget cellWidget = cellRenderer.getComponent(j, i, null, model, selectionModel.getCurrentSelection().containsRow(j));
-                cellWidget.setGeometry(x, y, columnSizes.get(i), rowHeight);
+                cellWidget.setGeometry(x, y, columnSizes[i], rowHeight);
                 cellWidget.draw(renderer);
                 y += rowHeight;
             }
-            x += columnSizes.get(i);
+            x += columnSizes[i];
         }
 
         if (clipped) {
@@ -109,7 +110,7 @@ public class KrTableView extends KrAbstractItemView {
 
             x = 0;
             for (int i = 0; i < columnCount - 1; ++i) {
-                x += columnSizes.get(i) - 1;
+                x += columnSizes[i] - 1;
                 renderer.drawLine(x, 0, x, getHeight());
             }
         }
@@ -48,6 +48,7 @@ public class KrTextField extends KrWidget {
 
     private void onDocumentTextChanged(String oldValue, String newValue) {
         model.setValue(newValue);
+        repaint();
     }
 
     @Override
@@ -60,6 +61,12 @@ public class KrTextField extends KrWidget {
     protected void keyPressedEvent(KrKeyEvent event) {
         super.keyPressedEvent(event);
 
+        // the document doesn't report caret and selection changes, so the field is repainted after every key
+        editDocument(event);
+        repaint();
+    }
+
+    private void editDocument(KrKeyEvent event) {
         if (event.getKeycode() == ESCAPE) {
             getCanvas().clearFocus();
         }
@@ -133,6 +140,7 @@ public class KrTextField extends KrWidget {
     protected void focusGainedEvent(KrFocusEvent event) {
         super.focusGainedEvent(event);
         model.ephemeralChangesBegin();
+        repaint();
         event.accept();
     }
 
@@ -141,6 +149,7 @@ public class KrTextField extends KrWidget {
         super.focusLostEvent(event);
         model.ephemeralChangesEnd();
         textDocument.clearSelection();
+        repaint();
         event.accept();
     }
 
@@ -191,7 +200,7 @@ public class KrTextField extends KrWidget {
         // render caret
         if (isFocused()) {
             int caretPosition = textDocument.getCaretPosition();
-            float caretX = textPosition.x + metrics.bounds(getStyle().font, text.substring(0, caretPosition), tmpRect).getWidth();
+            float caretX = textPosition.x + metrics.bounds(getStyle().font, text, 0, caretPosition, tmpRect).getWidth();
             renderer.setPen(1, ((KrTextFieldStyle) getStyle()).caretColor);
             renderer.drawLine(caretX, CARET_TOP_OFFSET, caretX, CARET_TOP_OFFSET + CARET_HEIGHT);
         }
@@ -232,8 +241,8 @@ public class KrTextField extends KrWidget {
         KrFontMetrics metrics = getDefaultToolkit().fontMetrics();
         String text = textDocument.getText();
 
-        float selectionStartX = textPositionX + metrics.bounds(getStyle().font, text.substring(0, textDocument.getSelectionBegin()), tmpRect).getWidth();
-        float selectionEndX = textPositionX + metrics.bounds(getStyle().font, text.substring(0, textDocument.getSelectionEnd()), tmpRect).getWidth();
+        float selectionStartX = textPositionX + metrics.bounds(getStyle().font, text, 0, textDocument.getSelectionBegin(), tmpRect).getWidth();
+        float selectionEndX = textPositionX + metrics.bounds(getStyle().font, text, 0, textDocument.getSelectionEnd(), tmpRect).getWidth();
         float selectionWidth = selectionEndX - selectionStartX;
 
         return Pools.obtain(Rectangle.class).set(
@@ -246,8 +255,9 @@ public class KrTextField extends KrWidget {
     private void recalculateTextOffset() {
         KrFontMetrics metrics = getDefaultToolkit().fontMetrics();
         float textPositionX = getX() + getPadding().left - textOffset;
-        float caretXPosition = textPositionX + metrics.bounds(getStyle().font, textDocument.getTextBeforeCaret(), tmpRect).width;
-        float textWidth = metrics.bounds(getStyle().font, textDocument.getText(), tmpRect).width;
+        String text = textDocument.getText();
+        float caretXPosition = textPositionX + metrics.bounds(getStyle().font, text, 0, textDocument.getCaretPosition(), tmpRect).width;
+        float textWidth = metrics.bounds(getStyle().font, text, tmpRect).width;
 
         Rectangle innerViewport = rectangles(getGeometry(tmpRect)).shrink(getPadding()).value();
         if (innerViewport.getWidth() > textWidth) {
@@ -268,6 +278,7 @@ public class KrTextField extends KrWidget {
 
     public void setText(String text) {
         textDocument.setText(text);
+        repaint();
     }
 
     public String getText() {
@@ -5,12 +5,10 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
-import com.badlogic.gdx.utils.Pools;
 import com.katzstudio.kreativity.ui.KrCanvas;
 import com.katzstudio.kreativity.ui.KrCursor;
 import com.katzstudio.kreativity.ui.KrMeasuredString;
 import com.katzstudio.kreativity.ui.KrPadding;
-import com.katzstudio.kreativity.ui.KrRectangles;
 import com.katzstudio.kreativity.ui.KrWidgetToStringBuilder;
 import com.katzstudio.kreativity.ui.event.KrEnterEvent;
 import com.katzstudio.kreativity.ui.event.KrEvent;
@@ -25,6 +23,8 @@ import com.katzstudio.kreativity.ui.event.listener.KrMouseListener;
 import com.katzstudio.kreativity.ui.icon.KrIcon;
 import com.katzstudio.kreativity.ui.layout.KrAbsoluteLayout;
 import com.katzstudio.kreativity.ui.layout.KrLayout;
+import com.katzstudio.kreativity.ui.render.KrDrawListRenderer;
+import com.katzstudio.kreativity.ui.render.KrRecordingRenderer;
 import com.katzstudio.kreativity.ui.render.KrRenderer;
 import com.katzstudio.kreativity.ui.style.KrWidgetStyle;
 import com.katzstudio.kreativity.ui.util.KrUpdateListener;
@@ -33,8 +33,9 @@ import lombok.Setter;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import static com.katzstudio.kreativity.ui.KrRectangles.rectangles;
 import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
 
 /**
@@ -45,6 +46,14 @@ public class KrWidget implements KrUpdateListener {
 
     public static final String FOCUS_PROPERTY = "property.focus";
 
+    private static final int SPATIAL_INDEX_THRESHOLD = 32;
+
+    /**
+     * The number of widgets rendering their layer. While a layer is rendered, the draw opacities of its
+     * descendants exclude the ancestors of the layer, so they are not cached.
+     */
+    private static final AtomicInteger renderingLayerCount = new AtomicInteger();
+
     @Getter private float x;
 
     @Getter private float y;
@@ -55,15 +64,25 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter private final ArrayList<KrWidget> children = new ArrayList<>();
 
+    /**
+     * The position of this widget in the children of its parent, which is also its z-order.
+     */
+    private int childIndex;
+
+    /**
+     * Spatial index of the children, created once the widget has more than {@code SPATIAL_INDEX_THRESHOLD} children.
+     */
+    private KrSpatialIndex spatialIndex;
+
     @Getter private KrWidget parent;
 
-    @Getter @Setter private KrLayout layout = new KrAbsoluteLayout();
+    @Getter private KrLayout layout = new KrAbsoluteLayout();
 
     private Vector2 userPreferredSize;
 
     @Getter private boolean isFocused;
 
-    @Getter @Setter private boolean isVisible = true;
+    @Getter private boolean isVisible = true;
 
     @Getter @Setter private boolean isEnabled = true;
 
@@ -73,7 +92,7 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter @Setter private String name;
 
-    @Setter private KrCanvas canvas;
+    private KrCanvas canvas;
 
     private final List<KrKeyboardListener> keyboardListeners = new ArrayList<>();
 
@@ -83,11 +102,26 @@ public class KrWidget implements KrUpdateListener {
 
     private final List<KrWidgetListener> widgetListeners = new ArrayList<>();
 
-    @Setter private Vector2 minSize;
+    private Vector2 minSize;
+
+    private Vector2 maxSize;
+
+    private Vector2 preferredSize;
+
+    /**
+     * The measured sizes, valid until the widget is invalidated.
+     */
+    private final Vector2 measuredMinSize = new Vector2();
+
+    private final Vector2 measuredMaxSize = new Vector2();
+
+    private final Vector2 measuredPreferredSize = new Vector2();
+
+    private boolean isMinSizeMeasured;
 
-    @Setter private Vector2 maxSize;
+    private boolean isMaxSizeMeasured;
 
-    @Setter private Vector2 preferredSize;
+    private boolean isPreferredSizeMeasured;
 
     @Getter @Setter private boolean clipRendering = true;
 
@@ -99,10 +133,42 @@ public class KrWidget implements KrUpdateListener {
 
     @Getter @Setter protected KrWidget tooltipWidget;
 
-    @Getter @Setter private float opacity = 1;
+    @Getter private float opacity = 1;
+
+    @Getter private boolean drawCacheEnabled;
+
+    private KrRecordingRenderer drawCache;
+
+    private boolean isDrawCacheValid;
+
+    @Getter private boolean cacheAsLayer;
+
+    private boolean isLayerValid;
+
+    private boolean isRenderingLayer;
+
+    /**
+     * Whether the cached screen position and draw opacity are up to date. A widget that moves, changes its
+     * opacity or its parent discards the caches of its subtree. A valid cache implies valid caches on all
+     * the ancestors, so the discarding stops at descendants that are already invalid.
+     */
+    private boolean isHierarchyCacheValid;
+
+    private float cachedScreenX;
+
+    private float cachedScreenY;
+
+    private float cachedDrawOpacity;
+
+    /**
+     * Records the draw calls of the children in parallel, if set.
+     */
+    @Getter @Setter private KrParallelDrawer parallelDrawer;
 
     protected Rectangle tmpRect = new Rectangle();
 
+    private final Rectangle clipBounds = new Rectangle();
+
     protected final KrMeasuredString text = new KrMeasuredString("");
 
     /**
@@ -147,7 +213,9 @@ public class KrWidget implements KrUpdateListener {
      * Sets the widget style.
      */
     public void setStyle(KrWidgetStyle style) {
+        boolean changed = this.style != style;
         this.style = style;
+        invalidateIf(changed);
     }
 
     /**
@@ -161,8 +229,10 @@ public class KrWidget implements KrUpdateListener {
      * Sets the default style of the widget.
      */
     public void setDefaultStyle(KrWidgetStyle style) {
+        boolean changed = this.defaultStyle != style;
         this.defaultStyle = style;
         this.style = null;
+        invalidateIf(changed);
     }
 
     /**
@@ -173,6 +243,7 @@ public class KrWidget implements KrUpdateListener {
      */
     private void setParent(KrWidget parent) {
         this.parent = parent;
+        invalidateHierarchyCache();
     }
 
     /**
@@ -193,7 +264,7 @@ public class KrWidget implements KrUpdateListener {
      * Returns the background used when rendering this widget.
      */
     public Drawable getBackground() {
-        return style.background;
+        return getStyle().background;
     }
 
     /**
@@ -202,6 +273,7 @@ public class KrWidget implements KrUpdateListener {
     public void setBackground(Drawable background) {
         ensureUniqueStyle();
         style.background = background;
+        repaint();
     }
 
     /**
@@ -215,7 +287,7 @@ public class KrWidget implements KrUpdateListener {
      * Gets the foreground color used for rendering the widget text.
      */
     public Color getForeground() {
-        return style.foregroundColor;
+        return getStyle().foregroundColor;
     }
 
     /**
@@ -224,6 +296,7 @@ public class KrWidget implements KrUpdateListener {
     public void setForeground(Color foreground) {
         ensureUniqueStyle();
         style.foregroundColor = foreground;
+        repaint();
     }
 
     /**
@@ -243,6 +316,7 @@ public class KrWidget implements KrUpdateListener {
     public void setPadding(KrPadding padding) {
         ensureUniqueStyle();
         style.padding = padding;
+        invalidate();
     }
 
     /**
@@ -250,7 +324,7 @@ public class KrWidget implements KrUpdateListener {
      * the widget's cursor will be used to represent the mouse pointer.
      */
     public KrCursor getCursor() {
-        return style.cursor;
+        return getStyle().cursor;
     }
 
     /**
@@ -265,7 +339,7 @@ public class KrWidget implements KrUpdateListener {
      * Returns the widget's icon.
      */
     public KrIcon getIcon() {
-        return style.icon;
+        return getStyle().icon;
     }
 
     /**
@@ -274,13 +348,14 @@ public class KrWidget implements KrUpdateListener {
     public void setIcon(KrIcon icon) {
         ensureUniqueStyle();
         style.icon = icon;
+        invalidate();
     }
 
     /**
      * Returns the font used to render the text of the widget.
      */
     public BitmapFont getFont() {
-        return style.font;
+        return getStyle().font;
     }
 
     /**
@@ -288,8 +363,10 @@ public class KrWidget implements KrUpdateListener {
      */
     public void setFont(BitmapFont font) {
         ensureUniqueStyle();
+        boolean changed = style.font != font;
         style.font = font;
         text.setFont(font);
+        invalidateIf(changed);
     }
 
     /**
@@ -297,7 +374,9 @@ public class KrWidget implements KrUpdateListener {
      * as labels, buttons, checkboxes, etc. to display the meaning of the widget.
      */
     public void setText(String text) {
+        boolean changed = !this.text.getString().equals(text);
         this.text.setString(text);
+        invalidateIf(changed);
     }
 
     /**
@@ -332,11 +411,21 @@ public class KrWidget implements KrUpdateListener {
         }
         //noinspection unchecked
         children.add(child);
+        child.childIndex = children.size() - 1;
         child.setParent(this);
         child.setCanvas(this.canvas);
 
         layout.addWidget(child, layoutConstraint);
 
+        if (spatialIndex != null) {
+            spatialIndex.add(child);
+        } else if (children.size() > SPATIAL_INDEX_THRESHOLD) {
+            spatialIndex = new KrSpatialIndex();
+            for (int i = 0; i < children.size(); ++i) {
+                spatialIndex.add(children.get(i));
+            }
+        }
+
         invalidate();
     }
 
@@ -346,12 +435,21 @@ public class KrWidget implements KrUpdateListener {
      * @param child the child to be removed
      */
     public void remove(KrWidget child) {
+        child.repaint();
 
         layout.removeWidget(child);
 
-        child.setCanvas(null);
+        // the child may not have cached its canvas yet, so its subtree is detached explicitly
+        child.canvas = null;
+        child.detachFromCanvas();
         child.setParent(null);
         children.remove(child);
+        for (int i = child.childIndex; i < children.size(); ++i) {
+            children.get(i).childIndex = i;
+        }
+        if (spatialIndex != null) {
+            spatialIndex.remove(child);
+        }
 
         if (child.isFocused) {
             getCanvas().clearFocus();
@@ -378,9 +476,16 @@ public class KrWidget implements KrUpdateListener {
      */
     public void setPosition(float x, float y) {
         if (this.x != x || this.y != y) {
+            // moving doesn't change the content of the widget's own layer
+            boolean layerValid = isLayerValid;
+            repaint();
             this.x = x;
             this.y = y;
-            invalidate();
+            invalidateHierarchyCache();
+            updateSpatialIndex();
+            invalidateLayout(false);
+            repaint();
+            isLayerValid = layerValid;
         }
     }
 
@@ -412,7 +517,6 @@ public class KrWidget implements KrUpdateListener {
     public void setSize(float w, float h) {
         if (this.width != w || this.height != h) {
             setGeometry(x, y, w, h);
-            invalidate();
         }
     }
 
@@ -448,11 +552,49 @@ public class KrWidget implements KrUpdateListener {
             return;
         }
 
+        repaint();
+        if (this.x != x || this.y != y) {
+            invalidateHierarchyCache();
+        }
         this.x = x;
         this.y = y;
         this.width = width;
         this.height = height;
-        invalidate();
+        updateSpatialIndex();
+        invalidateLayout(false);
+        repaint();
+    }
+
+    private void updateSpatialIndex() {
+        if (parent != null && parent.spatialIndex != null) {
+            parent.spatialIndex.update(this);
+        }
+    }
+
+    /**
+     * Returns the topmost visible child containing the given point, or {@code null} if there is none.
+     * <p>
+     * Widgets with many children keep them in a spatial index, so the lookup doesn't test every child.
+     *
+     * @param x the X coordinate, in the space of this widget
+     * @param y the Y coordinate, in the space of this widget
+     */
+    public KrWidget findChildAt(float x, float y) {
+        if (spatialIndex != null) {
+            return spatialIndex.find(x, y);
+        }
+
+        for (int i = children.size() - 1; i >= 0; --i) {
+            KrWidget child = children.get(i);
+            if (child.isVisible() && KrSpatialIndex.contains(child, x, y)) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    int getChildIndex() {
+        return childIndex;
     }
 
     /**
@@ -464,32 +606,188 @@ public class KrWidget implements KrUpdateListener {
         }
 
         KrPadding padding = getPadding();
-        Rectangle geometry = new Rectangle(0, 0, getWidth(), getHeight());
-        Rectangle layoutRectangle = rectangles(geometry).shrink(padding).value();
-        layout.setGeometry(layoutRectangle);
+        float layoutX = 0;
+        float layoutY = 0;
+        float layoutWidth = getWidth();
+        float layoutHeight = getHeight();
+        if (padding != null) {
+            layoutX = padding.left;
+            layoutY = padding.top;
+            layoutWidth -= padding.getHorizontalPadding();
+            layoutHeight -= padding.getVerticalPadding();
+        }
+        if (layoutWidth == 0 || layoutHeight == 0) {
+            layoutWidth = 0;
+            layoutHeight = 0;
+        }
+
+        layout.setGeometry(layoutX, layoutY, layoutWidth, layoutHeight);
         isValid = true;
-        Pools.free(layoutRectangle);
     }
 
     /**
      * Invalidating a widget requires the widget to be validated as soon as possible.
-     * This is usually done by children when changing sizes to request the parent to re layout itself
+     * This is usually done by children when changing sizes to request the parent to re layout itself.
+     * <p>
+     * The measured sizes of the widget and of its ancestors are discarded, so call this method whenever
+     * something the preferred, minimum or maximum size depends on changes.
      */
     public void invalidate() {
-        isValid = false;
-        notifyWidgetInvalidated();
-        invalidateParent();
+        repaint();
+        invalidateLayout(true);
+    }
+
+    private void invalidateIf(boolean changed) {
+        if (changed) {
+            invalidate();
+        } else {
+            repaint();
+        }
     }
 
     /**
-     * Calls {@code invalidate()} on the parent widget, if any.
+     * Marks this widget and its ancestors as requiring a new layout. Unlike {@code invalidate},
+     * the ancestors are not repainted: they only need to be redrawn if the layout moves
+     * their children, which repaint themselves.
+     * <p>
+     * The walk stops at the first ancestor that is already invalid, as it is already waiting for the layout pass,
+     * unless the measured sizes are discarded and that ancestor measured itself since. Reaching the root schedules
+     * it on the {@link KrLayoutScheduler} of its canvas.
+     * <p>
+     * Moving or resizing a widget doesn't change its measured sizes, so geometry changes keep them.
+     */
+    private void invalidateLayout(boolean discardMeasuredSizes) {
+        KrWidget widget = this;
+        while (true) {
+            boolean wasValid = widget.isValid;
+            widget.isValid = false;
+            widget.isDrawCacheValid = false;
+            widget.isLayerValid = false;
+            if (discardMeasuredSizes) {
+                widget.isMinSizeMeasured = false;
+                widget.isMaxSizeMeasured = false;
+                widget.isPreferredSizeMeasured = false;
+            }
+            if (wasValid) {
+                widget.notifyWidgetInvalidated();
+            }
+
+            if (widget.parent == null) {
+                if (widget.canvas != null) {
+                    widget.canvas.getLayoutScheduler().schedule(widget);
+                }
+                return;
+            }
+
+            KrWidget parent = widget.parent;
+            if (!parent.isValid && !(discardMeasuredSizes && parent.hasMeasuredSizes())) {
+                return;
+            }
+            widget = parent;
+        }
+    }
+
+    private boolean hasMeasuredSizes() {
+        return isMinSizeMeasured || isMaxSizeMeasured || isPreferredSizeMeasured;
+    }
+
+    /**
+     * Requests this widget to be redrawn. The widget's draw cache is discarded and the
+     * screen area covered by the widget is marked as dirty on the canvas.
+     * <p>
+     * Widgets call this method when something that affects their rendering changes.
      */
-    private void invalidateParent() {
-        if (parent != null) {
-            parent.invalidate();
+    public void repaint() {
+        invalidateDrawCache();
+        invalidateLayers();
+        KrCanvas canvas = getCanvas();
+        if (canvas != null) {
+            canvas.markDirty(this);
+        }
+    }
+
+    /**
+     * Discards the layers of this widget and of its ancestors, as they all contain this widget.
+     */
+    private void invalidateLayers() {
+        for (KrWidget widget = this; widget != null; widget = widget.parent) {
+            widget.isLayerValid = false;
+        }
+    }
+
+    /**
+     * Shows or hides this widget.
+     */
+    public void setVisible(boolean visible) {
+        if (this.isVisible != visible) {
+            this.isVisible = visible;
+            repaint();
+        }
+    }
+
+    /**
+     * Sets the opacity of this widget. The opacity of the widget is multiplied with
+     * the opacity of its parents when rendering.
+     */
+    public void setOpacity(float opacity) {
+        if (this.opacity != opacity) {
+            // the widget's own layer is drawn with the current opacity, so it remains valid
+            boolean layerValid = isLayerValid;
+            this.opacity = opacity;
+            invalidateHierarchyCache();
+            repaint();
+            isLayerValid = layerValid;
         }
     }
 
+    /**
+     * Enables or disables the draw cache of this widget.
+     * <p>
+     * When enabled, the draw calls of {@code drawSelf} are recorded once, then replayed each
+     * frame until the widget is invalidated or its style, text or opacity change. Only enable
+     * the cache for widgets whose rendering depends solely on these properties, or make sure
+     * {@code repaint} is called whenever something else affecting the rendering changes.
+     *
+     * @param drawCacheEnabled whether or not the draw calls of this widget are cached
+     */
+    public void setDrawCacheEnabled(boolean drawCacheEnabled) {
+        this.drawCacheEnabled = drawCacheEnabled;
+        if (drawCacheEnabled && drawCache == null) {
+            drawCache = new KrRecordingRenderer();
+        }
+        if (!drawCacheEnabled) {
+            drawCache = null;
+        }
+        invalidateDrawCache();
+    }
+
+    /**
+     * Enables or disables caching this widget and its children as a layer.
+     * <p>
+     * When enabled, the widget subtree is rendered once into an offscreen texture, which is then
+     * drawn each frame with the current position and opacity of the widget. The texture is rendered
+     * again when the widget or any of its descendants is repainted. If the renderer doesn't support
+     * layers, or the layer doesn't fit its memory budget, the widget is drawn normally.
+     *
+     * @param cacheAsLayer whether or not this widget is rendered through a layer
+     */
+    public void setCacheAsLayer(boolean cacheAsLayer) {
+        if (this.cacheAsLayer && !cacheAsLayer) {
+            getDefaultToolkit().getRenderer().releaseLayer(this);
+        }
+        this.cacheAsLayer = cacheAsLayer;
+        isLayerValid = false;
+        repaint();
+    }
+
+    /**
+     * Discards the recorded draw calls of this widget, if any. The widget
+     * records them again the next time it is drawn.
+     */
+    public void invalidateDrawCache() {
+        isDrawCacheValid = false;
+    }
+
     /**
      * Returns the opacity used when rendering this widget.
      * This opacity takes into consideration the opacity of the
@@ -498,7 +796,48 @@ public class KrWidget implements KrUpdateListener {
      * @return the drawing opacity
      */
     public float getDrawOpacity() {
-        return (parent != null ? parent.getDrawOpacity() : 1) * opacity;
+        if (isRenderingLayer) {
+            // the layer opacity is applied when the layer is drawn
+            return 1;
+        }
+        if (renderingLayerCount.get() > 0) {
+            return (parent != null ? parent.getDrawOpacity() : 1) * opacity;
+        }
+        updateHierarchyCache();
+        return cachedDrawOpacity;
+    }
+
+    /**
+     * Computes the screen position and draw opacity of this widget from the ones of its parent, if
+     * the widget or one of its ancestors moved or changed its opacity since they were cached.
+     */
+    void updateHierarchyCache() {
+        if (isHierarchyCacheValid) {
+            return;
+        }
+
+        if (parent != null) {
+            parent.updateHierarchyCache();
+            cachedScreenX = parent.cachedScreenX + x;
+            cachedScreenY = parent.cachedScreenY + y;
+            cachedDrawOpacity = parent.cachedDrawOpacity * opacity;
+        } else {
+            cachedScreenX = x;
+            cachedScreenY = y;
+            cachedDrawOpacity = opacity;
+        }
+        isHierarchyCacheValid = true;
+    }
+
+    private void invalidateHierarchyCache() {
+        if (!isHierarchyCacheValid) {
+            return;
+        }
+
+        isHierarchyCacheValid = false;
+        for (int i = 0; i < children.size(); ++i) {
+            children.get(i).invalidateHierarchyCache();
+        }
     }
 
     @Override
@@ -529,8 +868,9 @@ public class KrWidget implements KrUpdateListener {
         }
         float oldOpacity = renderer.setOpacity(getDrawOpacity());
 
-        drawSelf(renderer);
-        drawChildren(renderer);
+        if (!cacheAsLayer || !drawLayer(renderer)) {
+            drawContent(renderer);
+        }
 
         renderer.setOpacity(oldOpacity);
         renderer.translate(-getX(), -getY());
@@ -539,6 +879,64 @@ public class KrWidget implements KrUpdateListener {
         }
     }
 
+    /**
+     * Draws this widget and its children. The renderer state changed by {@code drawSelf} is restored before
+     * drawing the children, so widgets don't need to restore the pen, brush, font or opacity they set.
+     */
+    private void drawContent(KrRenderer renderer) {
+        renderer.pushState();
+        if (drawCacheEnabled) {
+            drawSelfCached(renderer);
+        } else {
+            drawSelf(renderer);
+        }
+        renderer.popState();
+        drawChildren(renderer);
+    }
+
+    /**
+     * Draws the layer of this widget, rendering the widget and its children into the layer first
+     * if the layer was invalidated. Returns false if the renderer can't provide the layer.
+     */
+    private boolean drawLayer(KrRenderer renderer) {
+        if (!isLayerValid) {
+            if (!renderer.beginLayer(this, getWidth(), getHeight())) {
+                return false;
+            }
+            isRenderingLayer = true;
+            renderingLayerCount.incrementAndGet();
+            float opacity = renderer.setOpacity(1);
+            drawContent(renderer);
+            renderer.setOpacity(opacity);
+            renderingLayerCount.decrementAndGet();
+            isRenderingLayer = false;
+            renderer.endLayer();
+            isLayerValid = true;
+        }
+
+        if (renderer.drawLayer(this, 0, 0)) {
+            return true;
+        }
+
+        isLayerValid = false;
+        return false;
+    }
+
+    /**
+     * Replays the recorded draw calls of this widget, or records them if the cache was invalidated.
+     */
+    private void drawSelfCached(KrRenderer renderer) {
+        if (isDrawCacheValid) {
+            drawCache.getCommands().replay(renderer);
+            return;
+        }
+
+        drawCache.begin(renderer);
+        drawSelf(drawCache);
+        drawCache.end();
+        isDrawCacheValid = true;
+    }
+
     /**
      * Draws only this widget. The default implementation fills the background
      * with the background drawable of the style. Override this method to
@@ -552,15 +950,44 @@ public class KrWidget implements KrUpdateListener {
     }
 
     /**
-     * Draws the children widgets.
+     * Draws the children widgets. Children that lie completely outside the active clip are skipped.
+     * If a parallel drawer is set, it records the children in parallel and submits them in order.
      */
     @SuppressWarnings("ForLoopReplaceableByForEach")
     private void drawChildren(KrRenderer renderer) {
+        boolean isClipped = renderer.getClipBounds(clipBounds);
+
+        // draw lists are recorded by a single thread, so they don't record their children in parallel
+        if (parallelDrawer != null && !(renderer instanceof KrDrawListRenderer)) {
+            parallelDrawer.draw(renderer, children, isClipped, clipBounds);
+            return;
+        }
+
         for (int i = 0; i < children.size(); ++i) {
-            children.get(i).draw(renderer);
+            KrWidget child = children.get(i);
+            if (isClipped && !child.intersects(clipBounds)) {
+                continue;
+            }
+            child.draw(renderer);
         }
     }
 
+    /**
+     * Returns true if the geometry of this widget intersects the rectangle, given in parent space.
+     */
+    boolean intersects(Rectangle rectangle) {
+        return x < rectangle.x + rectangle.width && rectangle.x < x + width
+                && y < rectangle.y + rectangle.height && rectangle.y < y + height;
+    }
+
+    /**
+     * Sets the layout used to position the children of this widget.
+     */
+    public void setLayout(KrLayout layout) {
+        this.layout = layout;
+        invalidate();
+    }
+
     /**
      * Calculates a size preferred by this widget. This size is enough to hold all
      * the content of the widget, including padding.
@@ -572,7 +999,16 @@ public class KrWidget implements KrUpdateListener {
      * @return the preferred size of this widget, ignoring any children.
      */
     public Vector2 calculatePreferredSize() {
-        return KrRectangles.rectangles(layout.getPreferredSize()).expand(getPadding()).size();
+        return expandByPadding(layout.getPreferredSize(new Vector2()));
+    }
+
+    private Vector2 expandByPadding(Vector2 size) {
+        KrPadding padding = getPadding();
+        if (padding != null) {
+            size.x += padding.getHorizontalPadding();
+            size.y += padding.getVerticalPadding();
+        }
+        return size;
     }
 
     /**
@@ -583,32 +1019,61 @@ public class KrWidget implements KrUpdateListener {
     }
 
     /**
-     * Returns the maximum size of this widget.
+     * Returns the maximum size of this widget. The size is measured once, then cached until the widget is
+     * invalidated. Use {@code getMaxSize(Vector2)} to avoid allocating the returned vector.
      */
     public Vector2 getMaxSize() {
-        if (isMaxSizeSet()) {
-            return maxSize;
-        }
+        return getMaxSize(new Vector2());
+    }
 
-        if (!(layout instanceof KrAbsoluteLayout)) {
-            return layout.getMaxSize();
+    /**
+     * Stores the maximum size of this widget in {@code size}, then returns it.
+     */
+    public Vector2 getMaxSize(Vector2 size) {
+        ensureMaxSizeMeasured();
+        return size.set(measuredMaxSize);
+    }
+
+    private void ensureMaxSizeMeasured() {
+        if (isMaxSizeMeasured) {
+            return;
         }
 
-        return new Vector2(Float.MAX_VALUE, Float.MAX_VALUE);
+        if (isMaxSizeSet()) {
+            measuredMaxSize.set(maxSize);
+        } else if (!(layout instanceof KrAbsoluteLayout)) {
+            layout.getMaxSize(measuredMaxSize);
+        } else {
+            measuredMaxSize.set(Float.MAX_VALUE, Float.MAX_VALUE);
+        }
+        isMaxSizeMeasured = true;
     }
 
     /**
      * Returns the maximum width of this widget.
      */
     public float getMaxWidth() {
-        return getMaxSize().x;
+        ensureMaxSizeMeasured();
+        return measuredMaxSize.x;
     }
 
     /**
      * Returns the maximum height of this widget.
      */
     public float getMaxHeight() {
-        return getMaxSize().y;
+        ensureMaxSizeMeasured();
+        return measuredMaxSize.y;
+    }
+
+    /**
+     * Sets the maximum size of this widget, or {@code null} to let the layout decide.
+     */
+    public void setMaxSize(Vector2 maxSize) {
+        boolean changed = !Objects.equals(this.maxSize, maxSize);
+        this.maxSize = maxSize;
+        if (changed) {
+            invalidate();
+        }
     }
 
     /**
@@ -639,32 +1104,61 @@ public class KrWidget implements KrUpdateListener {
     }
 
     /**
-     * Returns the minimum size of the widget.
+     * Returns the minimum size of the widget. The size is measured once, then cached until the widget is
+     * invalidated. Use {@code getMinSize(Vector2)} to avoid allocating the returned vector.
      */
     public Vector2 getMinSize() {
-        if (isMinSizeSet()) {
-            return minSize;
-        }
+        return getMinSize(new Vector2());
+    }
 
-        if (!(layout instanceof KrAbsoluteLayout)) {
-            return layout.getMinSize();
+    /**
+     * Stores the minimum size of this widget in {@code size}, then returns it.
+     */
+    public Vector2 getMinSize(Vector2 size) {
+        ensureMinSizeMeasured();
+        return size.set(measuredMinSize);
+    }
+
+    private void ensureMinSizeMeasured() {
+        if (isMinSizeMeasured) {
+            return;
         }
 
-        return calculatePreferredSize();
+        if (isMinSizeSet()) {
+            measuredMinSize.set(minSize);
+        } else if (!(layout instanceof KrAbsoluteLayout)) {
+            layout.getMinSize(measuredMinSize);
+        } else {
+            measuredMinSize.set(calculatePreferredSize());
+        }
+        isMinSizeMeasured = true;
     }
 
     /**
      * Returns the minimum width of the widget.
      */
     public float getMinWidth() {
-        return getMinSize().x;
+        ensureMinSizeMeasured();
+        return measuredMinSize.x;
     }
 
     /**
      * Returns the minimum height of the widget.
      */
     public float getMinHeight() {
-        return getMinSize().y;
+        ensureMinSizeMeasured();
+        return measuredMinSize.y;
+    }
+
+    /**
+     * Sets the minimum size of this widget, or {@code null} to let the layout decide.
+     */
+    public void setMinSize(Vector2 minSize) {
+        boolean changed = !Objects.equals(this.minSize, minSize);
+        this.minSize = minSize;
+        if (changed) {
+            invalidate();
+        }
     }
 
     /**
@@ -695,40 +1189,70 @@ public class KrWidget implements KrUpdateListener {
     }
 
     /**
-     * Returns the preferred size of the widget.
+     * Returns the preferred size of the widget. The size is measured once, then cached until the widget is
+     * invalidated. Use {@code getPreferredSize(Vector2)} to avoid allocating the returned vector.
      */
     public Vector2 getPreferredSize() {
-        if (isPreferredSizeSet()) {
-            return preferredSize;
-        }
+        return getPreferredSize(new Vector2());
+    }
+
+    /**
+     * Stores the preferred size of this widget in {@code size}, then returns it.
+     */
+    public Vector2 getPreferredSize(Vector2 size) {
+        ensurePreferredSizeMeasured();
+        return size.set(measuredPreferredSize);
+    }
 
-        if (!(layout instanceof KrAbsoluteLayout)) {
-            return rectangles(layout.getPreferredSize()).expand(getPadding()).size();
+    private void ensurePreferredSizeMeasured() {
+        if (isPreferredSizeMeasured) {
+            return;
         }
 
-        return calculatePreferredSize();
+        if (isPreferredSizeSet()) {
+            measuredPreferredSize.set(preferredSize);
+        } else if (!(layout instanceof KrAbsoluteLayout)) {
+            expandByPadding(layout.getPreferredSize(measuredPreferredSize));
+        } else {
+            measuredPreferredSize.set(calculatePreferredSize());
+        }
+        isPreferredSizeMeasured = true;
     }
 
     /**
      * Returns the preferred width of the widget.
      */
     public float getPreferredWidth() {
-        return getPreferredSize().x;
+        ensurePreferredSizeMeasured();
+        return measuredPreferredSize.x;
     }
 
     /**
      * Returns the preferred height of the widget.
      */
     public float getPreferredHeight() {
-        return getPreferredSize().y;
+        ensurePreferredSizeMeasured();
+        return measuredPreferredSize.y;
+    }
+
+    /**
+     * Sets the preferred size of this widget, or {@code null} to compute it from the content of the widget.
+     */
+    public void setPreferredSize(Vector2 preferredSize) {
+        boolean changed = !Objects.equals(this.preferredSize, preferredSize);
+        this.preferredSize = preferredSize;
+        if (changed) {
+            invalidate();
+        }
     }
 
     public void setPreferredSize(float preferredWidth, float preferredHeight) {
         if (preferredSize == null) {
-            preferredSize = new Vector2(preferredWidth, preferredHeight);
-        } else {
+            setPreferredSize(new Vector2(preferredWidth, preferredHeight));
+        } else if (preferredSize.x != preferredWidth || preferredSize.y != preferredHeight) {
             preferredSize.x = preferredWidth;
             preferredSize.y = preferredHeight;
+            invalidate();
         }
     }
 
@@ -756,14 +1280,31 @@ public class KrWidget implements KrUpdateListener {
      * Returns the geometry of this widget in screen space.
      */
     public Rectangle getScreenGeometry() {
-        float offsetX = 0;
-        float offsetY = 0;
-        if (parent != null) {
-            Rectangle parentGeometry = parent.getScreenGeometry();
-            offsetX = parentGeometry.x;
-            offsetY = parentGeometry.y;
-        }
-        return new Rectangle(offsetX + getX(), offsetY + getY(), getWidth(), getHeight());
+        return getScreenGeometry(new Rectangle());
+    }
+
+    /**
+     * Stores the geometry of this widget in screen space in {@code geometry}, then returns it.
+     */
+    public Rectangle getScreenGeometry(Rectangle geometry) {
+        updateHierarchyCache();
+        return geometry.set(cachedScreenX, cachedScreenY, getWidth(), getHeight());
+    }
+
+    /**
+     * Returns the X coordinate of this widget in screen space.
+     */
+    public float getScreenX() {
+        updateHierarchyCache();
+        return cachedScreenX;
+    }
+
+    /**
+     * Returns the Y coordinate of this widget in screen space.
+     */
+    public float getScreenY() {
+        updateHierarchyCache();
+        return cachedScreenY;
     }
 
     /**
@@ -789,6 +1330,31 @@ public class KrWidget implements KrUpdateListener {
         return new Vector2(getWidth(), getHeight());
     }
 
+    /**
+     * Sets the canvas that hosts this widget. When the widget leaves its canvas, the canvas cached by its
+     * descendants is discarded and the layers of the subtree are released.
+     */
+    public void setCanvas(KrCanvas canvas) {
+        KrCanvas previousCanvas = this.canvas;
+        this.canvas = canvas;
+        if (previousCanvas != null && canvas == null) {
+            detachFromCanvas();
+        }
+    }
+
+    private void detachFromCanvas() {
+        for (int i = 0; i < children.size(); ++i) {
+            KrWidget child = children.get(i);
+            child.canvas = null;
+            child.detachFromCanvas();
+        }
+
+        if (cacheAsLayer) {
+            getDefaultToolkit().getRenderer().releaseLayer(this);
+            isLayerValid = false;
+        }
+    }
+
     /**
      * Returns the canvas that hosts this object. Returns {@code null} if this
      * object does not belong to the canvas.
@@ -1087,10 +1653,27 @@ public class KrWidget implements KrUpdateListener {
      * @return the position translated to local space
      */
     public Vector2 screenToLocal(float screenX, float screenY) {
-        Rectangle screenGeometry = KrCanvas.getScreenGeometry(this);
-        float localX = screenGeometry.x;
-        float localY = screenGeometry.y;
-        return new Vector2(screenX - localX, screenY - localY);
+        return screenToLocal(screenX, screenY, new Vector2());
+    }
+
+    /**
+     * Converts a point from screen space to local space, storing it in {@code localPosition}.
+     *
+     * @return the position translated to local space
+     */
+    public Vector2 screenToLocal(float screenX, float screenY, Vector2 localPosition) {
+        updateHierarchyCache();
+        return localPosition.set(screenX - cachedScreenX, screenY - cachedScreenY);
+    }
+
+    /**
+     * Converts a point from local space to screen space, storing it in {@code screenPosition}.
+     *
+     * @return the position translated to screen space
+     */
+    public Vector2 localToScreen(float localX, float localY, Vector2 screenPosition) {
+        updateHierarchyCache();
+        return screenPosition.set(cachedScreenX + localX, cachedScreenY + localY);
     }
 
     @Override
@@ -1106,47 +1689,69 @@ public class KrWidget implements KrUpdateListener {
     }
 
     protected void notifyKeyPressed(KrKeyEvent event) {
-        keyboardListeners.forEach(l -> l.keyPressed(event));
+        for (int i = 0; i < keyboardListeners.size(); ++i) {
+            keyboardListeners.get(i).keyPressed(event);
+        }
     }
 
     protected void notifyKeyReleased(KrKeyEvent event) {
-        keyboardListeners.forEach(l -> l.keyReleased(event));
+        for (int i = 0; i < keyboardListeners.size(); ++i) {
+            keyboardListeners.get(i).keyReleased(event);
+        }
     }
 
     protected void notifyMouseScrolled(KrScrollEvent event) {
-        mouseListeners.forEach(l -> l.scrolled(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).scrolled(event);
+        }
     }
 
     protected void notifyMouseMoved(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mouseMoved(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mouseMoved(event);
+        }
     }
 
     protected void notifyMousePressed(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mousePressed(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mousePressed(event);
+        }
     }
 
     protected void notifyMouseDoubleClicked(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mouseDoubleClicked(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mouseDoubleClicked(event);
+        }
     }
 
     protected void notifyMouseReleased(KrMouseEvent event) {
-        mouseListeners.forEach(l -> l.mouseReleased(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).mouseReleased(event);
+        }
     }
 
     protected void notifyMouseEnter(KrEnterEvent event) {
-        mouseListeners.forEach(l -> l.enter(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).enter(event);
+        }
     }
 
     protected void notifyMouseExit(KrExitEvent event) {
-        mouseListeners.forEach(l -> l.exit(event));
+        for (int i = 0; i < mouseListeners.size(); ++i) {
+            mouseListeners.get(i).exit(event);
+        }
     }
 
     protected void notifyFocusGained(KrFocusEvent event) {
-        focusListeners.forEach(l -> l.focusGained(event));
+        for (int i = 0; i < focusListeners.size(); ++i) {
+            focusListeners.get(i).focusGained(event);
+        }
     }
 
     protected void notifyFocusLost(KrFocusEvent event) {
-        focusListeners.forEach(l -> l.focusLost(event));
+        for (int i = 0; i < focusListeners.size(); ++i) {
+            focusListeners.get(i).focusLost(event);
+        }
     }
 
     protected void notifyWidgetPropertyChanged(String propertyName, Object oldValue, Object newValue) {
@@ -1,8 +1,19 @@
 package com.katzstudio.kreativity.ui.event;
 
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+
 /**
  * The {@link KrEnterEvent} describes an enter event. Such an event happens when the mouse enters the
  * bounding area of a widget
  */
 public class KrEnterEvent extends KrEvent {
+    private static final Pool<KrEnterEvent> pool = Pools.get(KrEnterEvent.class);
+
+    /**
+     * Obtains a pooled enter event. The event must be released once dispatched.
+     */
+    public static KrEnterEvent obtain() {
+        return obtain(pool);
+    }
 }
@@ -1,16 +1,26 @@
 package com.katzstudio.kreativity.ui.event;
 
+import com.badlogic.gdx.utils.Pool;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 /**
  * Base class for all event objects.
+ * <p>
+ * The input events created by the input sources and the canvas are pooled: they are reset and reused once
+ * dispatched. Listeners that need to keep an event past its dispatch must {@code retain} it, and {@code release}
+ * it once they're done. Events created with their constructors are not pooled, so retaining or releasing them
+ * has no effect.
  */
-@ToString
-@EqualsAndHashCode
-public class KrEvent {
+@ToString(exclude = {"referenceCount", "pool"})
+@EqualsAndHashCode(exclude = {"referenceCount", "pool"})
+public class KrEvent implements Pool.Poolable {
     private boolean isHandled = false;
 
+    private int referenceCount;
+
+    private Pool<KrEvent> pool;
+
     public void accept() {
         isHandled = true;
     }
@@ -22,4 +32,49 @@ public class KrEvent {
     public boolean handled() {
         return isHandled;
     }
+
+    /**
+     * Keeps this event from being reused after its dispatch, until {@code release} is called.
+     */
+    public void retain() {
+        referenceCount += 1;
+    }
+
+    /**
+     * Releases this event. A pooled event returns to its pool once it was released as many times as it was
+     * obtained and retained.
+     */
+    public void release() {
+        referenceCount -= 1;
+        if (referenceCount <= 0 && pool != null) {
+            Pool<KrEvent> eventPool = pool;
+            pool = null;
+            eventPool.free(this);
+        }
+    }
+
+    /**
+     * Returns true if this event belongs to a pool and was not released yet.
+     */
+    public boolean isPooled() {
+        return pool != null;
+    }
+
+    @Override
+    public void reset() {
+        isHandled = false;
+        referenceCount = 0;
+    }
+
+    /**
+     * Obtains an event from the pool of its type. The event is owned by the caller, which must release it.
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T extends KrEvent> T obtain(Pool<T> pool) {
+        T event = pool.obtain();
+        KrEvent pooledEvent = event;
+        pooledEvent.pool = (Pool<KrEvent>) pool;
+        pooledEvent.referenceCount = 1;
+        return event;
+    }
 }
@@ -1,8 +1,19 @@
 package com.katzstudio.kreativity.ui.event;
 
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+
 /**
  * The {@link KrExitEvent} describes an exit event. Such an event happens when the mouse exists the
  * bounding area of a widget
  */
 public class KrExitEvent extends KrEvent {
+    private static final Pool<KrExitEvent> pool = Pools.get(KrExitEvent.class);
+
+    /**
+     * Obtains a pooled exit event. The event must be released once dispatched.
+     */
+    public static KrExitEvent obtain() {
+        return obtain(pool);
+    }
 }
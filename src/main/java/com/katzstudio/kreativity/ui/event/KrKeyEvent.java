@@ -1,13 +1,17 @@
 package com.katzstudio.kreativity.ui.event;
 
-import lombok.*;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
 /**
  * The {@link KrKeyEvent} class contains parameters that describe keyboard events.
+ * <p>
+ * The events sent by the input sources are pooled, see {@link KrEvent}.
  */
-@Builder(toBuilder = true)
-@AllArgsConstructor
-@RequiredArgsConstructor
 @EqualsAndHashCode(callSuper = true)
 @ToString
 public class KrKeyEvent extends KrEvent {
@@ -15,15 +19,55 @@ public class KrKeyEvent extends KrEvent {
         PRESSED, RELEASED
     }
 
-    @Getter private final Type type;
+    private static final Pool<KrKeyEvent> pool = Pools.get(KrKeyEvent.class);
 
-    @Getter private final int keycode;
+    @Getter private Type type;
 
-    @Getter private final String value;
+    @Getter private int keycode;
+
+    @Getter private String value;
 
     @Getter private boolean isAltDown = false;
 
     @Getter private boolean isCtrlDown = false;
 
     @Getter private boolean isShiftDown = false;
+
+    /**
+     * Used by the event pool.
+     */
+    public KrKeyEvent() {
+    }
+
+    public KrKeyEvent(Type type, int keycode, String value) {
+        this(type, keycode, value, false, false, false);
+    }
+
+    @Builder
+    public KrKeyEvent(Type type, int keycode, String value, boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        set(type, keycode, value, isAltDown, isCtrlDown, isShiftDown);
+    }
+
+    /**
+     * Obtains a pooled key event. The event must be released once dispatched.
+     */
+    public static KrKeyEvent obtain(Type type, int keycode, String value, boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        return obtain(pool).set(type, keycode, value, isAltDown, isCtrlDown, isShiftDown);
+    }
+
+    private KrKeyEvent set(Type type, int keycode, String value, boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        this.type = type;
+        this.keycode = keycode;
+        this.value = value;
+        this.isAltDown = isAltDown;
+        this.isCtrlDown = isCtrlDown;
+        this.isShiftDown = isShiftDown;
+        return this;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        set(null, 0, null, false, false, false);
+    }
 }
@@ -1,16 +1,26 @@
 package com.katzstudio.kreativity.ui.event;
 
 import com.badlogic.gdx.math.Vector2;
-import lombok.*;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Arrays;
 
 /**
  * The {@link KrMouseEvent} class contains parameters that describe generic mouse events.
+ * <p>
+ * The events sent by the input sources are pooled, see {@link KrEvent}. The vectors returned by
+ * {@code getScreenPosition} and {@code getDeltaMove} belong to the event, prefer the primitive getters.
+ * <p>
+ * A move coalesced from several mouse samples keeps the positions that preceded its final position in its
+ * history, oldest first.
  */
-@RequiredArgsConstructor
-@Builder(toBuilder = true)
-@AllArgsConstructor
-@ToString
-@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true, exclude = "history")
+@EqualsAndHashCode(callSuper = true, exclude = "history")
 public class KrMouseEvent extends KrEvent {
     public enum Type {
         MOVED, PRESSED, RELEASED, DOUBLE_CLICK
@@ -20,17 +30,141 @@ public class KrMouseEvent extends KrEvent {
         LEFT, RIGHT, MIDDLE, NONE
     }
 
-    @Getter private final Type type;
+    private static final Pool<KrMouseEvent> pool = Pools.get(KrMouseEvent.class);
+
+    @Getter private Type type;
 
-    @Getter private final Button button;
+    @Getter private Button button;
 
-    @Getter private final Vector2 deltaMove;
+    private final Vector2 deltaMove = new Vector2();
 
-    @Getter private final Vector2 screenPosition;
+    private final Vector2 screenPosition = new Vector2();
 
     @Getter private boolean isAltDown = false;
 
     @Getter private boolean isCtrlDown = false;
 
     @Getter private boolean isShiftDown = false;
+
+    private float[] history = new float[0];
+
+    @Getter private int historySize;
+
+    /**
+     * Used by the event pool.
+     */
+    public KrMouseEvent() {
+    }
+
+    public KrMouseEvent(Type type, Button button, Vector2 deltaMove, Vector2 screenPosition) {
+        this(type, button, deltaMove, screenPosition, false, false, false);
+    }
+
+    @Builder
+    public KrMouseEvent(Type type, Button button, Vector2 deltaMove, Vector2 screenPosition,
+                        boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        set(type, button,
+                screenPosition != null ? screenPosition.x : 0, screenPosition != null ? screenPosition.y : 0,
+                deltaMove != null ? deltaMove.x : 0, deltaMove != null ? deltaMove.y : 0,
+                isAltDown, isCtrlDown, isShiftDown);
+    }
+
+    /**
+     * Obtains a pooled mouse event. The event must be released once dispatched.
+     */
+    public static KrMouseEvent obtain(Type type, Button button, float x, float y, float deltaX, float deltaY,
+                                      boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        return obtain(pool).set(type, button, x, y, deltaX, deltaY, isAltDown, isCtrlDown, isShiftDown);
+    }
+
+    private KrMouseEvent set(Type type, Button button, float x, float y, float deltaX, float deltaY,
+                             boolean isAltDown, boolean isCtrlDown, boolean isShiftDown) {
+        this.type = type;
+        this.button = button;
+        this.screenPosition.set(x, y);
+        this.deltaMove.set(deltaX, deltaY);
+        this.isAltDown = isAltDown;
+        this.isCtrlDown = isCtrlDown;
+        this.isShiftDown = isShiftDown;
+        return this;
+    }
+
+    /**
+     * Merges a following move into this one. This event takes the position and modifiers of the merged event,
+     * its delta is accumulated, and its previous position is added to the history.
+     */
+    public void coalesce(KrMouseEvent event) {
+        addHistory(screenPosition.x, screenPosition.y);
+        for (int i = 0; i < event.historySize; ++i) {
+            addHistory(event.getHistoricalX(i), event.getHistoricalY(i));
+        }
+        set(event.type, event.button, event.getX(), event.getY(), getDeltaX() + event.getDeltaX(), getDeltaY() + event.getDeltaY(),
+                event.isAltDown, event.isCtrlDown, event.isShiftDown);
+    }
+
+    /**
+     * Returns the X coordinate of a position in the history of this event.
+     */
+    public float getHistoricalX(int index) {
+        return history[index * 2];
+    }
+
+    /**
+     * Returns the Y coordinate of a position in the history of this event.
+     */
+    public float getHistoricalY(int index) {
+        return history[index * 2 + 1];
+    }
+
+    private void addHistory(float x, float y) {
+        if (history.length < (historySize + 1) * 2) {
+            history = Arrays.copyOf(history, Math.max(8, history.length * 2));
+        }
+        history[historySize * 2] = x;
+        history[historySize * 2 + 1] = y;
+        historySize += 1;
+    }
+
+    /**
+     * Returns the X coordinate of the mouse, in screen space.
+     */
+    public float getX() {
+        return screenPosition.x;
+    }
+
+    /**
+     * Returns the Y coordinate of the mouse, in screen space.
+     */
+    public float getY() {
+        return screenPosition.y;
+    }
+
+    /**
+     * Returns the horizontal distance the mouse moved since the previous event.
+     */
+    public float getDeltaX() {
+        return deltaMove.x;
+    }
+
+    /**
+     * Returns the vertical distance the mouse moved since the previous event.
+     */
+    public float getDeltaY() {
+        return deltaMove.y;
+    }
+
+    public Vector2 getScreenPosition() {
+        return screenPosition;
+    }
+
+    public Vector2 getDeltaMove() {
+        return deltaMove;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        set(null, null, 0, 0, 0, 0, false, false, false);
+        historySize = 0;
+    }
 }
@@ -13,20 +13,39 @@ public class KrAbsoluteLayout implements KrLayout {
     public void setGeometry(Rectangle geometry) {
     }
 
+    @Override
+    public void setGeometry(float x, float y, float width, float height) {
+    }
+
     @Override
     public Vector2 getMinSize() {
-        return new Vector2(0, 0);
+        return getMinSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMinSize(Vector2 size) {
+        return size.set(0, 0);
     }
 
     @Override
     public Vector2 getMaxSize() {
-        return new Vector2(1000, 1000);
+        return getMaxSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMaxSize(Vector2 size) {
+        return size.set(1000, 1000);
     }
 
     @Override
     public Vector2 getPreferredSize() {
+        return getPreferredSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getPreferredSize(Vector2 size) {
         // TODO(alex): iterate through components and get their bounding box.
-        return getMaxSize();
+        return getMaxSize(size);
     }
 
     @Override
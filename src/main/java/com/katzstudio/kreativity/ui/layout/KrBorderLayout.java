@@ -38,92 +38,96 @@ public class KrBorderLayout implements KrLayout {
 
     @Override
     public void setGeometry(Rectangle geometry) {
-        // NORTH
-        KrWidget northWidget = constraints.get(NORTH);
-        float northWidgetHeight = northWidget != null ? northWidget.getPreferredSize().y : 0;
-        Rectangle northCell = new Rectangle(geometry.x + horizontalPadding, geometry.y + verticalPadding, geometry.getWidth() - 2 * horizontalPadding, northWidgetHeight);
-
-        // SOUTH
-        KrWidget southWidget = constraints.get(Constraint.SOUTH);
-        float southWidgetHeight = southWidget != null ? southWidget.getPreferredSize().y : 0;
-        Rectangle southCell = new Rectangle(geometry.x + horizontalPadding, geometry.y + verticalPadding, geometry.getWidth() - 2 * horizontalPadding, southWidgetHeight);
-
-        float centerHeight = geometry.getHeight() - 4 * verticalPadding - southCell.height - northCell.height;
-
-        // WEST
-        KrWidget westWidget = constraints.get(Constraint.WEST);
-        float westWidgetWidth = westWidget != null ? westWidget.getPreferredSize().x : 0;
-        Rectangle westCell = new Rectangle(
-                geometry.x + horizontalPadding,
-                geometry.y + verticalPadding * 2 + northCell.getHeight(),
-                westWidgetWidth,
-                centerHeight);
-
-        // EAST
-        KrWidget eastWidget = constraints.get(Constraint.EAST);
-        float eastWidgetWidth = eastWidget != null ? eastWidget.getPreferredSize().x : 0;
-        Rectangle eastCell = new Rectangle(
-                geometry.x + geometry.getWidth() - horizontalPadding - eastWidgetWidth,
-                geometry.y + verticalPadding * 2 + northWidgetHeight,
-                eastWidgetWidth,
-                centerHeight);
+        setGeometry(geometry.x, geometry.y, geometry.width, geometry.height);
+    }
 
-        // CENTER
-        KrWidget centerWidget = constraints.get(Constraint.CENTER);
-        Rectangle centerCell = new Rectangle(
-                geometry.x + horizontalPadding * 2 + westWidgetWidth,
-                geometry.y + verticalPadding * 2 + northWidgetHeight,
-                geometry.getWidth() - 4 * horizontalPadding - westWidgetWidth - eastWidgetWidth,
+    @Override
+    public void setGeometry(float x, float y, float width, float height) {
+        KrWidget northWidget = constraints.get(NORTH);
+        KrWidget southWidget = constraints.get(SOUTH);
+        KrWidget westWidget = constraints.get(WEST);
+        KrWidget eastWidget = constraints.get(EAST);
+        KrWidget centerWidget = constraints.get(CENTER);
+
+        float northWidgetHeight = northWidget != null ? northWidget.getPreferredHeight() : 0;
+        float southWidgetHeight = southWidget != null ? southWidget.getPreferredHeight() : 0;
+        float westWidgetWidth = westWidget != null ? westWidget.getPreferredWidth() : 0;
+        float eastWidgetWidth = eastWidget != null ? eastWidget.getPreferredWidth() : 0;
+
+        float marginX = x + horizontalPadding;
+        float marginWidth = width - 2 * horizontalPadding;
+        float centerY = y + verticalPadding * 2 + northWidgetHeight;
+        float centerHeight = height - 4 * verticalPadding - southWidgetHeight - northWidgetHeight;
+
+        layoutInsideCell(northWidget, marginX, y + verticalPadding, marginWidth, northWidgetHeight);
+        layoutInsideCell(westWidget, marginX, centerY, westWidgetWidth, centerHeight);
+        layoutInsideCell(centerWidget,
+                x + horizontalPadding * 2 + westWidgetWidth,
+                centerY,
+                width - 4 * horizontalPadding - westWidgetWidth - eastWidgetWidth,
                 centerHeight);
-
-        southCell.y = 3 * verticalPadding + northWidgetHeight + centerHeight;
-
-        layoutInsideCell(northWidget, northCell);
-        layoutInsideCell(westWidget, westCell);
-        layoutInsideCell(centerWidget, centerCell);
-        layoutInsideCell(eastWidget, eastCell);
-        layoutInsideCell(southWidget, southCell);
+        layoutInsideCell(eastWidget, x + width - horizontalPadding - eastWidgetWidth, centerY, eastWidgetWidth, centerHeight);
+        layoutInsideCell(southWidget, marginX, 3 * verticalPadding + northWidgetHeight + centerHeight, marginWidth, southWidgetHeight);
     }
 
-    private void layoutInsideCell(KrWidget widget, Rectangle cellGeometry) {
+    private void layoutInsideCell(KrWidget widget, float x, float y, float width, float height) {
         if (widget != null) {
-            widget.setGeometry(cellGeometry);
+            widget.setGeometry(x, y, width, height);
         }
     }
 
     @Override
     public Vector2 getMinSize() {
-        float minWidth = max(minSizeOf(NORTH).x, minSizeOf(WEST).x + minSizeOf(CENTER).x + minSizeOf(EAST).x + 2 * verticalPadding, minSizeOf(SOUTH).x) + 2 * horizontalPadding;
-        float minHeight = minSizeOf(NORTH).y + max(minSizeOf(WEST).y, minSizeOf(CENTER).y, minSizeOf(EAST).y) + minSizeOf(SOUTH).y + 4 * verticalPadding;
-        return new Vector2(minWidth, minHeight);
+        return getMinSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMinSize(Vector2 size) {
+        float minWidth = max(minWidthOf(NORTH), minWidthOf(WEST) + minWidthOf(CENTER) + minWidthOf(EAST) + 2 * verticalPadding, minWidthOf(SOUTH)) + 2 * horizontalPadding;
+        float minHeight = minHeightOf(NORTH) + max(minHeightOf(WEST), minHeightOf(CENTER), minHeightOf(EAST)) + minHeightOf(SOUTH) + 4 * verticalPadding;
+        return size.set(minWidth, minHeight);
     }
 
     @Override
     public Vector2 getMaxSize() {
-        return new Vector2(Float.MAX_VALUE, Float.MAX_VALUE);
+        return getMaxSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMaxSize(Vector2 size) {
+        return size.set(Float.MAX_VALUE, Float.MAX_VALUE);
     }
 
     @Override
     public Vector2 getPreferredSize() {
-        float prefWidth = max(prefSizeOf(NORTH).x, prefSizeOf(WEST).x + prefSizeOf(CENTER).x + prefSizeOf(EAST).x + 2 * verticalPadding, prefSizeOf(SOUTH).x) + 2 * verticalPadding;
-        float prefHeight = prefSizeOf(NORTH).y + max(prefSizeOf(WEST).y, prefSizeOf(CENTER).y, prefSizeOf(EAST).y) + prefSizeOf(SOUTH).y + 4 * verticalPadding;
-        return new Vector2(prefWidth, prefHeight);
+        return getPreferredSize(new Vector2());
     }
 
-    private Vector2 minSizeOf(Constraint constraint) {
-        if (constraints.containsKey(constraint)) {
-            return constraints.get(constraint).getMinSize();
-        } else {
-            return new Vector2(0, 0);
-        }
+    @Override
+    public Vector2 getPreferredSize(Vector2 size) {
+        float prefWidth = max(prefWidthOf(NORTH), prefWidthOf(WEST) + prefWidthOf(CENTER) + prefWidthOf(EAST) + 2 * verticalPadding, prefWidthOf(SOUTH)) + 2 * verticalPadding;
+        float prefHeight = prefHeightOf(NORTH) + max(prefHeightOf(WEST), prefHeightOf(CENTER), prefHeightOf(EAST)) + prefHeightOf(SOUTH) + 4 * verticalPadding;
+        return size.set(prefWidth, prefHeight);
     }
 
-    private Vector2 prefSizeOf(Constraint constraint) {
-        if (constraints.containsKey(constraint)) {
-            return constraints.get(constraint).getPreferredSize();
-        } else {
-            return new Vector2(0, 0);
-        }
+    private float minWidthOf(Constraint constraint) {
+        KrWidget widget = constraints.get(constraint);
+        return widget != null ? widget.getMinWidth() : 0;
+    }
+
+    private float minHeightOf(Constraint constraint) {
+        KrWidget widget = constraints.get(constraint);
+        return widget != null ? widget.getMinHeight() : 0;
+    }
+
+    private float prefWidthOf(Constraint constraint) {
+        KrWidget widget = constraints.get(constraint);
+        return widget != null ? widget.getPreferredWidth() : 0;
+    }
+
+    private float prefHeightOf(Constraint constraint) {
+        KrWidget widget = constraints.get(constraint);
+        return widget != null ? widget.getPreferredHeight() : 0;
     }
 
     private float max(float a, float b, float c) {
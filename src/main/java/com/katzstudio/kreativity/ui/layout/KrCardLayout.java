@@ -41,30 +41,69 @@ public class KrCardLayout implements KrLayout {
 
     @Override
     public void setGeometry(Rectangle geometry) {
-        for (KrWidget card : cards.values()) {
-            card.setGeometry(geometry);
+        setGeometry(geometry.x, geometry.y, geometry.width, geometry.height);
+    }
+
+    @Override
+    public void setGeometry(float x, float y, float width, float height) {
+        for (int i = 0; i < widgets.size(); ++i) {
+            widgets.get(i).setGeometry(x, y, width, height);
         }
     }
 
     @Override
     public Vector2 getMinSize() {
-        float minWidth = widgets.stream().map(KrWidget::getMinWidth).max(Float::compare).orElse(0.0f);
-        float minHeight = widgets.stream().map(KrWidget::getMinHeight).max(Float::compare).orElse(0.0f);
-        return new Vector2(minWidth, minHeight);
+        return getMinSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMinSize(Vector2 size) {
+        float minWidth = 0;
+        float minHeight = 0;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            minWidth = Math.max(minWidth, widget.getMinWidth());
+            minHeight = Math.max(minHeight, widget.getMinHeight());
+        }
+        return size.set(minWidth, minHeight);
     }
 
     @Override
     public Vector2 getMaxSize() {
-        float maxWidth = widgets.stream().map(KrWidget::getMaxWidth).min(Float::compare).orElse(0.0f);
-        float maxHeight = widgets.stream().map(KrWidget::getMaxHeight).min(Float::compare).orElse(0.0f);
-        return new Vector2(maxWidth, maxHeight);
+        return getMaxSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMaxSize(Vector2 size) {
+        if (widgets.isEmpty()) {
+            return size.set(0, 0);
+        }
+
+        float maxWidth = Float.MAX_VALUE;
+        float maxHeight = Float.MAX_VALUE;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            maxWidth = Math.min(maxWidth, widget.getMaxWidth());
+            maxHeight = Math.min(maxHeight, widget.getMaxHeight());
+        }
+        return size.set(maxWidth, maxHeight);
     }
 
     @Override
     public Vector2 getPreferredSize() {
-        float prefWidth = widgets.stream().map(KrWidget::getPreferredWidth).max(Float::compare).orElse(0.0f);
-        float prefHeight = widgets.stream().map(KrWidget::getPreferredHeight).max(Float::compare).orElse(0.0f);
-        return new Vector2(prefWidth, prefHeight);
+        return getPreferredSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getPreferredSize(Vector2 size) {
+        float prefWidth = 0;
+        float prefHeight = 0;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            prefWidth = Math.max(prefWidth, widget.getPreferredWidth());
+            prefHeight = Math.max(prefHeight, widget.getPreferredHeight());
+        }
+        return size.set(prefWidth, prefHeight);
     }
 
     @Override
@@ -8,7 +8,6 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Function;
 
 import static com.katzstudio.kreativity.ui.KrOrientation.HORIZONTAL;
 import static com.katzstudio.kreativity.ui.KrOrientation.VERTICAL;
@@ -46,29 +45,35 @@ public class KrFlowLayout implements KrLayout {
 
     @Override
     public void setGeometry(Rectangle geometry) {
+        setGeometry(geometry.x, geometry.y, geometry.width, geometry.height);
+    }
+
+    @Override
+    public void setGeometry(float x, float y, float width, float height) {
         if (widgets.isEmpty()) {
             return;
         }
 
-        float cellX = horizontalPadding + geometry.x;
-        float cellY = verticalPadding + geometry.y;
+        float cellX = horizontalPadding + x;
+        float cellY = verticalPadding + y;
         float cellHeight = 0;
         float cellWidth = 0;
 
         if (orientation == HORIZONTAL) {
-            cellHeight = geometry.getHeight() - 2 * verticalPadding;
+            cellHeight = height - 2 * verticalPadding;
         } else {
-            cellWidth = geometry.getWidth() - 2 * horizontalPadding;
+            cellWidth = width - 2 * horizontalPadding;
         }
 
-        for (KrWidget widget : widgets) {
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
             if (orientation == HORIZONTAL) {
                 cellWidth = widget.getPreferredWidth();
             } else {
                 cellHeight = widget.getPreferredHeight();
             }
 
-            layoutInsideCell(widget, new Rectangle(cellX, cellY, cellWidth, cellHeight));
+            widget.setGeometry(cellX, cellY, cellWidth, cellHeight);
 
             if (orientation == HORIZONTAL) {
                 cellX += cellWidth + horizontalPadding;
@@ -78,45 +83,61 @@ public class KrFlowLayout implements KrLayout {
         }
     }
 
-    private void layoutInsideCell(KrWidget widget, Rectangle geometry) {
-        widget.setGeometry(geometry);
+    @Override
+    public Vector2 getMinSize() {
+        return getMinSize(new Vector2());
     }
 
     @Override
-    public Vector2 getMinSize() {
-        return getSize(KrWidget::getMinSize);
+    public Vector2 getMinSize(Vector2 size) {
+        return getSize(size, false);
     }
 
     @Override
     public Vector2 getMaxSize() {
-        return new Vector2(Float.MAX_VALUE, Float.MAX_VALUE);
+        return getMaxSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMaxSize(Vector2 size) {
+        return size.set(Float.MAX_VALUE, Float.MAX_VALUE);
     }
 
     @Override
     public Vector2 getPreferredSize() {
-        return getSize(KrWidget::getPreferredSize);
+        return getPreferredSize(new Vector2());
     }
 
-    private Vector2 getSize(Function<KrWidget, Vector2> widgetSizeFunction) {
+    @Override
+    public Vector2 getPreferredSize(Vector2 size) {
+        return getSize(size, true);
+    }
+
+    private Vector2 getSize(Vector2 size, boolean preferred) {
         if (widgets.size() == 0) {
-            return new Vector2(0, 0);
+            return size.set(0, 0);
         }
 
         float totalHorizontalPadding = horizontalPadding * (getCols() + 1);
         float totalVerticalPadding = verticalPadding * (getRows() + 1);
 
-        float widgetHorizontalSize;
-        float widgetVerticalSize;
-
-        if (orientation == HORIZONTAL) {
-            widgetHorizontalSize = widgets.stream().map(widgetSizeFunction).map(v -> v.x).reduce(Float::sum).orElse(0.0f);
-            widgetVerticalSize = widgets.stream().map(widgetSizeFunction).map(v -> v.y).max(Float::compare).orElse(0.0f);
-        } else {
-            widgetHorizontalSize = widgets.stream().map(widgetSizeFunction).map(v -> v.x).max(Float::compare).orElse(0.0f);
-            widgetVerticalSize = widgets.stream().map(widgetSizeFunction).map(v -> v.y).reduce(Float::sum).orElse(0.0f);
+        // sizes are summed along the flow, and the largest one is used across it
+        float widgetHorizontalSize = 0;
+        float widgetVerticalSize = 0;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            float widgetWidth = preferred ? widget.getPreferredWidth() : widget.getMinWidth();
+            float widgetHeight = preferred ? widget.getPreferredHeight() : widget.getMinHeight();
+            if (orientation == HORIZONTAL) {
+                widgetHorizontalSize += widgetWidth;
+                widgetVerticalSize = Math.max(widgetVerticalSize, widgetHeight);
+            } else {
+                widgetHorizontalSize = Math.max(widgetHorizontalSize, widgetWidth);
+                widgetVerticalSize += widgetHeight;
+            }
         }
 
-        return new Vector2(totalHorizontalPadding + widgetHorizontalSize, totalVerticalPadding + widgetVerticalSize);
+        return size.set(totalHorizontalPadding + widgetHorizontalSize, totalVerticalPadding + widgetVerticalSize);
     }
 
     private int getRows() {
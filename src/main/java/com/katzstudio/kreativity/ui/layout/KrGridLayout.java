@@ -34,6 +34,8 @@ public class KrGridLayout implements KrLayout {
 
     @Getter private KrSizePolicyModel columnSizePolicy;
 
+    private float[] columnSizes;
+
     private boolean isAdjusting = false;
 
     public KrGridLayout(int columns) {
@@ -61,29 +63,34 @@ public class KrGridLayout implements KrLayout {
 
     @Override
     public void setGeometry(Rectangle geometry) {
+        setGeometry(geometry.x, geometry.y, geometry.width, geometry.height);
+    }
+
+    @Override
+    public void setGeometry(float x, float y, float width, float height) {
         if (isAdjusting) {
             return;
         }
 
         isAdjusting = true;
         int rowCount = getRowCount();
-        int cellHeight = (int) (geometry.getHeight() - verticalPadding * (rowCount + 1)) / rowCount;
+        int cellHeight = (int) (height - verticalPadding * (rowCount + 1)) / rowCount;
 
-        List<Float> sizes = columnSizePolicy.getSizes(geometry.getWidth() - horizontalPadding * (columnCount + 1));
+        columnSizes = columnSizePolicy.getSizes(width - horizontalPadding * (columnCount + 1), columnSizes);
 
-        int cellX = (int) (geometry.getX() + horizontalPadding);
-        int cellY = (int) (geometry.getY() + verticalPadding);
+        int cellX = (int) (x + horizontalPadding);
+        int cellY = (int) (y + verticalPadding);
         int column = 0;
 
-        for (KrWidget widget : widgets) {
-            float cellWidth = sizes.get(column);
-            layoutInsideCell(widget, new Rectangle(cellX, cellY, cellWidth, cellHeight));
+        for (int i = 0; i < widgets.size(); ++i) {
+            float cellWidth = columnSizes[column];
+            layoutInsideCell(widgets.get(i), cellX, cellY, cellWidth, cellHeight);
 
             cellX += cellWidth + horizontalPadding;
             column += 1;
             if (column == columnCount) {
                 column = 0;
-                cellX = (int) (geometry.getX() + horizontalPadding);
+                cellX = (int) (x + horizontalPadding);
                 cellY += cellHeight + verticalPadding;
             }
         }
@@ -94,22 +101,24 @@ public class KrGridLayout implements KrLayout {
         return (int) (widgets.size() / columnCount + 0.5);
     }
 
-    private void layoutInsideCell(KrWidget widget, Rectangle cellBounds) {
+    private void layoutInsideCell(KrWidget widget, float cellX, float cellY, float cellWidth, float cellHeight) {
         Constraint constraint = constraints.get(widget);
-        Vector2 widgetPreferredSize = widget.getPreferredSize();
+        float preferredWidth = widget.getPreferredWidth();
+        float preferredHeight = widget.getPreferredHeight();
 
-        int widgetWidth = (widgetPreferredSize.x >= cellBounds.width) ? (int) cellBounds.width : (int) widgetPreferredSize.x;
-        int widgetHeight = (widgetPreferredSize.y >= cellBounds.height) ? (int) cellBounds.height : (int) widgetPreferredSize.y;
+        int widgetWidth = (preferredWidth >= cellWidth) ? (int) cellWidth : (int) preferredWidth;
+        int widgetHeight = (preferredHeight >= cellHeight) ? (int) cellHeight : (int) preferredHeight;
 
         if (constraint.stretchHorizontal) {
-            widgetWidth = (int) cellBounds.width;
+            widgetWidth = (int) cellWidth;
         }
 
         if (constraint.stretchVertical) {
-            widgetHeight = (int) cellBounds.height;
+            widgetHeight = (int) cellHeight;
         }
 
-        Vector2 widgetPosition = KrAlignmentTool.alignRectangles(new Rectangle(0, 0, widgetWidth, widgetHeight), cellBounds, constraint.alignment);
+        Vector2 widgetPosition = KrAlignmentTool.alignRectangles(0, 0, widgetWidth, widgetHeight,
+                cellX, cellY, cellWidth, cellHeight, constraint.alignment);
 
         widget.setGeometry((int) widgetPosition.x, (int) widgetPosition.y, widgetWidth, widgetHeight);
         Pools.free(widgetPosition);
@@ -117,26 +126,51 @@ public class KrGridLayout implements KrLayout {
 
     @Override
     public Vector2 getMinSize() {
-        float cellWidth = widgets.stream().map(widget -> widget.getMinSize().x).max(Float::compare).orElse(0.0f);
-        float cellHeight = widgets.stream().map(widget -> widget.getMinSize().y).max(Float::compare).orElse(0.0f);
-        float rowCount = getRowCount();
+        return getMinSize(new Vector2());
+    }
 
-        return new Vector2(columnCount * cellWidth + (columnCount + 1) * horizontalPadding,
-                rowCount * cellHeight + (rowCount + 1) * verticalPadding);
+    @Override
+    public Vector2 getMinSize(Vector2 size) {
+        float cellWidth = 0;
+        float cellHeight = 0;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            cellWidth = Math.max(cellWidth, widget.getMinWidth());
+            cellHeight = Math.max(cellHeight, widget.getMinHeight());
+        }
+        return getGridSize(size, cellWidth, cellHeight);
     }
 
     @Override
     public Vector2 getMaxSize() {
-        return new Vector2(Float.MAX_VALUE, Float.MAX_VALUE);
+        return getMaxSize(new Vector2());
+    }
+
+    @Override
+    public Vector2 getMaxSize(Vector2 size) {
+        return size.set(Float.MAX_VALUE, Float.MAX_VALUE);
     }
 
     @Override
     public Vector2 getPreferredSize() {
-        float cellWidth = widgets.stream().map(widget -> widget.getPreferredSize().x).max(Float::compare).orElse(0.0f);
-        float cellHeight = widgets.stream().map(widget -> widget.getPreferredSize().y).max(Float::compare).orElse(0.0f);
-        float rowCount = getRowCount();
+        return getPreferredSize(new Vector2());
+    }
 
-        return new Vector2(columnCount * cellWidth + (columnCount + 1) * horizontalPadding,
+    @Override
+    public Vector2 getPreferredSize(Vector2 size) {
+        float cellWidth = 0;
+        float cellHeight = 0;
+        for (int i = 0; i < widgets.size(); ++i) {
+            KrWidget widget = widgets.get(i);
+            cellWidth = Math.max(cellWidth, widget.getPreferredWidth());
+            cellHeight = Math.max(cellHeight, widget.getPreferredHeight());
+        }
+        return getGridSize(size, cellWidth, cellHeight);
+    }
+
+    private Vector2 getGridSize(Vector2 size, float cellWidth, float cellHeight) {
+        float rowCount = getRowCount();
+        return size.set(columnCount * cellWidth + (columnCount + 1) * horizontalPadding,
                 rowCount * cellHeight + (rowCount + 1) * verticalPadding);
     }
 
@@ -9,17 +9,49 @@ import static java.lang.Float.MAX_VALUE;
 /**
  * A layout that computes the minimum, maximum and preferred size of a {@link KrWidget} based on it's children,
  * and distributes it's children according to the available space.
+ * <p>
+ * The primitive {@code setGeometry} and the size methods taking an output vector are used by the widgets when
+ * laying out. The built-in layouts implement them without allocating, so relayouts don't produce garbage. The
+ * default implementations delegate to the allocating methods, which custom layouts must still implement.
  */
 public interface KrLayout {
 
     void setGeometry(Rectangle geometry);
 
+    /**
+     * Distributes the children inside the given area.
+     */
+    default void setGeometry(float x, float y, float width, float height) {
+        setGeometry(new Rectangle(x, y, width, height));
+    }
+
     Vector2 getMinSize();
 
+    /**
+     * Stores the minimum size in {@code size}, then returns it.
+     */
+    default Vector2 getMinSize(Vector2 size) {
+        return size.set(getMinSize());
+    }
+
     Vector2 getMaxSize();
 
+    /**
+     * Stores the maximum size in {@code size}, then returns it.
+     */
+    default Vector2 getMaxSize(Vector2 size) {
+        return size.set(getMaxSize());
+    }
+
     Vector2 getPreferredSize();
 
+    /**
+     * Stores the preferred size in {@code size}, then returns it.
+     */
+    default Vector2 getPreferredSize(Vector2 size) {
+        return size.set(getPreferredSize());
+    }
+
     void addWidget(KrWidget child, Object layoutConstraint);
 
     void removeWidget(KrWidget child);
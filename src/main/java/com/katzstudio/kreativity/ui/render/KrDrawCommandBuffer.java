@@ -0,0 +1,370 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
+
+import java.util.Arrays;
+
+/**
+ * A compact list of draw commands recorded from a {@link KrRenderer}.
+ * <p>
+ * Commands are stored as opcodes followed by their integer arguments, while float arguments and
+ * object references (strings, fonts, colors, drawables) are stored in separate arrays. No objects
+ * are allocated per command. Clearing the buffer keeps its capacity, so a buffer that is recorded
+ * over and over again stops allocating once it reached its final size.
+ */
+public class KrDrawCommandBuffer {
+
+    static final int DRAW_TEXT = 1;
+
+    static final int DRAW_TEXT_WITH_SHADOW = 2;
+
+    static final int DRAW_RECT = 3;
+
+    static final int DRAW_LINE = 4;
+
+    static final int FILL_RECT = 5;
+
+    static final int FILL_ROUNDED_RECT = 6;
+
+    static final int TRANSLATE = 7;
+
+    static final int BEGIN_CLIP = 8;
+
+    static final int END_CLIP = 9;
+
+    static final int SET_OPACITY = 10;
+
+    static final int PUSH_STATE = 11;
+
+    static final int POP_STATE = 12;
+
+    static final int SET_FONT = 13;
+
+    static final int SET_BRUSH = 14;
+
+    static final int SET_BRUSH_DRAWABLE = 15;
+
+    static final int SET_BRUSH_COLOR = 16;
+
+    static final int SET_PEN = 17;
+
+    static final int SET_PEN_COLOR = 18;
+
+    static final int DRAW_MEASURED_TEXT = 19;
+
+    static final int DRAW_MEASURED_TEXT_WITH_SHADOW = 20;
+
+    static final int SET_PEN_PACKED = 21;
+
+    static final int SET_BRUSH_PACKED = 22;
+
+    static final int DRAW_TEXT_RANGE = 23;
+
+    private static final int MAX_CLIP_DEPTH = 32;
+
+    private int[] ints = new int[32];
+
+    private float[] floats = new float[64];
+
+    private Object[] references = new Object[16];
+
+    private int intCount;
+
+    private int floatCount;
+
+    private int referenceCount;
+
+    private int commandCount;
+
+    private final boolean[] clipStack = new boolean[MAX_CLIP_DEPTH];
+
+    private int[] stateClipDepths = new int[8];
+
+    private final Vector2 tmpPosition = new Vector2();
+
+    private final Vector2 tmpOffset = new Vector2();
+
+    /**
+     * Removes all the commands from the buffer, keeping the allocated capacity.
+     */
+    public void clear() {
+        intCount = 0;
+        floatCount = 0;
+        Arrays.fill(references, 0, referenceCount, null);
+        referenceCount = 0;
+        commandCount = 0;
+    }
+
+    /**
+     * Returns the number of recorded commands.
+     */
+    public int size() {
+        return commandCount;
+    }
+
+    public boolean isEmpty() {
+        return commandCount == 0;
+    }
+
+    void drawText(String text, float x, float y) {
+        command(DRAW_TEXT);
+        reference(text);
+        floats(x, y);
+    }
+
+    /**
+     * Records a range of a character sequence. The sequence is stored by reference, so it must not change
+     * until the buffer is replayed.
+     */
+    void drawText(CharSequence text, int start, int end, float x, float y) {
+        command(DRAW_TEXT_RANGE);
+        reference(text);
+        integer(start);
+        integer(end);
+        floats(x, y);
+    }
+
+    void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        command(DRAW_TEXT_WITH_SHADOW);
+        reference(text);
+        reference(shadowColor);
+        floats(position.x, position.y, shadowOffset.x, shadowOffset.y);
+    }
+
+    void drawText(KrMeasuredString text, float x, float y) {
+        command(DRAW_MEASURED_TEXT);
+        reference(text);
+        floats(x, y);
+    }
+
+    void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        command(DRAW_MEASURED_TEXT_WITH_SHADOW);
+        reference(text);
+        reference(shadowColor);
+        floats(position.x, position.y, shadowOffset.x, shadowOffset.y);
+    }
+
+    void shape(int opcode, float x, float y, float w, float h) {
+        command(opcode);
+        floats(x, y, w, h);
+    }
+
+    void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+        command(FILL_ROUNDED_RECT);
+        integer(cornerRadius);
+        floats(x, y, w, h);
+    }
+
+    void translate(float x, float y) {
+        command(TRANSLATE);
+        floats(x, y);
+    }
+
+    void beginClip(float x, float y, float width, float height) {
+        command(BEGIN_CLIP);
+        floats(x, y, width, height);
+    }
+
+    void setOpacity(float opacity) {
+        command(SET_OPACITY);
+        floats(opacity);
+    }
+
+    void command(int opcode, Object reference) {
+        command(opcode);
+        reference(reference);
+    }
+
+    void setPen(int size, Color color) {
+        command(SET_PEN_COLOR);
+        integer(size);
+        reference(color);
+    }
+
+    void setPackedColor(int opcode, float packedColor) {
+        command(opcode);
+        floats(packedColor);
+    }
+
+    void command(int opcode) {
+        integer(opcode);
+        commandCount += 1;
+    }
+
+    /**
+     * Replays all the recorded commands on the given renderer, in the order in which they were recorded.
+     *
+     * @param renderer the renderer that executes the commands
+     */
+    public void replay(KrRenderer renderer) {
+        int intIndex = 0;
+        int floatIndex = 0;
+        int referenceIndex = 0;
+        int clipDepth = 0;
+        int stateDepth = 0;
+
+        while (intIndex < intCount) {
+            int opcode = ints[intIndex++];
+            switch (opcode) {
+                case DRAW_TEXT:
+                    renderer.drawText((String) references[referenceIndex++], floats[floatIndex], floats[floatIndex + 1]);
+                    floatIndex += 2;
+                    break;
+                case DRAW_TEXT_RANGE:
+                    renderer.drawText((CharSequence) references[referenceIndex++], ints[intIndex], ints[intIndex + 1], floats[floatIndex], floats[floatIndex + 1]);
+                    intIndex += 2;
+                    floatIndex += 2;
+                    break;
+                case DRAW_TEXT_WITH_SHADOW:
+                    String text = (String) references[referenceIndex++];
+                    Color shadowColor = (Color) references[referenceIndex++];
+                    tmpPosition.set(floats[floatIndex], floats[floatIndex + 1]);
+                    tmpOffset.set(floats[floatIndex + 2], floats[floatIndex + 3]);
+                    renderer.drawTextWithShadow(text, tmpPosition, tmpOffset, shadowColor);
+                    floatIndex += 4;
+                    break;
+                case DRAW_MEASURED_TEXT:
+                    renderer.drawText((KrMeasuredString) references[referenceIndex++], floats[floatIndex], floats[floatIndex + 1]);
+                    floatIndex += 2;
+                    break;
+                case DRAW_MEASURED_TEXT_WITH_SHADOW:
+                    KrMeasuredString measuredText = (KrMeasuredString) references[referenceIndex++];
+                    Color measuredShadowColor = (Color) references[referenceIndex++];
+                    tmpPosition.set(floats[floatIndex], floats[floatIndex + 1]);
+                    tmpOffset.set(floats[floatIndex + 2], floats[floatIndex + 3]);
+                    renderer.drawTextWithShadow(measuredText, tmpPosition, tmpOffset, measuredShadowColor);
+                    floatIndex += 4;
+                    break;
+                case DRAW_RECT:
+                    renderer.drawRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case DRAW_LINE:
+                    renderer.drawLine(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case FILL_RECT:
+                    renderer.fillRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    floatIndex += 4;
+                    break;
+                case FILL_ROUNDED_RECT:
+                    renderer.fillRoundedRect(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3], ints[intIndex++]);
+                    floatIndex += 4;
+                    break;
+                case TRANSLATE:
+                    renderer.translate(floats[floatIndex], floats[floatIndex + 1]);
+                    floatIndex += 2;
+                    break;
+                case BEGIN_CLIP:
+                    // the clip result depends on the parent clip, so it can differ from the recorded one
+                    boolean clipped = renderer.beginClip(floats[floatIndex], floats[floatIndex + 1], floats[floatIndex + 2], floats[floatIndex + 3]);
+                    if (clipDepth < MAX_CLIP_DEPTH) {
+                        clipStack[clipDepth] = clipped;
+                    }
+                    clipDepth += 1;
+                    floatIndex += 4;
+                    break;
+                case END_CLIP:
+                    clipDepth -= 1;
+                    if (clipDepth >= 0 && clipDepth < MAX_CLIP_DEPTH && clipStack[clipDepth]) {
+                        renderer.endClip();
+                    }
+                    break;
+                case SET_OPACITY:
+                    renderer.setOpacity(floats[floatIndex++]);
+                    break;
+                case PUSH_STATE:
+                    if (stateDepth == stateClipDepths.length) {
+                        stateClipDepths = Arrays.copyOf(stateClipDepths, stateDepth * 2);
+                    }
+                    stateClipDepths[stateDepth++] = clipDepth;
+                    renderer.pushState();
+                    break;
+                case POP_STATE:
+                    // the renderer closes the clips opened since the matching push, so they're not closed again
+                    if (stateDepth > 0) {
+                        clipDepth = stateClipDepths[--stateDepth];
+                    }
+                    renderer.popState();
+                    break;
+                case SET_FONT:
+                    renderer.setFont((BitmapFont) references[referenceIndex++]);
+                    break;
+                case SET_BRUSH:
+                    renderer.setBrush((KrBrush) references[referenceIndex++]);
+                    break;
+                case SET_BRUSH_DRAWABLE:
+                    renderer.setBrush((Drawable) references[referenceIndex++]);
+                    break;
+                case SET_BRUSH_COLOR:
+                    renderer.setBrush((Color) references[referenceIndex++]);
+                    break;
+                case SET_PEN:
+                    renderer.setPen((KrPen) references[referenceIndex++]);
+                    break;
+                case SET_PEN_COLOR:
+                    renderer.setPen(ints[intIndex++], (Color) references[referenceIndex++]);
+                    break;
+                case SET_PEN_PACKED:
+                    renderer.setPen(floats[floatIndex++]);
+                    break;
+                case SET_BRUSH_PACKED:
+                    renderer.setBrush(floats[floatIndex++]);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown draw command: " + opcode);
+            }
+        }
+
+        // clips that were left open while recording are closed when replaying them
+        while (clipDepth > 0) {
+            clipDepth -= 1;
+            if (clipDepth < MAX_CLIP_DEPTH && clipStack[clipDepth]) {
+                renderer.endClip();
+            }
+        }
+    }
+
+    private void integer(int value) {
+        if (intCount == ints.length) {
+            ints = Arrays.copyOf(ints, ints.length * 2);
+        }
+        ints[intCount++] = value;
+    }
+
+    private void floats(float value) {
+        ensureFloatCapacity(1);
+        floats[floatCount++] = value;
+    }
+
+    private void floats(float a, float b) {
+        ensureFloatCapacity(2);
+        floats[floatCount++] = a;
+        floats[floatCount++] = b;
+    }
+
+    private void floats(float a, float b, float c, float d) {
+        ensureFloatCapacity(4);
+        floats[floatCount++] = a;
+        floats[floatCount++] = b;
+        floats[floatCount++] = c;
+        floats[floatCount++] = d;
+    }
+
+    private void ensureFloatCapacity(int count) {
+        if (floatCount + count > floats.length) {
+            floats = Arrays.copyOf(floats, floats.length * 2);
+        }
+    }
+
+    private void reference(Object reference) {
+        if (referenceCount == references.length) {
+            references = Arrays.copyOf(references, references.length * 2);
+        }
+        references[referenceCount++] = reference;
+    }
+}
@@ -0,0 +1,303 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
+import lombok.Getter;
+
+import static com.katzstudio.kreativity.ui.render.KrDrawCommandBuffer.*;
+
+/**
+ * A {@link KrRenderer} that only records the draw calls into a {@link KrDrawCommandBuffer}, without
+ * forwarding them. The buffer is submitted later by replaying it on the renderer passed to {@code begin}.
+ * <p>
+ * Since nothing is drawn while recording, the renderer keeps track of the state that widgets query while
+ * drawing (opacity, font, translation and clip bounds), starting from the state of the target renderer.
+ * Recording doesn't touch the target renderer, so a draw list can be recorded on any thread, as long as
+ * {@code begin} is called on the thread that owns the target renderer.
+ */
+public class KrDrawListRenderer extends KrRenderer {
+
+    private static final int MAX_CLIP_DEPTH = 64;
+
+    private static final int MAX_STATE_DEPTH = 32;
+
+    private static final int STATE_SIZE = 3;
+
+    @Getter private final KrDrawCommandBuffer commands = new KrDrawCommandBuffer();
+
+    @Getter private final Vector2 viewportSize = new Vector2();
+
+    private final Vector2 translation = new Vector2();
+
+    @Getter private float opacity;
+
+    @Getter private BitmapFont font;
+
+    private KrPen pen;
+
+    private KrBrush brush;
+
+    /**
+     * Clip rectangles in recording coordinates, stored as (x1, y1, x2, y2) quadruples.
+     */
+    private final float[] clipStack = new float[MAX_CLIP_DEPTH * 4];
+
+    private int clipDepth;
+
+    private final float[] states = new float[MAX_STATE_DEPTH * STATE_SIZE];
+
+    private final int[] stateClipDepths = new int[MAX_STATE_DEPTH];
+
+    private final BitmapFont[] stateFonts = new BitmapFont[MAX_STATE_DEPTH];
+
+    private int stateDepth;
+
+    private final Rectangle tmpClip = new Rectangle();
+
+    /**
+     * Clears the command buffer and copies the state of the renderer that will execute the commands.
+     * Must be called on the thread that owns {@code target}.
+     */
+    public void begin(KrRenderer target) {
+        commands.clear();
+        viewportSize.set(target.getViewportSize());
+        translation.set(0, 0);
+        opacity = target.getOpacity();
+        font = target.getFont();
+        pen = null;
+        brush = null;
+        stateDepth = 0;
+        clipDepth = 0;
+
+        if (target.getClipBounds(tmpClip)) {
+            clipStack[0] = tmpClip.x;
+            clipStack[1] = tmpClip.y;
+            clipStack[2] = tmpClip.x + tmpClip.width;
+            clipStack[3] = tmpClip.y + tmpClip.height;
+            clipDepth = 1;
+        }
+    }
+
+    /**
+     * Replays the recorded commands on a renderer.
+     */
+    public void submit(KrRenderer renderer) {
+        commands.replay(renderer);
+    }
+
+    @Override
+    public void beginFrame() {
+    }
+
+    @Override
+    public void endFrame() {
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        commands.drawText(text, x, y);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y) {
+        commands.drawText(text, start, end, x, y);
+    }
+
+    @Override
+    public void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        commands.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+    }
+
+    @Override
+    public void drawText(KrMeasuredString text, float x, float y) {
+        commands.drawText(text, x, y);
+    }
+
+    @Override
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        commands.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h) {
+        commands.shape(DRAW_RECT, x, y, w, h);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        commands.shape(DRAW_LINE, x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillRect(float x, float y, float w, float h) {
+        commands.shape(FILL_RECT, x, y, w, h);
+    }
+
+    @Override
+    public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+        commands.fillRoundedRect(x, y, w, h, cornerRadius);
+    }
+
+    @Override
+    public void translate(float x, float y) {
+        commands.translate(x, y);
+        translation.add(x, y);
+    }
+
+    /**
+     * Records a clip. Clips that don't intersect the current clip are not recorded, and return false,
+     * the same way the target renderer would reject them.
+     */
+    @Override
+    public boolean beginClip(float x, float y, float width, float height) {
+        float x1 = x + translation.x;
+        float y1 = y + translation.y;
+        float x2 = x1 + width;
+        float y2 = y1 + height;
+
+        if (clipDepth > 0) {
+            int top = (clipDepth - 1) * 4;
+            x1 = Math.max(x1, clipStack[top]);
+            y1 = Math.max(y1, clipStack[top + 1]);
+            x2 = Math.min(x2, clipStack[top + 2]);
+            y2 = Math.min(y2, clipStack[top + 3]);
+        }
+
+        if (x2 - x1 < 1 || y2 - y1 < 1) {
+            return false;
+        }
+
+        if (clipDepth == MAX_CLIP_DEPTH) {
+            throw new IllegalStateException("Clip stack overflow: more than " + MAX_CLIP_DEPTH + " nested clips");
+        }
+
+        int index = clipDepth * 4;
+        clipStack[index] = x1;
+        clipStack[index + 1] = y1;
+        clipStack[index + 2] = x2;
+        clipStack[index + 3] = y2;
+        clipDepth += 1;
+        commands.beginClip(x, y, width, height);
+        return true;
+    }
+
+    @Override
+    public void endClip() {
+        clipDepth -= 1;
+        commands.command(END_CLIP);
+    }
+
+    @Override
+    public boolean getClipBounds(Rectangle bounds) {
+        if (clipDepth == 0) {
+            return false;
+        }
+
+        int top = (clipDepth - 1) * 4;
+        bounds.set(clipStack[top] - translation.x, clipStack[top + 1] - translation.y, clipStack[top + 2] - clipStack[top], clipStack[top + 3] - clipStack[top + 1]);
+        return true;
+    }
+
+    @Override
+    public void setViewportSize(float width, float height) {
+        viewportSize.set(width, height);
+    }
+
+    @Override
+    public float setOpacity(float opacity) {
+        commands.setOpacity(opacity);
+        float oldOpacity = this.opacity;
+        this.opacity = opacity;
+        return oldOpacity;
+    }
+
+    @Override
+    public void popState() {
+        commands.command(POP_STATE);
+        stateDepth -= 1;
+        int state = stateDepth * STATE_SIZE;
+        opacity = states[state];
+        translation.set(states[state + 1], states[state + 2]);
+        font = stateFonts[stateDepth];
+        clipDepth = Math.min(clipDepth, stateClipDepths[stateDepth]);
+        stateFonts[stateDepth] = null;
+    }
+
+    @Override
+    public void pushState() {
+        if (stateDepth == MAX_STATE_DEPTH) {
+            throw new IllegalStateException("State stack overflow: more than " + MAX_STATE_DEPTH + " nested states");
+        }
+
+        commands.command(PUSH_STATE);
+        int state = stateDepth * STATE_SIZE;
+        states[state] = opacity;
+        states[state + 1] = translation.x;
+        states[state + 2] = translation.y;
+        stateFonts[stateDepth] = font;
+        stateClipDepths[stateDepth] = clipDepth;
+        stateDepth += 1;
+    }
+
+    @Override
+    public KrBrush getBrush() {
+        return brush;
+    }
+
+    @Override
+    public KrPen getPen() {
+        return pen;
+    }
+
+    @Override
+    public void setFont(BitmapFont font) {
+        commands.command(SET_FONT, font);
+        this.font = font;
+    }
+
+    @Override
+    public void setBrush(KrBrush brush) {
+        commands.command(SET_BRUSH, brush);
+        this.brush = brush;
+    }
+
+    @Override
+    public void setBrush(Drawable drawable) {
+        commands.command(SET_BRUSH_DRAWABLE, drawable);
+        brush = null;
+    }
+
+    @Override
+    public void setBrush(Color color) {
+        commands.command(SET_BRUSH_COLOR, color);
+        brush = null;
+    }
+
+    @Override
+    public void setBrush(float packedColor) {
+        commands.setPackedColor(SET_BRUSH_PACKED, packedColor);
+        brush = null;
+    }
+
+    @Override
+    public void setPen(KrPen pen) {
+        commands.command(SET_PEN, pen);
+        this.pen = pen;
+    }
+
+    @Override
+    public void setPen(int size, Color color) {
+        commands.setPen(size, color);
+        pen = null;
+    }
+
+    @Override
+    public void setPen(float packedColor) {
+        commands.setPackedColor(SET_PEN_PACKED, packedColor);
+        pen = null;
+    }
+}
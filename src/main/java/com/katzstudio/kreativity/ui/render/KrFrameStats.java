@@ -0,0 +1,158 @@
+package com.katzstudio.kreativity.ui.render;
+
+import lombok.Getter;
+
+/**
+ * Counters describing the work done by a {@link KrRenderer} during one frame.
+ * <p>
+ * Renderers accumulate the counters while drawing and publish them when the frame ends. All the values
+ * are primitive, so collecting them doesn't allocate.
+ */
+public class KrFrameStats {
+
+    /**
+     * The reasons for ending a batch before the end of the frame.
+     */
+    public enum FlushCause {
+        /**
+         * Switching between primitives that are drawn by different batches, like text and shape outlines.
+         */
+        MODE_SWITCH,
+
+        /**
+         * Changing the clip rectangle or the GL scissor.
+         */
+        CLIP,
+
+        /**
+         * Changing the translation.
+         */
+        TRANSLATE,
+
+        /**
+         * Drawing with a different texture than the one of the current batch.
+         */
+        TEXTURE_CHANGE,
+
+        /**
+         * Anything else: the end of the frame, layers, or a full batch.
+         */
+        OTHER
+    }
+
+    private static final FlushCause[] FLUSH_CAUSES = FlushCause.values();
+
+    /**
+     * The number of draw calls sent to the GPU.
+     */
+    @Getter private int drawCalls;
+
+    private final int[] flushes = new int[FLUSH_CAUSES.length];
+
+    /**
+     * The number of quads submitted, glyphs included.
+     */
+    @Getter private int quads;
+
+    /**
+     * The number of glyphs submitted.
+     */
+    @Getter private int glyphs;
+
+    /**
+     * The number of times the GL scissor was set.
+     */
+    @Getter private int scissorPushes;
+
+    /**
+     * The number of pooled objects obtained during the frame and not returned to their pool. Only counted
+     * when the counting pools are installed, see {@link com.katzstudio.kreativity.ui.util.KrPools#install()}.
+     */
+    @Getter private int leakedPoolObjects;
+
+    /**
+     * Returns the total number of batch flushes.
+     */
+    public int getFlushes() {
+        int total = 0;
+        for (int i = 0; i < flushes.length; ++i) {
+            total += flushes[i];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of batch flushes caused by {@code cause}.
+     */
+    public int getFlushes(FlushCause cause) {
+        return flushes[cause.ordinal()];
+    }
+
+    public void addDrawCalls(int count) {
+        drawCalls += count;
+    }
+
+    public void addFlush(FlushCause cause) {
+        flushes[cause.ordinal()] += 1;
+    }
+
+    public void addFlushes(FlushCause cause, int count) {
+        flushes[cause.ordinal()] += count;
+    }
+
+    public void addQuads(int count) {
+        quads += count;
+    }
+
+    public void addGlyphs(int count) {
+        glyphs += count;
+    }
+
+    public void addScissorPush() {
+        scissorPushes += 1;
+    }
+
+    public void setLeakedPoolObjects(int leakedPoolObjects) {
+        this.leakedPoolObjects = leakedPoolObjects;
+    }
+
+    /**
+     * Resets all the counters to zero.
+     */
+    public void reset() {
+        drawCalls = 0;
+        for (int i = 0; i < flushes.length; ++i) {
+            flushes[i] = 0;
+        }
+        quads = 0;
+        glyphs = 0;
+        scissorPushes = 0;
+        leakedPoolObjects = 0;
+    }
+
+    /**
+     * Copies the counters of another instance.
+     */
+    public void set(KrFrameStats stats) {
+        drawCalls = stats.drawCalls;
+        System.arraycopy(stats.flushes, 0, flushes, 0, flushes.length);
+        quads = stats.quads;
+        glyphs = stats.glyphs;
+        scissorPushes = stats.scissorPushes;
+        leakedPoolObjects = stats.leakedPoolObjects;
+    }
+
+    @Override
+    public String toString() {
+        return "KrFrameStats(drawCalls=" + drawCalls
+                + ", flushes=" + getFlushes()
+                + ", modeSwitchFlushes=" + getFlushes(FlushCause.MODE_SWITCH)
+                + ", clipFlushes=" + getFlushes(FlushCause.CLIP)
+                + ", translateFlushes=" + getFlushes(FlushCause.TRANSLATE)
+                + ", textureChangeFlushes=" + getFlushes(FlushCause.TEXTURE_CHANGE)
+                + ", quads=" + quads
+                + ", glyphs=" + glyphs
+                + ", scissorPushes=" + scissorPushes
+                + ", leakedPoolObjects=" + leakedPoolObjects + ")";
+    }
+}
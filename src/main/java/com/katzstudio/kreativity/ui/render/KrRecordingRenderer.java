@@ -0,0 +1,241 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
+import lombok.Getter;
+
+import static com.katzstudio.kreativity.ui.render.KrDrawCommandBuffer.*;
+
+/**
+ * A {@link KrRenderer} decorator that forwards all the calls to another renderer, while recording
+ * them into a {@link KrDrawCommandBuffer}. The buffer can later be replayed instead of repeating
+ * the work that produced the draw calls.
+ * <p>
+ * Frame related calls ({@code beginFrame}, {@code endFrame}, {@code clear}, {@code setViewportSize}) are forwarded,
+ * but not recorded.
+ */
+public class KrRecordingRenderer extends KrRenderer {
+
+    @Getter private final KrDrawCommandBuffer commands = new KrDrawCommandBuffer();
+
+    private KrRenderer renderer;
+
+    /**
+     * Clears the command buffer and starts recording the calls forwarded to the given renderer.
+     *
+     * @param renderer the renderer that executes the recorded calls
+     */
+    public void begin(KrRenderer renderer) {
+        this.renderer = renderer;
+        commands.clear();
+    }
+
+    /**
+     * Stops recording. The recorded commands are available through {@code getCommands()}.
+     */
+    public void end() {
+        this.renderer = null;
+    }
+
+    @Override
+    public void beginFrame() {
+        renderer.beginFrame();
+    }
+
+    @Override
+    public void endFrame() {
+        renderer.endFrame();
+    }
+
+    @Override
+    public KrFrameStats getFrameStats() {
+        return renderer != null ? renderer.getFrameStats() : super.getFrameStats();
+    }
+
+    @Override
+    public boolean isRetained() {
+        return renderer.isRetained();
+    }
+
+    @Override
+    public void clear() {
+        renderer.clear();
+    }
+
+    @Override
+    public void drawText(String text, float x, float y) {
+        commands.drawText(text, x, y);
+        renderer.drawText(text, x, y);
+    }
+
+    @Override
+    public void drawText(CharSequence text, int start, int end, float x, float y) {
+        commands.drawText(text, start, end, x, y);
+        renderer.drawText(text, start, end, x, y);
+    }
+
+    @Override
+    public void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        commands.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+        renderer.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+    }
+
+    @Override
+    public void drawText(KrMeasuredString text, float x, float y) {
+        commands.drawText(text, x, y);
+        renderer.drawText(text, x, y);
+    }
+
+    @Override
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        commands.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+        renderer.drawTextWithShadow(text, position, shadowOffset, shadowColor);
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h) {
+        commands.shape(DRAW_RECT, x, y, w, h);
+        renderer.drawRect(x, y, w, h);
+    }
+
+    @Override
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        commands.shape(DRAW_LINE, x1, y1, x2, y2);
+        renderer.drawLine(x1, y1, x2, y2);
+    }
+
+    @Override
+    public void fillRect(float x, float y, float w, float h) {
+        commands.shape(FILL_RECT, x, y, w, h);
+        renderer.fillRect(x, y, w, h);
+    }
+
+    @Override
+    public void fillRoundedRect(float x, float y, float w, float h, int cornerRadius) {
+        commands.fillRoundedRect(x, y, w, h, cornerRadius);
+        renderer.fillRoundedRect(x, y, w, h, cornerRadius);
+    }
+
+    @Override
+    public void translate(float x, float y) {
+        commands.translate(x, y);
+        renderer.translate(x, y);
+    }
+
+    @Override
+    public boolean beginClip(float x, float y, float width, float height) {
+        commands.beginClip(x, y, width, height);
+        return renderer.beginClip(x, y, width, height);
+    }
+
+    @Override
+    public void endClip() {
+        commands.command(END_CLIP);
+        renderer.endClip();
+    }
+
+    @Override
+    public boolean getClipBounds(Rectangle bounds) {
+        return renderer.getClipBounds(bounds);
+    }
+
+    @Override
+    public void setViewportSize(float width, float height) {
+        renderer.setViewportSize(width, height);
+    }
+
+    @Override
+    public float setOpacity(float opacity) {
+        commands.setOpacity(opacity);
+        return renderer.setOpacity(opacity);
+    }
+
+    @Override
+    public float getOpacity() {
+        return renderer.getOpacity();
+    }
+
+    @Override
+    public void popState() {
+        commands.command(POP_STATE);
+        renderer.popState();
+    }
+
+    @Override
+    public void pushState() {
+        commands.command(PUSH_STATE);
+        renderer.pushState();
+    }
+
+    @Override
+    public Vector2 getViewportSize() {
+        return renderer.getViewportSize();
+    }
+
+    @Override
+    public KrBrush getBrush() {
+        return renderer.getBrush();
+    }
+
+    @Override
+    public KrPen getPen() {
+        return renderer.getPen();
+    }
+
+    @Override
+    public BitmapFont getFont() {
+        return renderer.getFont();
+    }
+
+    @Override
+    public void setFont(BitmapFont font) {
+        commands.command(SET_FONT, font);
+        renderer.setFont(font);
+    }
+
+    @Override
+    public void setBrush(KrBrush brush) {
+        commands.command(SET_BRUSH, brush);
+        renderer.setBrush(brush);
+    }
+
+    @Override
+    public void setBrush(Drawable drawable) {
+        commands.command(SET_BRUSH_DRAWABLE, drawable);
+        renderer.setBrush(drawable);
+    }
+
+    @Override
+    public void setBrush(Color color) {
+        commands.command(SET_BRUSH_COLOR, color);
+        renderer.setBrush(color);
+    }
+
+    @Override
+    public void setPen(KrPen pen) {
+        commands.command(SET_PEN, pen);
+        renderer.setPen(pen);
+    }
+
+    @Override
+    public void setPen(int size, Color color) {
+        commands.setPen(size, color);
+        renderer.setPen(size, color);
+    }
+
+    @Override
+    public void setPen(float packedColor) {
+        commands.setPackedColor(SET_PEN_PACKED, packedColor);
+        renderer.setPen(packedColor);
+    }
+
+    @Override
+    public void setBrush(float packedColor) {
+        commands.setPackedColor(SET_BRUSH_PACKED, packedColor);
+        renderer.setBrush(packedColor);
+    }
+}
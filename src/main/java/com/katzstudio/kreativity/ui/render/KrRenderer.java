@@ -5,6 +5,8 @@ import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrColor;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
 
 /**
  * The {@link KrRenderer} takes care of rendering various parts of the interface.
@@ -15,18 +17,104 @@ import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 @SuppressWarnings("WeakerAccess")
 public abstract class KrRenderer {
 
+    private final KrFrameStats emptyFrameStats = new KrFrameStats();
+
     public abstract void beginFrame();
 
     public abstract void endFrame();
 
+    /**
+     * Returns the statistics of the last completed frame, published by {@code endFrame}. The same
+     * instance is updated every frame; use {@link KrFrameStats#set} to keep a copy.
+     * <p>
+     * Renderers that don't collect statistics report zero for all counters.
+     */
+    public KrFrameStats getFrameStats() {
+        return emptyFrameStats;
+    }
+
+    /**
+     * Returns true if the content drawn in the previous frame is still available in the current frame.
+     * In this case, only the areas that changed since the previous frame need to be redrawn.
+     * <p>
+     * This method is meaningful only between {@code beginFrame} and {@code endFrame}.
+     */
+    public boolean isRetained() {
+        return false;
+    }
+
+    /**
+     * Clears the area inside the current clip rectangle, or the whole viewport if no clip is active.
+     * Renderers that don't retain their content between frames ignore this call.
+     */
+    public void clear() {
+    }
+
+    /**
+     * Starts drawing into the offscreen layer identified by {@code key}. The layer is created or resized
+     * if needed, and starts fully transparent. Until {@code endLayer} is called, the origin is the top
+     * left corner of the layer and clips set outside the layer don't apply.
+     *
+     * @return true if drawing goes into the layer, false if the renderer doesn't support layers or the layer
+     * doesn't fit its memory budget. {@code endLayer} must only be called if this method returns true.
+     */
+    public boolean beginLayer(Object key, float width, float height) {
+        return false;
+    }
+
+    /**
+     * Stops drawing into the current layer, restoring the state from before {@code beginLayer}.
+     */
+    public void endLayer() {
+    }
+
+    /**
+     * Draws the content of a layer, using the current opacity.
+     *
+     * @return false if the layer doesn't exist, for instance because it was evicted.
+     */
+    public boolean drawLayer(Object key, float x, float y) {
+        return false;
+    }
+
+    /**
+     * Releases the resources held by a layer.
+     */
+    public void releaseLayer(Object key) {
+    }
+
     public void drawText(String text, Vector2 position) {
         drawText(text, position.x, position.y);
     }
 
     public abstract void drawText(String text, float x, float y);
 
+    /**
+     * Draws the characters of {@code text} from {@code start} (inclusive) to {@code end} (exclusive).
+     * The default implementation copies the range into a string. Renderers override it to draw the range directly.
+     */
+    public void drawText(CharSequence text, int start, int end, float x, float y) {
+        drawText(text.subSequence(start, end).toString(), x, y);
+    }
+
     public abstract void drawTextWithShadow(String text, Vector2 position, Vector2 shadowOffset, Color shadowColor);
 
+    public void drawText(KrMeasuredString text, Vector2 position) {
+        drawText(text, position.x, position.y);
+    }
+
+    /**
+     * Draws a measured string. Renderers can submit the glyph geometry cached by the string
+     * instead of laying out the text again.
+     */
+    public void drawText(KrMeasuredString text, float x, float y) {
+        drawText(text.getString(), x, y);
+    }
+
+    public void drawTextWithShadow(KrMeasuredString text, Vector2 position, Vector2 shadowOffset, Color shadowColor) {
+        drawTextWithShadow(text.getString(), position, shadowOffset, shadowColor);
+    }
+
     public void drawRect(Rectangle rectangle) {
         drawRect(rectangle.x, rectangle.y, rectangle.width, rectangle.height);
     }
@@ -57,6 +145,17 @@ public abstract class KrRenderer {
 
     public abstract void endClip();
 
+    /**
+     * Returns the bounds of the active clip, in the current (translated) coordinate space.
+     *
+     * @param bounds receives the clip bounds
+     * @return true if a clip is active, false if drawing is not clipped. In the latter case, {@code bounds}
+     * is not modified
+     */
+    public boolean getClipBounds(Rectangle bounds) {
+        return false;
+    }
+
     public abstract void setViewportSize(float width, float height);
 
     public abstract float setOpacity(float opacity);
@@ -83,6 +182,14 @@ public abstract class KrRenderer {
 
     public abstract void setBrush(Color color);
 
+    /**
+     * Sets a color brush from a packed color, in the format of {@link Color#toFloatBits()}. Renderers
+     * that keep their colors packed override this method to avoid allocating a {@link Color}.
+     */
+    public void setBrush(float packedColor) {
+        setBrush(KrColor.unpack(packedColor, new Color()));
+    }
+
     public abstract void setPen(KrPen pen);
 
     public abstract void setPen(int size, Color color);
@@ -90,4 +197,12 @@ public abstract class KrRenderer {
     public void setPen(Color color) {
         setPen(1, color);
     }
+
+    /**
+     * Sets a one pixel wide pen from a packed color, in the format of {@link Color#toFloatBits()}. Renderers
+     * that keep their colors packed override this method to avoid allocating a {@link Color}.
+     */
+    public void setPen(float packedColor) {
+        setPen(1, KrColor.unpack(packedColor, new Color()));
+    }
 }
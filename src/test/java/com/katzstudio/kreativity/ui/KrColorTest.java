@@ -0,0 +1,31 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.graphics.Color;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrColor}
+ */
+public class KrColorTest {
+
+    @Test
+    public void testMultiplyAlpha() throws Exception {
+        float color = KrColor.multiplyAlpha(new Color(1, 0.5f, 0, 1).toFloatBits(), 0.5f);
+
+        Color unpacked = KrColor.unpack(color, new Color());
+        assertThat(unpacked.r, is(1f));
+        assertThat(unpacked.g, is(127 / 255f));
+        assertThat(unpacked.b, is(0f));
+        assertThat(Math.abs(unpacked.a - 0.5f) < 0.01f, is(true));
+    }
+
+    @Test
+    public void testUnpackOpaqueColor() throws Exception {
+        Color unpacked = KrColor.unpack(Color.WHITE.toFloatBits(), new Color());
+
+        assertThat(unpacked, is(Color.WHITE));
+    }
+}
@@ -0,0 +1,107 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link KrDirtyRegion}
+ */
+public class KrDirtyRegionTest {
+
+    private KrDirtyRegion region;
+
+    @Before
+    public void setUp() throws Exception {
+        region = new KrDirtyRegion();
+        region.setSize(100, 100);
+        region.clear();
+    }
+
+    @Test
+    public void testSeparateRectangles() throws Exception {
+        region.mark(0, 0, 10, 10);
+        region.mark(50, 50, 10, 10);
+
+        assertThat(region.getSize(), is(2));
+        assertThat(region.get(0), is(new Rectangle(0, 0, 10, 10)));
+        assertThat(region.get(1), is(new Rectangle(50, 50, 10, 10)));
+    }
+
+    @Test
+    public void testOverlappingRectanglesAreMerged() throws Exception {
+        region.mark(0, 0, 10, 10);
+        region.mark(5, 5, 10, 10);
+
+        assertThat(region.getSize(), is(1));
+        assertThat(region.get(0), is(new Rectangle(0, 0, 15, 15)));
+    }
+
+    @Test
+    public void testGrownRectangleMergesNeighbours() throws Exception {
+        region.mark(0, 0, 10, 10);
+        region.mark(20, 0, 10, 10);
+        region.mark(5, 0, 20, 5);
+
+        assertThat(region.getSize(), is(1));
+        assertThat(region.get(0), is(new Rectangle(0, 0, 30, 10)));
+    }
+
+    @Test
+    public void testRectanglesAreClippedToBounds() throws Exception {
+        region.mark(-10, 90, 20, 20);
+        region.mark(200, 200, 10, 10);
+
+        assertThat(region.getSize(), is(1));
+        assertThat(region.get(0), is(new Rectangle(0, 90, 10, 10)));
+    }
+
+    @Test
+    public void testFullCoverage() throws Exception {
+        region.mark(-5, -5, 200, 200);
+
+        assertThat(region.isFull(), is(true));
+        assertThat(region.getSize(), is(0));
+    }
+
+    @Test
+    public void testLimitIsNeverExceeded() throws Exception {
+        for (int i = 0; i < KrDirtyRegion.MAX_RECTANGLES * 2; ++i) {
+            region.mark(i * 6, i * 6, 2, 2);
+        }
+
+        assertThat(region.getSize(), is(KrDirtyRegion.MAX_RECTANGLES));
+    }
+
+    @Test
+    public void testCanvasMarksMovedWidgets() throws Exception {
+        initializeToolkit();
+        KrRenderer renderer = mock(KrRenderer.class);
+        when(renderer.isRetained()).thenReturn(true);
+        when(renderer.beginClip(any(Rectangle.class))).thenReturn(true);
+
+        KrCanvas canvas = new KrCanvas(mock(com.katzstudio.kreativity.ui.backend.KrInputSource.class), renderer, 100, 100);
+        KrWidget widget = new KrWidget();
+        widget.setGeometry(10, 10, 10, 10);
+        canvas.getRootPanel().add(widget);
+        canvas.draw();
+
+        reset(renderer);
+        when(renderer.isRetained()).thenReturn(true);
+        when(renderer.beginClip(any(Rectangle.class))).thenReturn(true);
+
+        widget.setPosition(50, 50);
+        canvas.draw();
+
+        verify(renderer).beginClip(new Rectangle(10, 10, 10, 10));
+        verify(renderer).beginClip(new Rectangle(50, 50, 10, 10));
+    }
+}
@@ -0,0 +1,118 @@
+package com.katzstudio.kreativity.ui;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.NinePatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KrNinePatchDrawable}
+ */
+public class KrNinePatchDrawableTest {
+
+    private Texture texture;
+
+    private TextureRegion region;
+
+    @Before
+    public void setUp() {
+        texture = mock(Texture.class);
+        when(texture.getWidth()).thenReturn(64);
+        when(texture.getHeight()).thenReturn(32);
+        region = new TextureRegion(texture, 10, 4, 12, 9);
+    }
+
+    @Test
+    public void testVerticesMatchNinePatch() throws Exception {
+        assertSameVertices(new NinePatch(region, 3, 4, 2, 3), new KrNinePatchDrawable(region, 3, 4, 2, 3));
+        assertSameVertices(new NinePatch(region, 0, 4, 2, 0), new KrNinePatchDrawable(region, 0, 4, 2, 0));
+    }
+
+    @Test
+    public void testCachedVerticesAreOffset() throws Exception {
+        KrNinePatchDrawable drawable = new KrNinePatchDrawable(region, 3, 4, 2, 3);
+
+        float[] first = drawVertices(drawable, 10, 20, 50, 30, Color.WHITE);
+        float[] second = drawVertices(drawable, 15, 25, 50, 30, Color.WHITE);
+
+        for (int i = 0; i < first.length; i += 5) {
+            assertThat(second[i], is(first[i] + 5));
+            assertThat(second[i + 1], is(first[i + 1] + 5));
+        }
+    }
+
+    @Test
+    public void testCacheUsesBatchColor() throws Exception {
+        KrNinePatchDrawable drawable = new KrNinePatchDrawable(region, 3, 4, 2, 3);
+
+        drawVertices(drawable, 0, 0, 50, 30, Color.WHITE);
+        float[] red = drawVertices(drawable, 0, 0, 50, 30, Color.RED);
+
+        assertThat(red[2], is(Color.RED.toFloatBits()));
+    }
+
+    @Test
+    public void testSetPatchUsesNewRegion() throws Exception {
+        KrNinePatchDrawable drawable = new KrNinePatchDrawable(region, 3, 4, 2, 3);
+        drawVertices(drawable, 10, 20, 50, 30, Color.WHITE);
+
+        TextureRegion otherRegion = new TextureRegion(texture, 30, 12, 16, 10);
+        drawable.setPatch(otherRegion, 0, 5, 4, 0);
+
+        assertSameVertices(new NinePatch(otherRegion, 0, 5, 4, 0), drawable);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetPatchRejectsOtherNinePatch() throws Exception {
+        KrNinePatchDrawable drawable = new KrNinePatchDrawable(region, 3, 4, 2, 3);
+
+        drawable.setPatch(new NinePatch(region, 1, 1, 1, 1));
+    }
+
+    private void assertSameVertices(NinePatch patch, KrNinePatchDrawable drawable) {
+        Batch batch = mockBatch(Color.WHITE);
+        patch.draw(batch, 10, 20, 50, 30);
+        ArgumentCaptor<float[]> expected = ArgumentCaptor.forClass(float[].class);
+        ArgumentCaptor<Integer> expectedCount = ArgumentCaptor.forClass(Integer.class);
+        verify(batch).draw(eq(texture), expected.capture(), eq(0), expectedCount.capture());
+
+        float[] actual = drawVertices(drawable, 10, 20, 50, 30, Color.WHITE);
+        assertThat(actual.length, is(expectedCount.getValue()));
+        for (int i = 0; i < actual.length; ++i) {
+            assertThat(actual[i], is(expected.getValue()[i]));
+        }
+    }
+
+    private float[] drawVertices(KrNinePatchDrawable drawable, float x, float y, float width, float height, Color color) {
+        Batch batch = mockBatch(color);
+        drawable.draw(batch, x, y, width, height);
+        ArgumentCaptor<float[]> vertices = ArgumentCaptor.forClass(float[].class);
+        ArgumentCaptor<Integer> count = ArgumentCaptor.forClass(Integer.class);
+        verify(batch, times(1)).draw(any(Texture.class), vertices.capture(), anyInt(), count.capture());
+
+        float[] copy = new float[count.getValue()];
+        System.arraycopy(vertices.getValue(), 0, copy, 0, copy.length);
+        return copy;
+    }
+
+    private static Batch mockBatch(Color color) {
+        Batch batch = mock(Batch.class);
+        when(batch.getColor()).thenReturn(color);
+        when(batch.getPackedColor()).thenReturn(color.toFloatBits());
+        return batch;
+    }
+}
@@ -3,6 +3,7 @@ package com.katzstudio.kreativity.ui;
 import org.hamcrest.Matchers;
 import org.junit.Test;
 
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
 /**
@@ -83,4 +84,39 @@ public class KrSizePolicyModelTest {
 
         assertThat(model.getSizes(100), Matchers.containsInRelativeOrder(60.0f, 40f));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testMinAndMaxSizes() {
+        KrSizePolicyModel model = new KrSizePolicyModel(
+                new KrUnifiedSize(0, 1f),
+                new KrUnifiedSize(0, 1f),
+                new KrUnifiedSize(0, 2f));
+        model.setMinSize(0, 40);
+        model.setMaxSize(2, 30);
+
+        float[] sizes = model.getSizes(100, new float[3]);
+
+        assertThat(sizes[0], is(40.0f));
+        assertThat(sizes[1], is(30.0f));
+        assertThat(sizes[2], is(30.0f));
+    }
+
+    @Test
+    public void testIntSizesReuseArray() {
+        KrSizePolicyModel model = new KrSizePolicyModel(
+                new KrUnifiedSize(0, 1f),
+                new KrUnifiedSize(0, 1f),
+                new KrUnifiedSize(0, 1f));
+        int[] sizes = new int[3];
+
+        assertThat(model.getIntSizes(100, sizes) == sizes, is(true));
+        assertThat(sizes[0], is(33));
+        assertThat(sizes[1], is(33));
+        assertThat(sizes[2], is(34));
+
+        model.setSizePolicy(2, new KrUnifiedSize(10, 0));
+        model.getIntSizes(100, sizes);
+        assertThat(sizes[0], is(45));
+        assertThat(sizes[2], is(10));
+    }
+}
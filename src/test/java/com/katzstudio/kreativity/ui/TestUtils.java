@@ -13,6 +13,7 @@ import java.util.Collection;
 
 import static com.katzstudio.kreativity.ui.TestObjectFactory.*;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -21,7 +22,10 @@ import static org.mockito.Mockito.when;
  */
 public class TestUtils {
     public static void initializeToolkit() {
-        KrBackend backend = createMockBackend();
+        initializeToolkit(createMockBackend());
+    }
+
+    public static void initializeToolkit(KrBackend backend) {
         KrToolkit.initialize(backend, mock(KrSkin.class));
         initializeTestStyles();
     }
@@ -72,6 +76,7 @@ public class TestUtils {
         KrFontMetrics fontMetricsMock = mock(KrFontMetrics.class);
         when(fontMetricsMock.bounds(any(), any())).thenReturn(new Rectangle(0, 0, 100, 10));
         when(fontMetricsMock.bounds(any(), any(), any())).thenReturn(new Rectangle(0, 0, 100, 10));
+        when(fontMetricsMock.bounds(any(), any(), anyInt(), anyInt(), any())).thenReturn(new Rectangle(0, 0, 100, 10));
 
         KrBackend backend = mock(KrBackend.class);
         when(backend.getFontMetrics()).thenReturn(fontMetricsMock);
@@ -0,0 +1,164 @@
+package com.katzstudio.kreativity.ui.backend;
+
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.katzstudio.kreativity.ui.event.KrMouseEvent.Button.LEFT;
+import static com.katzstudio.kreativity.ui.event.KrMouseEvent.Button.NONE;
+import static com.katzstudio.kreativity.ui.event.KrMouseEvent.Type.MOVED;
+import static com.katzstudio.kreativity.ui.event.KrMouseEvent.Type.PRESSED;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrInputEventQueue}
+ */
+public class KrInputEventQueueTest {
+
+    private KrInputEventQueue queue;
+
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() throws Exception {
+        queue = new KrInputEventQueue(true);
+        listener = new RecordingListener();
+        queue.addEventListener(listener);
+    }
+
+    @Test
+    public void testEventsAreDispatchedOnDemand() throws Exception {
+        queue.post(KrKeyEvent.obtain(KrKeyEvent.Type.PRESSED, 10, "a", false, false, false));
+        assertThat(listener.events.isEmpty(), is(true));
+        assertThat(queue.getQueuedEventCount(), is(1));
+
+        queue.dispatchEvents();
+        assertThat(listener.events, is(asList("keyPressed 10")));
+        assertThat(queue.getQueuedEventCount(), is(0));
+    }
+
+    @Test
+    public void testConsecutiveMovesAreCoalesced() throws Exception {
+        queue.post(move(1, 1, 1, 1));
+        queue.post(move(3, 2, 2, 1));
+        queue.post(move(6, 4, 3, 2));
+        queue.post(KrMouseEvent.obtain(PRESSED, LEFT, 6, 4, 0, 0, false, false, false));
+        queue.post(move(7, 4, 1, 0));
+        queue.post(new KrScrollEvent(1));
+        queue.post(move(8, 5, 1, 1));
+
+        queue.dispatchEvents();
+
+        assertThat(listener.events, is(asList(
+                "mouseMoved 6,4 delta 6,4 history 1,1 3,2",
+                "mousePressed 6,4",
+                "mouseMoved 7,4 delta 1,0 history",
+                "scrolled 1.0",
+                "mouseMoved 8,5 delta 1,1 history")));
+        assertThat(queue.getCoalescedEventCount(), is(2));
+    }
+
+    @Test
+    public void testRingBufferRecordsAreDispatchedInPostingOrder() throws Exception {
+        KrInputRingBuffer ringBuffer = new KrInputRingBuffer(8);
+        queue.addRingBuffer(ringBuffer);
+
+        ringBuffer.postKeyEvent(KrKeyEvent.Type.PRESSED, 1, KrInputRingBuffer.NO_CHARACTER, false, false, false);
+        queue.post(KrKeyEvent.obtain(KrKeyEvent.Type.PRESSED, 2, "", false, false, false));
+        ringBuffer.postKeyEvent(KrKeyEvent.Type.PRESSED, 3, KrInputRingBuffer.NO_CHARACTER, false, false, false);
+        queue.post(KrKeyEvent.obtain(KrKeyEvent.Type.RELEASED, 4, "", false, false, false));
+        ringBuffer.postKeyEvent(KrKeyEvent.Type.PRESSED, 5, KrInputRingBuffer.NO_CHARACTER, false, false, false);
+
+        queue.dispatchEvents();
+
+        assertThat(listener.events, is(asList("keyPressed 1", "keyPressed 2", "keyPressed 3", "keyReleased 4", "keyPressed 5")));
+    }
+
+    @Test
+    public void testRawMoves() throws Exception {
+        queue.setCoalescingMouseMoves(false);
+        queue.post(move(1, 1, 1, 1));
+        queue.post(move(3, 2, 2, 1));
+
+        queue.dispatchEvents();
+
+        assertThat(listener.events, is(asList(
+                "mouseMoved 1,1 delta 1,1 history",
+                "mouseMoved 3,2 delta 2,1 history")));
+    }
+
+    @Test
+    public void testImmediateDispatch() throws Exception {
+        queue.setDeferred(false);
+        KrKeyEvent event = KrKeyEvent.obtain(KrKeyEvent.Type.RELEASED, 10, "", false, false, false);
+        listener.isAccepting = true;
+
+        assertThat(queue.post(event), is(true));
+        assertThat(listener.events, is(asList("keyReleased 10")));
+        assertThat(event.isPooled(), is(false));
+    }
+
+    private static KrMouseEvent move(float x, float y, float deltaX, float deltaY) {
+        return KrMouseEvent.obtain(MOVED, NONE, x, y, deltaX, deltaY, false, false, false);
+    }
+
+    private static String format(float x, float y) {
+        return (int) x + "," + (int) y;
+    }
+
+    private static class RecordingListener implements KrInputSource.KrInputEventListener {
+
+        private final List<String> events = new ArrayList<>();
+
+        private boolean isAccepting;
+
+        @Override
+        public void mouseMoved(KrMouseEvent event) {
+            StringBuilder history = new StringBuilder();
+            for (int i = 0; i < event.getHistorySize(); ++i) {
+                history.append(" ").append(format(event.getHistoricalX(i), event.getHistoricalY(i)));
+            }
+            events.add("mouseMoved " + format(event.getX(), event.getY()) + " delta " + format(event.getDeltaX(), event.getDeltaY()) + " history" + history);
+        }
+
+        @Override
+        public void mousePressed(KrMouseEvent event) {
+            events.add("mousePressed " + format(event.getX(), event.getY()));
+        }
+
+        @Override
+        public void mouseReleased(KrMouseEvent event) {
+            events.add("mouseReleased " + format(event.getX(), event.getY()));
+        }
+
+        @Override
+        public void mouseDoubleClicked(KrMouseEvent event) {
+            events.add("mouseDoubleClicked " + format(event.getX(), event.getY()));
+        }
+
+        @Override
+        public void keyPressed(KrKeyEvent event) {
+            events.add("keyPressed " + event.getKeycode());
+        }
+
+        @Override
+        public void keyReleased(KrKeyEvent event) {
+            events.add("keyReleased " + event.getKeycode());
+            if (isAccepting) {
+                event.accept();
+            }
+        }
+
+        @Override
+        public void scrolledEvent(KrScrollEvent event) {
+            events.add("scrolled " + event.getScrollAmount());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.katzstudio.kreativity.ui.backend;
+
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrInputRingBuffer}
+ */
+public class KrInputRingBufferTest {
+
+    private KrInputRingBuffer buffer;
+
+    private KrInputEventQueue queue;
+
+    private final List<Integer> received = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        buffer = new KrInputRingBuffer(6);
+        queue = new KrInputEventQueue(false);
+        queue.addRingBuffer(buffer);
+        queue.addEventListener(new KrInputSource.KrInputEventListener() {
+            @Override
+            public void mouseMoved(KrMouseEvent event) {
+                received.add((int) event.getX());
+            }
+
+            @Override
+            public void mousePressed(KrMouseEvent event) {
+            }
+
+            @Override
+            public void mouseReleased(KrMouseEvent event) {
+            }
+
+            @Override
+            public void mouseDoubleClicked(KrMouseEvent event) {
+            }
+
+            @Override
+            public void keyPressed(KrKeyEvent event) {
+                received.add(event.getKeycode());
+                assertThat(event.getValue(), is(event.isShiftDown() ? "a" : ""));
+            }
+
+            @Override
+            public void keyReleased(KrKeyEvent event) {
+            }
+
+            @Override
+            public void scrolledEvent(KrScrollEvent event) {
+                received.add((int) event.getScrollAmount());
+            }
+        });
+    }
+
+    @Test
+    public void testRecordsAreDecodedInOrder() throws Exception {
+        buffer.postKeyEvent(KrKeyEvent.Type.PRESSED, 1, KrInputRingBuffer.NO_CHARACTER, false, false, false);
+        buffer.postMouseEvent(KrMouseEvent.Type.MOVED, KrMouseEvent.Button.NONE, 2, 0, 0, 0, false, false, false);
+        buffer.postKeyEvent(KrKeyEvent.Type.PRESSED, 3, 'a', false, false, true);
+        buffer.postScrollEvent(4);
+
+        queue.dispatchEvents();
+
+        assertThat(received.toString(), is("[1, 2, 3, 4]"));
+        assertThat(buffer.size(), is(0));
+    }
+
+    @Test
+    public void testFullBufferDropsRecords() throws Exception {
+        assertThat(buffer.getCapacity(), is(8));
+        for (int i = 0; i < 10; ++i) {
+            buffer.postKeyEvent(KrKeyEvent.Type.PRESSED, i, KrInputRingBuffer.NO_CHARACTER, false, false, false);
+        }
+
+        assertThat(buffer.getDroppedEventCount(), is(2));
+        queue.dispatchEvents();
+        assertThat(received.size(), is(8));
+        assertThat(received.get(7), is(7));
+
+        buffer.resetCounters();
+        assertThat(buffer.getDroppedEventCount(), is(0));
+    }
+
+    @Test
+    public void testLateRecordsAreCounted() throws Exception {
+        buffer.setLateThreshold(-1);
+        buffer.postScrollEvent(1);
+        buffer.postScrollEvent(2);
+        queue.dispatchEvents();
+
+        assertThat(buffer.getLateEventCount(), is(2));
+        buffer.resetCounters();
+        assertThat(buffer.getLateEventCount(), is(0));
+    }
+
+    @Test
+    public void testRecordsPostedByAnotherThread() throws Exception {
+        int count = 10000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < count; ++i) {
+                while (!buffer.postKeyEvent(KrKeyEvent.Type.PRESSED, i, KrInputRingBuffer.NO_CHARACTER, false, false, false)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+
+        while (received.size() < count) {
+            queue.dispatchEvents();
+        }
+        producer.join();
+
+        for (int i = 0; i < count; ++i) {
+            assertThat(received.get(i), is(i));
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.katzstudio.kreativity.ui.backend.headless;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Pool;
+import com.badlogic.gdx.utils.Pools;
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.component.KrButton;
+import com.katzstudio.kreativity.ui.component.KrPanel;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.listener.KrMouseListener;
+import com.katzstudio.kreativity.ui.render.KrFrameStats;
+import com.katzstudio.kreativity.ui.render.KrPen;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import com.katzstudio.kreativity.ui.util.KrPools;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static com.katzstudio.kreativity.ui.backend.headless.KrHeadlessRenderer.Command.*;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrHeadlessBackend}
+ */
+public class KrHeadlessBackendTest {
+
+    private KrHeadlessBackend backend;
+
+    private KrCanvas canvas;
+
+    @Before
+    public void setUp() throws Exception {
+        backend = new KrHeadlessBackend(200, 100);
+        initializeToolkit(backend);
+        canvas = getDefaultToolkit().getCanvas();
+    }
+
+    @Test
+    public void testDrawFrame() throws Exception {
+        KrPanel panel = new KrPanel();
+        panel.setGeometry(10, 20, 50, 30);
+        canvas.getRootPanel().add(panel);
+
+        canvas.update(0);
+        canvas.draw();
+
+        KrHeadlessRenderer renderer = backend.getRenderer();
+        assertThat(renderer.getCommandCount(FILL_RECT) > 0, is(true));
+        assertThat(renderer.getClipCount() > 0, is(true));
+        assertThat(renderer.getFlushCount() >= renderer.getTextureBindCount(), is(true));
+
+        Rectangle bounds = new Rectangle();
+        boolean isPanelFilled = false;
+        for (int i = 0; i < renderer.getCommandCount(); ++i) {
+            if (renderer.getCommand(i) == FILL_RECT && renderer.getCommandBounds(i, bounds).equals(new Rectangle(10, 20, 50, 30))) {
+                isPanelFilled = true;
+            }
+        }
+        assertThat(isPanelFilled, is(true));
+    }
+
+    @Test
+    public void testWidgetsOutsideClipAreCulled() throws Exception {
+        KrPanel panel = new KrPanel();
+        panel.setGeometry(300, 0, 50, 30);
+        canvas.getRootPanel().add(panel);
+
+        canvas.update(0);
+        canvas.draw();
+        int drawCount = backend.getRenderer().getDrawCount();
+
+        canvas.getRootPanel().remove(panel);
+        canvas.update(0);
+        canvas.draw();
+
+        assertThat(backend.getRenderer().getDrawCount(), is(drawCount));
+    }
+
+    @Test
+    public void testRendererLeavesLibraryPoolsAlone() throws Exception {
+        Pool<Color> colorPool = Pools.get(Color.class);
+
+        new KrHeadlessRenderer();
+
+        assertThat(Pools.get(Color.class), sameInstance(colorPool));
+    }
+
+    @Test
+    public void testFrameStats() throws Exception {
+        KrPools.install();
+        KrWidget widget = new KrWidget() {
+            @Override
+            protected void drawSelf(KrRenderer renderer) {
+                renderer.fillRect(0, 0, 10, 10);
+                renderer.drawText("a b", 0, 0);
+                Pools.obtain(Vector2.class);
+            }
+        };
+        widget.setGeometry(10, 10, 20, 20);
+        canvas.getRootPanel().add(widget);
+
+        canvas.update(0);
+        canvas.draw();
+
+        KrHeadlessRenderer renderer = backend.getRenderer();
+        KrFrameStats stats = renderer.getFrameStats();
+        assertThat(stats.getDrawCalls(), is(renderer.getFlushCount()));
+        assertThat(stats.getFlushes(), is(renderer.getFlushCount()));
+        assertThat(stats.getFlushes(KrFrameStats.FlushCause.TRANSLATE), is(0));
+        assertThat(stats.getGlyphs(), is(2));
+        assertThat(stats.getScissorPushes() > 0, is(true));
+        assertThat(stats.getLeakedPoolObjects(), is(1));
+    }
+
+    @Test
+    public void testPopStateRestoresState() throws Exception {
+        KrHeadlessRenderer renderer = backend.getRenderer();
+        renderer.beginFrame();
+        renderer.setOpacity(0.5f);
+        renderer.pushState();
+
+        renderer.setOpacity(0.2f);
+        renderer.translate(10, 10);
+        renderer.beginClip(0, 0, 20, 20);
+        renderer.popState();
+
+        renderer.fillRect(0, 0, 5, 5);
+        Rectangle bounds = renderer.getCommandBounds(renderer.getCommandCount() - 1, new Rectangle());
+        assertThat(renderer.getOpacity(), is(0.5f));
+        assertThat(renderer.getClipBounds(new Rectangle()), is(false));
+        assertThat(bounds, is(new Rectangle(0, 0, 5, 5)));
+    }
+
+    @Test
+    public void testPenIsComparedByValue() throws Exception {
+        KrHeadlessRenderer renderer = backend.getRenderer();
+        renderer.setPen(2, new Color(Color.RED));
+        KrPen pen = renderer.getPen();
+
+        renderer.setPen(2, new Color(Color.RED));
+        assertThat(renderer.getPen(), sameInstance(pen));
+
+        renderer.pushState();
+        renderer.setPen(1, Color.BLUE);
+        assertThat(renderer.getPen().getWidth(), is(1f));
+        assertThat(renderer.getPen().getColor(), is(Color.BLUE));
+        renderer.popState();
+
+        assertThat(renderer.getPen().getWidth(), is(2f));
+        assertThat(renderer.getPen().getColor(), is(Color.RED));
+    }
+
+    @Test
+    public void testParallelDrawingSubmitsInOrder() throws Exception {
+        for (int i = 0; i < 8; ++i) {
+            KrButton button = new KrButton("button " + i);
+            button.setGeometry(i * 20, i * 5, 40, 20);
+            canvas.getRootPanel().add(button);
+        }
+        canvas.update(0);
+
+        canvas.draw();
+        KrHeadlessRenderer renderer = backend.getRenderer();
+        int commandCount = renderer.getCommandCount();
+        Rectangle[] sequentialBounds = new Rectangle[commandCount];
+        KrHeadlessRenderer.Command[] sequentialCommands = new KrHeadlessRenderer.Command[commandCount];
+        for (int i = 0; i < commandCount; ++i) {
+            sequentialCommands[i] = renderer.getCommand(i);
+            sequentialBounds[i] = renderer.getCommandBounds(i, new Rectangle());
+        }
+
+        canvas.setParallelDrawing(true);
+        canvas.draw();
+
+        assertThat(renderer.getCommandCount(), is(commandCount));
+        for (int i = 0; i < commandCount; ++i) {
+            assertThat(renderer.getCommand(i), is(sequentialCommands[i]));
+            assertThat(renderer.getCommandBounds(i, new Rectangle()), is(sequentialBounds[i]));
+        }
+    }
+
+    @Test
+    public void testScriptedInput() throws Exception {
+        KrButton button = new KrButton("button");
+        button.setGeometry(0, 0, 50, 20);
+        canvas.getRootPanel().add(button);
+        canvas.update(0);
+
+        int[] clicks = new int[1];
+        button.addListener(() -> clicks[0] += 1);
+
+        backend.getInputSource().moveMouse(10, 10).click(KrMouseEvent.Button.LEFT);
+
+        assertThat(clicks[0], is(1));
+    }
+
+    @Test
+    public void testInputEventsAreReusedUnlessRetained() throws Exception {
+        KrWidget widget = new KrWidget();
+        widget.setGeometry(0, 0, 50, 20);
+        canvas.getRootPanel().add(widget);
+        canvas.update(0);
+
+        List<KrMouseEvent> events = new ArrayList<>();
+        widget.addMouseListener(new KrMouseListener.KrMouseAdapter() {
+            @Override
+            public void mouseMoved(KrMouseEvent event) {
+                if (events.isEmpty()) {
+                    event.retain();
+                }
+                events.add(event);
+            }
+        });
+
+        backend.getInputSource().moveMouse(10, 10).moveMouse(11, 12).moveMouse(15, 12).moveMouse(16, 13);
+
+        assertThat(events.size(), is(3));
+        assertThat(events.get(0).getX(), is(11f));
+        assertThat(events.get(0).getDeltaY(), is(2f));
+        assertThat(events.get(1) == events.get(0), is(false));
+        assertThat(events.get(2), sameInstance(events.get(1)));
+        assertThat(events.get(2).getType(), is(nullValue()));
+
+        events.get(0).release();
+        assertThat(events.get(0).isPooled(), is(false));
+    }
+
+    @Test
+    public void testFontMetricsWithoutFontData() throws Exception {
+        KrHeadlessFontMetrics fontMetrics = backend.getFontMetrics();
+        Rectangle bounds = fontMetrics.bounds(null, "hello", 1, 4, new Rectangle());
+
+        assertThat(bounds.width, is(3 * fontMetrics.getDefaultAdvance()));
+        assertThat(bounds.height, is(fontMetrics.getDefaultHeight()));
+    }
+
+    @Test
+    public void testColorDrawablesAreShared() throws Exception {
+        assertThat(backend.createColorDrawable(new Color(1, 0, 0, 1)), sameInstance(backend.createColorDrawable(Color.RED)));
+    }
+}
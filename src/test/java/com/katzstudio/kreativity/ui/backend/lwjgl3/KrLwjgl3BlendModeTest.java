@@ -0,0 +1,106 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit tests for {@link KrLwjgl3BlendMode}
+ */
+public class KrLwjgl3BlendModeTest {
+
+    private static final float EPSILON = 1e-6f;
+
+    private static final Color BACKGROUND = new Color(0.2f, 0.6f, 0.9f, 1);
+
+    /**
+     * The scroll bar thumb color, a 50% translucent gray.
+     */
+    private static final Color FILL = new Color(0x20202080);
+
+    @Test
+    public void testTranslucentFillThroughLayerMatchesDirectFill() throws Exception {
+        Color direct = blend(KrLwjgl3BlendMode.DIRECT, FILL, new Color(BACKGROUND));
+
+        Color layer = blend(KrLwjgl3BlendMode.OFFSCREEN, FILL, new Color(0, 0, 0, 0));
+        Color composited = blend(KrLwjgl3BlendMode.PREMULTIPLIED, layer, new Color(BACKGROUND));
+
+        assertEquals(FILL.a, layer.a, EPSILON);
+        assertSameColor(composited, direct);
+    }
+
+    @Test
+    public void testLayerOpacityMatchesDirectFillOpacity() throws Exception {
+        float opacity = 0.4f;
+        Color fadedFill = new Color(FILL.r, FILL.g, FILL.b, FILL.a * opacity);
+        Color direct = blend(KrLwjgl3BlendMode.DIRECT, fadedFill, new Color(BACKGROUND));
+
+        Color layer = blend(KrLwjgl3BlendMode.OFFSCREEN, FILL, new Color(0, 0, 0, 0));
+        Color composited = blend(KrLwjgl3BlendMode.PREMULTIPLIED, layer.mul(opacity), new Color(BACKGROUND));
+
+        assertSameColor(composited, direct);
+    }
+
+    @Test
+    public void testNestedLayersMatchDirectFill() throws Exception {
+        Color direct = blend(KrLwjgl3BlendMode.DIRECT, FILL, new Color(BACKGROUND));
+
+        Color innerLayer = blend(KrLwjgl3BlendMode.OFFSCREEN, FILL, new Color(0, 0, 0, 0));
+        Color outerLayer = blend(KrLwjgl3BlendMode.PREMULTIPLIED, innerLayer, new Color(0, 0, 0, 0));
+        Color composited = blend(KrLwjgl3BlendMode.PREMULTIPLIED, outerLayer, new Color(BACKGROUND));
+
+        assertEquals(FILL.a, outerLayer.a, EPSILON);
+        assertSameColor(composited, direct);
+    }
+
+    @Test
+    public void testRetainedFrameMatchesImmediateFrame() throws Exception {
+        Color shadow = new Color(0, 0, 0, 0.3f);
+        Color direct = blend(KrLwjgl3BlendMode.DIRECT, shadow, blend(KrLwjgl3BlendMode.DIRECT, FILL, new Color(BACKGROUND)));
+
+        // the dirty region is cleared to transparent before it's redrawn
+        Color frameBuffer = blend(KrLwjgl3BlendMode.OFFSCREEN, shadow, blend(KrLwjgl3BlendMode.OFFSCREEN, FILL, new Color(0, 0, 0, 0)));
+        Color copied = blend(KrLwjgl3BlendMode.PREMULTIPLIED, frameBuffer, new Color(BACKGROUND));
+
+        assertSameColor(copied, direct);
+    }
+
+    /**
+     * Evaluates the GL blend equation with the factors of the blend mode, storing the result in the destination.
+     */
+    private static Color blend(KrLwjgl3BlendMode mode, Color source, Color destination) {
+        float sourceColor = factor(mode.getSourceColorFactor(), source);
+        float destinationColor = factor(mode.getDestinationColorFactor(), source);
+        float sourceAlpha = factor(mode.getSourceAlphaFactor(), source);
+        float destinationAlpha = factor(mode.getDestinationAlphaFactor(), source);
+        return destination.set(
+                source.r * sourceColor + destination.r * destinationColor,
+                source.g * sourceColor + destination.g * destinationColor,
+                source.b * sourceColor + destination.b * destinationColor,
+                source.a * sourceAlpha + destination.a * destinationAlpha);
+    }
+
+    private static float factor(int factor, Color source) {
+        switch (factor) {
+            case GL20.GL_ONE:
+                return 1;
+            case GL20.GL_SRC_ALPHA:
+                return source.a;
+            case GL20.GL_ONE_MINUS_SRC_ALPHA:
+                return 1 - source.a;
+            default:
+                throw new IllegalArgumentException("Unexpected blend factor: " + factor);
+        }
+    }
+
+    /**
+     * Compares the displayed channels. The alpha of the screen isn't displayed.
+     */
+    private static void assertSameColor(Color actual, Color expected) {
+        assertEquals(expected.r, actual.r, EPSILON);
+        assertEquals(expected.g, actual.g, EPSILON);
+        assertEquals(expected.b, actual.b, EPSILON);
+    }
+}
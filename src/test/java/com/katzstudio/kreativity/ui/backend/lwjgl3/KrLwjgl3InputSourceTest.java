@@ -0,0 +1,79 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.Input;
+import com.katzstudio.kreativity.ui.backend.KrInputSource;
+import com.katzstudio.kreativity.ui.event.KrKeyEvent;
+import com.katzstudio.kreativity.ui.event.KrMouseEvent;
+import com.katzstudio.kreativity.ui.event.KrScrollEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrLwjgl3InputSource}
+ */
+public class KrLwjgl3InputSourceTest {
+
+    private KrLwjgl3InputSource inputSource;
+
+    private int acceptedKeycode;
+
+    @Before
+    public void setUp() throws Exception {
+        inputSource = new KrLwjgl3InputSource();
+        inputSource.addEventListener(new KrInputSource.KrInputEventListener() {
+            @Override
+            public void mouseMoved(KrMouseEvent event) {
+            }
+
+            @Override
+            public void mousePressed(KrMouseEvent event) {
+            }
+
+            @Override
+            public void mouseReleased(KrMouseEvent event) {
+            }
+
+            @Override
+            public void mouseDoubleClicked(KrMouseEvent event) {
+            }
+
+            @Override
+            public void keyPressed(KrKeyEvent event) {
+                if (event.getKeycode() == acceptedKeycode) {
+                    event.accept();
+                }
+            }
+
+            @Override
+            public void keyReleased(KrKeyEvent event) {
+            }
+
+            @Override
+            public void scrolledEvent(KrScrollEvent event) {
+                event.accept();
+            }
+        });
+    }
+
+    @Test
+    public void testHandledEventsAreReportedToLibgdx() throws Exception {
+        acceptedKeycode = Input.Keys.A;
+
+        assertThat(inputSource.keyDown(Input.Keys.A), is(true));
+        assertThat(inputSource.keyDown(Input.Keys.B), is(false));
+        assertThat(inputSource.scrolled(1), is(true));
+        assertThat(inputSource.getEventQueue().getQueuedEventCount(), is(0));
+    }
+
+    @Test
+    public void testDeferredEventsAreReportedAsNotHandled() throws Exception {
+        acceptedKeycode = Input.Keys.A;
+        inputSource.getEventQueue().setDeferred(true);
+
+        assertThat(inputSource.keyDown(Input.Keys.A), is(false));
+        assertThat(inputSource.getEventQueue().getQueuedEventCount(), is(1));
+    }
+}
@@ -0,0 +1,86 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.math.MathUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3QuadClipper.Result.CLIPPED;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3QuadClipper.Result.NEEDS_SCISSOR;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3QuadClipper.Result.OUTSIDE;
+import static com.katzstudio.kreativity.ui.backend.lwjgl3.KrLwjgl3QuadClipper.SPRITE_SIZE;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrLwjgl3QuadClipper}
+ */
+public class KrLwjgl3QuadClipperTest {
+
+    private KrLwjgl3QuadClipper clipper;
+
+    private float[] target;
+
+    @Before
+    public void setUp() {
+        clipper = new KrLwjgl3QuadClipper();
+        target = new float[SPRITE_SIZE];
+
+        // a clip nested in a (0, 0, 100, 100) clip, intersected with it the way the renderer does
+        clipper.setClip(20, 20, 60, 60);
+    }
+
+    @Test
+    public void testAxisAlignedQuadIsShrunk() {
+        float[] quad = quad(10, 30, 20, 20, 0);
+
+        assertThat(clipper.clip(quad, 0, target, 0), is(CLIPPED));
+        assertThat(target[0], is(20f));
+        assertThat(target[1], is(30f));
+        assertThat(target[10], is(30f));
+        assertThat(target[11], is(50f));
+        assertThat(target[3], is(0.5f));
+        assertThat(target[13], is(1f));
+    }
+
+    @Test
+    public void testRotatedQuadCrossingNestedClipNeedsScissor() {
+        float[] quad = quad(50, 30, 20, 10, 30);
+
+        assertThat(clipper.clip(quad, 0, target, 0), is(NEEDS_SCISSOR));
+        for (int i = 0; i < SPRITE_SIZE; ++i) {
+            assertThat(target[i], is(quad[i]));
+        }
+    }
+
+    @Test
+    public void testRotatedQuadInsideNestedClipIsKept() {
+        assertThat(clipper.clip(quad(30, 30, 10, 10, 30), 0, target, 0), is(CLIPPED));
+    }
+
+    @Test
+    public void testRotatedQuadOutsideNestedClipIsDropped() {
+        assertThat(clipper.clip(quad(70, 70, 10, 10, 30), 0, target, 0), is(OUTSIDE));
+    }
+
+    /**
+     * Returns the vertices of a quad rotated counterclockwise around its bottom left corner, with the
+     * texture coordinates of a whole texture.
+     */
+    private static float[] quad(float x, float y, float width, float height, float rotation) {
+        float cos = MathUtils.cosDeg(rotation);
+        float sin = MathUtils.sinDeg(rotation);
+        float[] localX = { 0, 0, width, width };
+        float[] localY = { 0, height, height, 0 };
+        float[] u = { 0, 0, 1, 1 };
+        float[] v = { 1, 0, 0, 1 };
+
+        float[] vertices = new float[SPRITE_SIZE];
+        for (int i = 0; i < 4; ++i) {
+            vertices[i * 5] = x + localX[i] * cos - localY[i] * sin;
+            vertices[i * 5 + 1] = y + localX[i] * sin + localY[i] * cos;
+            vertices[i * 5 + 3] = u[i];
+            vertices[i * 5 + 4] = v[i];
+        }
+        return vertices;
+    }
+}
@@ -0,0 +1,63 @@
+package com.katzstudio.kreativity.ui.backend.lwjgl3;
+
+import com.badlogic.gdx.graphics.Texture;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for {@link KrLwjgl3QuadSorter}
+ */
+public class KrLwjgl3QuadSorterTest {
+
+    private KrLwjgl3QuadSorter sorter;
+
+    private Texture skin;
+
+    private Texture icons;
+
+    @Before
+    public void setUp() {
+        sorter = new KrLwjgl3QuadSorter();
+        skin = mock(Texture.class);
+        icons = mock(Texture.class);
+    }
+
+    @Test
+    public void testToolBarIconsAreGroupedByTexture() {
+        for (int i = 0; i < 4; ++i) {
+            sorter.add(skin, quad(i * 20, 0, 18, 18), 0);
+            sorter.add(icons, quad(i * 20 + 2, 2, 14, 14), 0);
+        }
+
+        assertThat(sorter.getRunCount(), is(2));
+        assertThat(sorter.getVertexCount(0), is(80));
+        assertThat(sorter.getVertexCount(1), is(80));
+    }
+
+    @Test
+    public void testQuadDoesNotMovePastOverlappingRun() {
+        sorter.add(skin, quad(0, 0, 10, 10), 0);
+        sorter.add(icons, quad(20, 0, 10, 10), 0);
+        sorter.add(skin, quad(40, 0, 10, 10), 0);
+        assertThat(sorter.getRunCount(), is(2));
+
+        sorter.add(skin, quad(25, 5, 10, 10), 0);
+        assertThat(sorter.getRunCount(), is(3));
+        assertThat(sorter.getTexture(2), is(skin));
+    }
+
+    private static float[] quad(float x, float y, float width, float height) {
+        float[] vertices = new float[20];
+        float[] xs = { x, x, x + width, x + width };
+        float[] ys = { y, y + height, y + height, y };
+        for (int i = 0; i < 4; ++i) {
+            vertices[i * 5] = xs[i];
+            vertices[i * 5 + 1] = ys[i];
+        }
+        return vertices;
+    }
+}
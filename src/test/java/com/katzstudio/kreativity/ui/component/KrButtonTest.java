@@ -3,6 +3,7 @@ package com.katzstudio.kreativity.ui.component;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
 import com.katzstudio.kreativity.ui.event.KrEnterEvent;
 import com.katzstudio.kreativity.ui.event.KrExitEvent;
 import com.katzstudio.kreativity.ui.event.KrMouseEvent;
@@ -10,10 +11,13 @@ import com.katzstudio.kreativity.ui.render.KrRenderer;
 import com.katzstudio.kreativity.ui.style.KrButtonStyle;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
 import static com.katzstudio.kreativity.ui.TestObjectFactory.createButtonStyle;
 import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
@@ -44,7 +48,9 @@ public class KrButtonTest {
     public void testDrawSimple() throws Exception {
         button.drawSelf(renderer);
         verifyRendererCalledWithDrawable(buttonStyle.backgroundNormal);
-        verify(renderer).drawTextWithShadow(eq("button"), any(Vector2.class), eq(Vector2.Zero), eq(Color.BLACK));
+        ArgumentCaptor<KrMeasuredString> text = ArgumentCaptor.forClass(KrMeasuredString.class);
+        verify(renderer).drawTextWithShadow(text.capture(), any(Vector2.class), eq(Vector2.Zero), eq(Color.BLACK));
+        assertThat(text.getValue().getString(), is("button"));
     }
 
     @Test
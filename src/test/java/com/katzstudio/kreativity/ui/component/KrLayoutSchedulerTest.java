@@ -0,0 +1,83 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.layout.KrFlowLayout;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrLayoutScheduler}
+ */
+public class KrLayoutSchedulerTest {
+
+    private KrCanvas canvas;
+
+    private KrLayoutScheduler scheduler;
+
+    private KrWidget panel;
+
+    private KrWidget leaf;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+        canvas = createCanvas();
+        scheduler = canvas.getLayoutScheduler();
+
+        panel = new KrPanel();
+        KrWidget row = new KrPanel();
+        leaf = new KrWidget();
+        row.add(leaf);
+        panel.add(row);
+        canvas.getRootPanel().add(panel);
+        canvas.update(0);
+    }
+
+    @Test
+    public void testInvalidationsAreCoalesced() throws Exception {
+        int[] rootInvalidations = new int[1];
+        canvas.getRootPanel().addWidgetListener(new KrWidget.KrWidgetListener.KrAbstractWidgetListener() {
+            @Override
+            public void invalidated() {
+                rootInvalidations[0] += 1;
+            }
+        });
+
+        leaf.invalidate();
+        leaf.invalidate();
+        leaf.setSize(10, 10);
+
+        assertThat(rootInvalidations[0], is(1));
+        assertThat(scheduler.isLayoutPending(), is(true));
+
+        canvas.update(0);
+
+        assertThat(scheduler.isLayoutPending(), is(false));
+        assertThat(scheduler.getRootCount(), is(1));
+        assertThat(scheduler.getPassCount(), is(1));
+        assertThat(scheduler.getLayoutCount(), is(4));
+        assertThat(canvas.getRootPanel().isValid(), is(true));
+        assertThat(leaf.isValid(), is(true));
+    }
+
+    @Test
+    public void testValidSubtreesAreSkipped() throws Exception {
+        KrWidget sibling = new KrPanel();
+        sibling.setLayout(new KrFlowLayout());
+        for (int i = 0; i < 10; ++i) {
+            sibling.add(new KrWidget());
+        }
+        canvas.getRootPanel().add(sibling);
+        canvas.update(0);
+
+        leaf.invalidate();
+        canvas.update(0);
+
+        assertThat(scheduler.getLayoutCount(), is(4));
+    }
+}
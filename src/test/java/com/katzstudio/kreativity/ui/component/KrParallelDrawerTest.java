@@ -0,0 +1,96 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link KrParallelDrawer}
+ */
+public class KrParallelDrawerTest {
+
+    private ForkJoinPool pool;
+
+    private KrParallelDrawer drawer;
+
+    private KrRenderer renderer;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+
+        pool = new ForkJoinPool(2);
+        drawer = new KrParallelDrawer(pool);
+        renderer = mock(KrRenderer.class);
+        when(renderer.getViewportSize()).thenReturn(new Vector2(100, 100));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testEveryWidgetIsDrawn() throws Exception {
+        CountingWidget first = new CountingWidget();
+        CountingWidget second = new CountingWidget();
+        CountingWidget third = new CountingWidget();
+
+        drawer.draw(renderer, asList(first, second, third), false, new Rectangle());
+
+        assertThat(first.drawSelfCount, is(1));
+        assertThat(second.drawSelfCount, is(1));
+        assertThat(third.drawSelfCount, is(1));
+    }
+
+    @Test
+    public void testTasksAreReusableAfterFailure() throws Exception {
+        CountingWidget first = new CountingWidget();
+        CountingWidget failing = new CountingWidget();
+        CountingWidget third = new CountingWidget();
+        List<KrWidget> widgets = asList(first, failing, third);
+        failing.isFailing = true;
+
+        try {
+            drawer.draw(renderer, widgets, false, new Rectangle());
+            fail("expected the failure of the widget to be rethrown");
+        } catch (IllegalStateException ignored) {
+        }
+
+        failing.isFailing = false;
+        drawer.draw(renderer, widgets, false, new Rectangle());
+
+        assertThat(first.drawSelfCount, is(2));
+        assertThat(failing.drawSelfCount, is(1));
+        assertThat(third.drawSelfCount, is(2));
+    }
+
+    private static class CountingWidget extends KrWidget {
+
+        private volatile int drawSelfCount;
+
+        private volatile boolean isFailing;
+
+        @Override
+        protected void drawSelf(KrRenderer renderer) {
+            if (isFailing) {
+                throw new IllegalStateException("draw failed");
+            }
+            drawSelfCount += 1;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.katzstudio.kreativity.ui.component;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit tests for {@link KrSpatialIndex}
+ */
+public class KrSpatialIndexTest {
+
+    private KrWidget parent;
+
+    @Before
+    public void setUp() throws Exception {
+        parent = new KrWidget();
+        parent.setGeometry(0, 0, 2000, 2000);
+        for (int i = 0; i < 100; ++i) {
+            KrWidget child = new KrWidget();
+            child.setGeometry((i % 10) * 100, (i / 10) * 100, 50, 50);
+            parent.add(child);
+        }
+    }
+
+    @Test
+    public void testFindChild() throws Exception {
+        assertThat(parent.findChildAt(125, 210), is(parent.getChild(21)));
+        assertThat(parent.findChildAt(950, 950), is(parent.getChild(99)));
+        assertThat(parent.findChildAt(75, 75), is(nullValue()));
+    }
+
+    @Test
+    public void testMovedChild() throws Exception {
+        KrWidget child = parent.getChild(0);
+        child.setPosition(1500, 1500);
+
+        assertThat(parent.findChildAt(10, 10), is(nullValue()));
+        assertThat(parent.findChildAt(1510, 1510), is(child));
+    }
+
+    @Test
+    public void testTopmostChild() throws Exception {
+        KrWidget background = new KrWidget();
+        background.setGeometry(0, 0, 2000, 2000);
+        parent.add(background);
+
+        KrWidget overlay = new KrWidget();
+        overlay.setGeometry(100, 100, 10, 10);
+        parent.add(overlay);
+
+        assertThat(parent.findChildAt(105, 105), is(overlay));
+        assertThat(parent.findChildAt(10, 10), is(background));
+
+        parent.remove(background);
+        overlay.setVisible(false);
+        assertThat(parent.findChildAt(105, 105), is(parent.getChild(11)));
+        assertThat(parent.findChildAt(1990, 1990), is(nullValue()));
+    }
+}
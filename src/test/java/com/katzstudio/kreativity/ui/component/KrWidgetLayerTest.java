@@ -0,0 +1,117 @@
+package com.katzstudio.kreativity.ui.component;
+
+import com.katzstudio.kreativity.ui.render.KrRenderer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static com.katzstudio.kreativity.ui.KrToolkit.getDefaultToolkit;
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the layer caching of {@link KrWidget}
+ */
+public class KrWidgetLayerTest {
+
+    private KrRenderer renderer;
+
+    private CountingWidget parent;
+
+    private CountingWidget child;
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+
+        renderer = mock(KrRenderer.class);
+        when(renderer.beginLayer(any(), anyFloat(), anyFloat())).thenReturn(true);
+        when(renderer.drawLayer(any(), anyFloat(), anyFloat())).thenReturn(true);
+
+        parent = new CountingWidget();
+        child = new CountingWidget();
+        parent.add(child);
+        parent.setGeometry(10, 10, 100, 100);
+        child.setGeometry(5, 5, 20, 20);
+        parent.setCacheAsLayer(true);
+    }
+
+    @Test
+    public void testLayerIsReused() throws Exception {
+        parent.draw(renderer);
+        parent.draw(renderer);
+
+        assertThat(parent.drawSelfCount, is(1));
+        assertThat(child.drawSelfCount, is(1));
+        verify(renderer, times(1)).beginLayer(parent, 100, 100);
+        verify(renderer, times(2)).drawLayer(parent, 0, 0);
+    }
+
+    @Test
+    public void testOpacityAndPositionDontInvalidateLayer() throws Exception {
+        parent.draw(renderer);
+        parent.setOpacity(0.5f);
+        parent.setPosition(50, 50);
+        parent.draw(renderer);
+
+        assertThat(parent.drawSelfCount, is(1));
+    }
+
+    @Test
+    public void testChildRepaintInvalidatesLayer() throws Exception {
+        parent.draw(renderer);
+        child.setText("changed");
+        parent.draw(renderer);
+
+        assertThat(parent.drawSelfCount, is(2));
+        assertThat(child.drawSelfCount, is(2));
+    }
+
+    @Test
+    public void testRemovedWidgetReleasesLayers() throws Exception {
+        KrWidget root = new KrWidget();
+        root.add(parent);
+        child.setCacheAsLayer(true);
+        KrRenderer toolkitRenderer = getDefaultToolkit().getRenderer();
+
+        root.remove(parent);
+
+        verify(toolkitRenderer).releaseLayer(parent);
+        verify(toolkitRenderer).releaseLayer(child);
+    }
+
+    @Test
+    public void testLayerIsRenderedOpaque() throws Exception {
+        parent.setOpacity(0.5f);
+        parent.draw(renderer);
+
+        assertThat(parent.drawOpacity, is(1f));
+    }
+
+    @Test
+    public void testFallbackWhenLayerUnavailable() throws Exception {
+        when(renderer.beginLayer(any(), anyFloat(), anyFloat())).thenReturn(false);
+
+        parent.draw(renderer);
+        parent.draw(renderer);
+
+        assertThat(parent.drawSelfCount, is(2));
+        verify(renderer, never()).drawLayer(any(), anyFloat(), anyFloat());
+    }
+
+    private static class CountingWidget extends KrWidget {
+
+        private int drawSelfCount;
+
+        private float drawOpacity;
+
+        @Override
+        protected void drawSelf(KrRenderer renderer) {
+            drawSelfCount += 1;
+            drawOpacity = getDrawOpacity();
+        }
+    }
+}
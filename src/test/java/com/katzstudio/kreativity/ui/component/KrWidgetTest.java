@@ -1,11 +1,17 @@
 package com.katzstudio.kreativity.ui.component;
 
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
 import com.katzstudio.kreativity.ui.KrCanvas;
+import com.katzstudio.kreativity.ui.render.KrRenderer;
 import org.junit.Test;
 
 import static com.katzstudio.kreativity.ui.TestObjectFactory.createCanvas;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for {@link KrWidget}
@@ -61,4 +67,89 @@ public class KrWidgetTest {
         parent.remove(child);
         assertThat(child.isFocused(), is(false));
     }
+
+    @Test
+    public void testChildrenOutsideClipAreNotDrawn() throws Exception {
+        KrWidget parent = new KrWidget();
+        KrWidget visibleChild = new KrWidget();
+        KrWidget hiddenChild = new KrWidget();
+        parent.add(visibleChild);
+        parent.add(hiddenChild);
+        parent.setGeometry(0, 0, 100, 100);
+        visibleChild.setGeometry(0, 90, 100, 20);
+        hiddenChild.setGeometry(0, 100, 100, 20);
+
+        KrRenderer renderer = mock(KrRenderer.class);
+        when(renderer.getClipBounds(any(Rectangle.class))).thenAnswer(invocation -> {
+            ((Rectangle) invocation.getArguments()[0]).set(0, 0, 100, 100);
+            return true;
+        });
+
+        parent.draw(renderer);
+
+        verify(renderer).translate(0, 90);
+        verify(renderer, never()).translate(0, 100);
+        verify(renderer, times(2)).beginClip(anyFloat(), anyFloat(), anyFloat(), anyFloat());
+    }
+
+    @Test
+    public void testMeasuredSizesAreCachedUntilContentChanges() throws Exception {
+        int[] measureCount = new int[1];
+        KrWidget parent = new KrWidget();
+        KrWidget child = new KrWidget() {
+            @Override
+            public Vector2 calculatePreferredSize() {
+                measureCount[0] += 1;
+                return new Vector2(10, 10);
+            }
+        };
+        parent.add(child);
+
+        child.getPreferredSize();
+        child.getPreferredWidth();
+        child.setGeometry(5, 5, 20, 20);
+        child.getPreferredHeight();
+        assertThat(measureCount[0], is(1));
+
+        parent.getPreferredSize();
+        child.setText("changed");
+        child.getPreferredSize();
+        assertThat(measureCount[0], is(2));
+        assertThat(parent.isValid(), is(false));
+    }
+
+    @Test
+    public void testScreenTransformFollowsAncestors() throws Exception {
+        KrWidget root = new KrWidget();
+        KrWidget parent = new KrWidget();
+        KrWidget child = new KrWidget();
+        root.add(parent);
+        parent.add(child);
+        root.setPosition(5, 5);
+        parent.setPosition(10, 20);
+        child.setPosition(1, 2);
+        Vector2 position = new Vector2();
+
+        assertThat(child.localToScreen(3, 3, position), is(new Vector2(19, 30)));
+
+        root.setPosition(0, 0);
+        assertThat(child.localToScreen(3, 3, position), is(new Vector2(14, 25)));
+        assertThat(child.screenToLocal(14, 25, position), is(new Vector2(3, 3)));
+
+        parent.remove(child);
+        assertThat(child.getScreenX(), is(1.0f));
+    }
+
+    @Test
+    public void testDrawOpacityFollowsAncestors() throws Exception {
+        KrWidget parent = new KrWidget();
+        KrWidget child = new KrWidget();
+        parent.add(child);
+        child.setOpacity(0.5f);
+
+        assertThat(child.getDrawOpacity(), is(0.5f));
+
+        parent.setOpacity(0.5f);
+        assertThat(child.getDrawOpacity(), is(0.25f));
+    }
 }
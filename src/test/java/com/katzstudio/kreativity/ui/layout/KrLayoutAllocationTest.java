@@ -0,0 +1,111 @@
+package com.katzstudio.kreativity.ui.layout;
+
+import com.katzstudio.kreativity.ui.KrOrientation;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.katzstudio.kreativity.ui.KrOrientation.HORIZONTAL;
+import static com.katzstudio.kreativity.ui.KrOrientation.VERTICAL;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that relayouts using the built-in layouts don't allocate.
+ */
+public class KrLayoutAllocationTest {
+
+    private final List<KrWidget> widgets = new ArrayList<>();
+
+    private final List<KrWidget> leaves = new ArrayList<>();
+
+    @Test
+    public void testRelayoutProducesNoGarbage() throws Exception {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        KrWidget root = createTree();
+        assertThat(widgets.size() > 5000, is(true));
+
+        for (int i = 0; i < 20; ++i) {
+            relayout(root, i);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long start = allocationBean.getThreadAllocatedBytes(threadId);
+        long overhead = allocationBean.getThreadAllocatedBytes(threadId) - start;
+
+        long before = allocationBean.getThreadAllocatedBytes(threadId);
+        relayout(root, 0);
+        relayout(root, 1);
+        long allocated = allocationBean.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        assertThat(allocated, is(0L));
+        assertThat(leaves.get(0).getWidth() > 0, is(true));
+    }
+
+    private void relayout(KrWidget root, int iteration) {
+        for (int i = 0; i < leaves.size(); ++i) {
+            leaves.get(i).invalidate();
+        }
+        root.setSize(1000 + (iteration % 2) * 200, 800);
+        for (int i = 0; i < widgets.size(); ++i) {
+            widgets.get(i).validate();
+        }
+    }
+
+    private KrWidget createTree() {
+        KrWidget root = createContainer(new KrBorderLayout(2, 2));
+        root.add(createFlow(HORIZONTAL, 50), KrBorderLayout.Constraint.NORTH);
+        root.add(createFlow(VERTICAL, 50), KrBorderLayout.Constraint.WEST);
+
+        KrWidget stack = createContainer(new KrStackLayout());
+        for (int i = 0; i < 2; ++i) {
+            KrWidget rows = createContainer(new KrFlowLayout(VERTICAL, 1, 1));
+            for (int row = 0; row < 40; ++row) {
+                rows.add(createFlow(HORIZONTAL, 50));
+            }
+            stack.add(rows);
+        }
+        root.add(stack, KrBorderLayout.Constraint.CENTER);
+
+        KrWidget cards = createContainer(new KrCardLayout());
+        for (int i = 0; i < 10; ++i) {
+            cards.add(createFlow(VERTICAL, 100), "card" + i);
+        }
+        root.add(cards, KrBorderLayout.Constraint.EAST);
+
+        KrWidget grid = createContainer(new KrGridLayout(5, 1, 1));
+        for (int i = 0; i < 10; ++i) {
+            grid.add(createFlow(HORIZONTAL, 5));
+        }
+        root.add(grid, KrBorderLayout.Constraint.SOUTH);
+        return root;
+    }
+
+    private KrWidget createFlow(KrOrientation orientation, int leafCount) {
+        KrWidget flow = createContainer(new KrFlowLayout(orientation, 1, 1));
+        for (int i = 0; i < leafCount; ++i) {
+            KrWidget leaf = new KrWidget();
+            leaf.setPreferredSize(10 + i % 7, 8 + i % 5);
+            widgets.add(leaf);
+            leaves.add(leaf);
+            flow.add(leaf);
+        }
+        return flow;
+    }
+
+    private KrWidget createContainer(KrLayout layout) {
+        KrWidget container = new KrWidget();
+        container.setLayout(layout);
+        widgets.add(container);
+        return container;
+    }
+}
@@ -0,0 +1,226 @@
+package com.katzstudio.kreativity.ui.render;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
+import com.katzstudio.kreativity.ui.KrMeasuredString;
+import com.katzstudio.kreativity.ui.component.KrWidget;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+
+import static com.katzstudio.kreativity.ui.TestUtils.initializeToolkit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyFloat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link KrRecordingRenderer} and {@link KrDrawCommandBuffer}
+ */
+public class KrRecordingRendererTest {
+
+    @Before
+    public void setUp() throws Exception {
+        initializeToolkit();
+    }
+
+    @Test
+    public void testRecordedCallsAreForwarded() throws Exception {
+        KrRenderer target = mock(KrRenderer.class);
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+
+        recorder.begin(target);
+        recorder.setBrush(Color.RED);
+        recorder.fillRect(1, 2, 3, 4);
+        recorder.end();
+
+        verify(target).setBrush(Color.RED);
+        verify(target).fillRect(1, 2, 3, 4);
+        assertThat(recorder.getCommands().size(), is(2));
+    }
+
+    @Test
+    public void testReplayKeepsOrderAndArguments() throws Exception {
+        Drawable drawable = mock(Drawable.class);
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+
+        recorder.begin(mock(KrRenderer.class));
+        recorder.setBrush(drawable);
+        recorder.fillRect(0, 0, 10, 20);
+        recorder.setPen(1, Color.WHITE);
+        recorder.drawText("text", 5, 6);
+        recorder.drawLine(1, 1, 9, 9);
+        recorder.fillRoundedRect(2, 3, 4, 5, 3);
+        recorder.end();
+
+        KrRenderer target = mock(KrRenderer.class);
+        recorder.getCommands().replay(target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).setBrush(drawable);
+        inOrder.verify(target).fillRect(0, 0, 10, 20);
+        inOrder.verify(target).setPen(1, Color.WHITE);
+        inOrder.verify(target).drawText("text", 5, 6);
+        inOrder.verify(target).drawLine(1, 1, 9, 9);
+        inOrder.verify(target).fillRoundedRect(2, 3, 4, 5, 3);
+    }
+
+    @Test
+    public void testReplayMeasuredText() throws Exception {
+        KrMeasuredString text = new KrMeasuredString("text");
+        Vector2 position = new Vector2(1, 2);
+        Vector2 offset = new Vector2(0, 1);
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+
+        recorder.begin(mock(KrRenderer.class));
+        recorder.drawText(text, 3, 4);
+        recorder.drawTextWithShadow(text, position, offset, Color.BLACK);
+        recorder.end();
+
+        KrRenderer target = mock(KrRenderer.class);
+        recorder.getCommands().replay(target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).drawText(text, 3, 4);
+        inOrder.verify(target).drawTextWithShadow(text, position, offset, Color.BLACK);
+    }
+
+    @Test
+    public void testReplayPackedColors() throws Exception {
+        float red = Color.RED.toFloatBits();
+        float blue = Color.BLUE.toFloatBits();
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+
+        recorder.begin(mock(KrRenderer.class));
+        recorder.setPen(red);
+        recorder.setBrush(blue);
+        recorder.end();
+
+        KrRenderer target = mock(KrRenderer.class);
+        recorder.getCommands().replay(target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).setPen(red);
+        inOrder.verify(target).setBrush(blue);
+    }
+
+    @Test
+    public void testReplayTextRange() throws Exception {
+        StringBuilder text = new StringBuilder("hello world");
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+
+        recorder.begin(mock(KrRenderer.class));
+        recorder.drawText(text, 6, 11, 10, 20);
+        recorder.end();
+
+        KrRenderer target = mock(KrRenderer.class);
+        recorder.getCommands().replay(target);
+
+        verify(target).drawText(text, 6, 11, 10, 20);
+    }
+
+    @Test
+    public void testReplaySkipsEndClipWhenClipFails() throws Exception {
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+        KrRenderer recordingTarget = mock(KrRenderer.class);
+        when(recordingTarget.beginClip(anyFloat(), anyFloat(), anyFloat(), anyFloat())).thenReturn(true);
+
+        recorder.begin(recordingTarget);
+        recorder.beginClip(0, 0, 10, 10);
+        recorder.fillRect(0, 0, 10, 10);
+        recorder.endClip();
+        recorder.end();
+
+        KrRenderer target = mock(KrRenderer.class);
+        when(target.beginClip(anyFloat(), anyFloat(), anyFloat(), anyFloat())).thenReturn(false);
+        recorder.getCommands().replay(target);
+
+        verify(target).fillRect(0, 0, 10, 10);
+        verify(target, never()).endClip();
+    }
+
+    @Test
+    public void testPopStateRewindsReplayedClips() throws Exception {
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+        KrRenderer recordingTarget = mock(KrRenderer.class);
+        when(recordingTarget.beginClip(anyFloat(), anyFloat(), anyFloat(), anyFloat())).thenReturn(true);
+
+        recorder.begin(recordingTarget);
+        recorder.beginClip(0, 0, 10, 10);
+        recorder.pushState();
+        recorder.beginClip(0, 0, 5, 5);
+        recorder.popState();
+        recorder.endClip();
+        recorder.end();
+
+        KrRenderer target = mock(KrRenderer.class);
+        when(target.beginClip(anyFloat(), anyFloat(), anyFloat(), anyFloat())).thenReturn(true);
+        recorder.getCommands().replay(target);
+
+        // the inner clip is closed by popState, so only the outer one is ended
+        verify(target, times(1)).endClip();
+    }
+
+    @Test
+    public void testBeginClearsPreviousCommands() throws Exception {
+        KrRecordingRenderer recorder = new KrRecordingRenderer();
+
+        recorder.begin(mock(KrRenderer.class));
+        recorder.fillRect(0, 0, 1, 1);
+        recorder.end();
+
+        recorder.begin(mock(KrRenderer.class));
+        recorder.end();
+
+        assertThat(recorder.getCommands().isEmpty(), is(true));
+    }
+
+    @Test
+    public void testCachedWidgetReplaysUntilInvalidated() throws Exception {
+        CountingWidget widget = new CountingWidget();
+        widget.setGeometry(0, 0, 10, 10);
+        widget.setDrawCacheEnabled(true);
+
+        KrRenderer renderer = mock(KrRenderer.class);
+        widget.draw(renderer);
+        widget.draw(renderer);
+
+        assertThat(widget.drawSelfCount, is(1));
+        verify(renderer, times(2)).fillRect(0, 0, 10, 10);
+
+        widget.setOpacity(0.5f);
+        widget.draw(renderer);
+        assertThat(widget.drawSelfCount, is(2));
+
+        widget.setText("changed");
+        widget.draw(renderer);
+        assertThat(widget.drawSelfCount, is(3));
+
+        widget.setSize(20, 20);
+        widget.draw(renderer);
+        assertThat(widget.drawSelfCount, is(4));
+    }
+
+    @Test
+    public void testUncachedWidgetDrawsEveryFrame() throws Exception {
+        CountingWidget widget = new CountingWidget();
+
+        KrRenderer renderer = mock(KrRenderer.class);
+        widget.draw(renderer);
+        widget.draw(renderer);
+
+        assertThat(widget.drawSelfCount, is(2));
+    }
+
+    private static class CountingWidget extends KrWidget {
+
+        private int drawSelfCount;
+
+        @Override
+        protected void drawSelf(KrRenderer renderer) {
+            drawSelfCount += 1;
+            renderer.fillRect(0, 0, getWidth(), getHeight());
+        }
+    }
+}